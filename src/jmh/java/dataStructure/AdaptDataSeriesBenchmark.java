@@ -0,0 +1,78 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dataStructure;
+
+import com.github.geoframecomponents.jswmm.dataStructure.SWMMobject;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resampling one day of rainfall curves to the 30 s routing step, from maps and from time series.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AdaptDataSeriesBenchmark {
+
+    private static final long START = Instant.parse("2018-01-01T00:00:00Z").getEpochSecond();
+    private static final long END = START + 86400L;
+    private static final long TO_STEP = 30L;
+
+    @Param({"1", "3", "10"})
+    public int curves;
+
+    @Param({"60", "300"})
+    public long fromStep;
+
+    private SWMMobject dataStructure;
+    private HashMap<Integer, LinkedHashMap<Instant, Double>> maps;
+    private TimeSeries series;
+
+    @Setup
+    public void createData() {
+        dataStructure = new SWMMobject();
+        maps = new HashMap<>();
+        series = new TimeSeries(Instant.ofEpochSecond(START), fromStep);
+        for (int id = 1; id <= curves; id++) {
+            LinkedHashMap<Instant, Double> data = new LinkedHashMap<>();
+            int index = 0;
+            for (long time = START; time <= END; time += fromStep, index++) {
+                double value = Math.abs(Math.sin(id * time * 1.0e-4));
+                data.put(Instant.ofEpochSecond(time), value);
+                series.set(id, index, value);
+            }
+            maps.put(id, data);
+        }
+    }
+
+    @Benchmark
+    public TimeSeries fromMaps() {
+        return dataStructure.adaptDataSeries(TO_STEP, fromStep, END, START, maps);
+    }
+
+    @Benchmark
+    public TimeSeries fromTimeSeries() {
+        return dataStructure.adaptDataSeries(TO_STEP, END, START, series);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dataStructure;
+
+import com.github.geoframecomponents.jswmm.dataStructure.SWMMobject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+
+/**
+ * Binary tree of conduits written as a .inp file: link i drains node Ni into N(i/2), link 1 into the outfall,
+ * and subcatchment i drains into Ni. One hour of simulation, 60 s runoff and 30 s routing steps; the terrain
+ * is flat, as in the default network.
+ */
+public final class SyntheticNetwork {
+
+    private static final PrintStream SILENT = new PrintStream(new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+    });
+
+    private SyntheticNetwork() {
+    }
+
+    public static SWMMobject create(int links, int curves) throws IOException {
+        File inp = File.createTempFile("network", ".inp");
+        try (PrintWriter writer = new PrintWriter(inp)) {
+            writer.println("[OPTIONS]\nFLOW_UNITS CMS\nFLOW_ROUTING STEADY\nSTART_DATE 01/01/2018\n" +
+                    "START_TIME 00:00:00\nEND_DATE 01/01/2018\nEND_TIME 01:00:00\nWET_STEP 00:01:00\n" +
+                    "ROUTING_STEP 0:00:30");
+            writer.println("[RAINGAGES]\nRG1 INTENSITY 0:01 1.0 TIMESERIES rain");
+
+            writer.println("[SUBCATCHMENTS]");
+            for (int link = 1; link <= links; link++) {
+                writer.println(link + " RG1 N" + link + " 1 75 100 1 0");
+            }
+            writer.println("[SUBAREAS]");
+            for (int link = 1; link <= links; link++) {
+                writer.println(link + " 0.01 0.1 0.05 0.05 25 OUTLET");
+            }
+
+            writer.println("[JUNCTIONS]");
+            for (int node = 1; node <= links; node++) {
+                writer.println("N" + node + " 100 0 0 0 0");
+            }
+            writer.println("[OUTFALLS]\nOUT 100 FREE NO");
+
+            writer.println("[CONDUITS]");
+            for (int link = 1; link <= links; link++) {
+                writer.println(link + " N" + link + " " + (link == 1 ? "OUT" : "N" + link / 2) +
+                        " 100 0.0083 0 0 0 0");
+            }
+            writer.println("[XSECTIONS]");
+            for (int link = 1; link <= links; link++) {
+                writer.println(link + " CIRCULAR 1 0 0 0 1");
+            }
+
+            writer.println("[COORDINATES]\nOUT 0 -100");
+            for (int node = 1; node <= links; node++) {
+                writer.println("N" + node + " " + node + " " + depth(node) * 100);
+            }
+        }
+
+        try {
+            return silently(() -> new SWMMobject(inp.getPath(), curves));
+        }
+        finally {
+            inp.delete();
+        }
+    }
+
+    /**
+     * Runs an action with the standard output discarded, for methods that print as they work.
+     */
+    public static <T> T silently(java.util.function.Supplier<T> action) {
+        PrintStream out = System.out;
+        System.setOut(SILENT);
+        try {
+            return action.get();
+        }
+        finally {
+            System.setOut(out);
+        }
+    }
+
+    private static int depth(int node) {
+        return 31 - Integer.numberOfLeadingZeros(node);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package formatData;
+
+import com.github.geoframecomponents.jswmm.dataStructure.formatData.readData.ReadSWMM5RainfallFile;
+import com.github.geoframecomponents.jswmm.dataStructure.formatData.readData.ReadSWMM5RainfallFileNIO;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a rainfall FILE of 1-minute data, current reader against the NIO one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RainfallReaderBenchmark {
+
+    @Param({"10", "100"})
+    public int stations;
+
+    @Param({"1000000"})
+    public int lines;
+
+    private File rainfall;
+
+    @Setup
+    public void writeFile() throws IOException {
+        rainfall = File.createTempFile("rainfall", ".txt");
+        rainfall.deleteOnExit();
+
+        Random random = new Random(1);
+        try (PrintWriter writer = new PrintWriter(rainfall)) {
+            int perStation = lines / stations;
+            for (int station = 0; station < stations; station++) {
+                long time = Instant.parse("1990-01-01T00:00:00Z").getEpochSecond();
+                for (int line = 0; line < perStation; line++, time += 60) {
+                    String date = Instant.ofEpochSecond(time).toString();
+                    writer.println(String.format("STA%03d %s %s %s %s %s %.4f", station, date.substring(0, 4),
+                            date.substring(5, 7), date.substring(8, 10), date.substring(11, 13),
+                            date.substring(14, 16), random.nextDouble()));
+                }
+            }
+        }
+    }
+
+    @TearDown
+    public void deleteFile() {
+        rainfall.delete();
+    }
+
+    @Benchmark
+    public LinkedHashMap<String, LinkedHashMap<Instant, Double>> current() throws IOException {
+        return new ReadSWMM5RainfallFile(rainfall.getPath()).getData();
+    }
+
+    @Benchmark
+    public ReadSWMM5RainfallFileNIO primitiveArrays() throws IOException {
+        return new ReadSWMM5RainfallFileNIO(rainfall.getPath());
+    }
+
+    @Benchmark
+    public LinkedHashMap<String, LinkedHashMap<Instant, Double>> primitiveArraysToMap() throws IOException {
+        return new ReadSWMM5RainfallFileNIO(rainfall.getPath()).getData();
+    }
+}
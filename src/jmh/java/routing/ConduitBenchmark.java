@@ -0,0 +1,123 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package routing;
+
+import com.github.geoframecomponents.jswmm.dataStructure.SWMMobject;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.Conduit;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.OutsideSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.CrossSectionType;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.pipeSize.CommercialPipeSize;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.pipeSize.Lucchese_ca;
+import com.github.geoframecomponents.jswmm.dataStructure.routingDS.RoutingSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.routingDS.RoutingSteadySetup;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import dataStructure.SyntheticNetwork;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Design and steady routing of every conduit of a synthetic network, each one fed by the same inflow.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConduitBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int links;
+
+    @Param({"1", "3"})
+    public int curves;
+
+    private static final double INFLOW = 0.5;
+
+    private Map<String, Conduit> conduits;
+    private CommercialPipeSize pipeCompany;
+    private RoutingSetup routingSetup;
+    private Instant start;
+    private Instant end;
+    private long step;
+
+    @Setup
+    public void createNetwork() throws IOException {
+        SWMMobject dataStructure = SyntheticNetwork.create(links, curves);
+        conduits = dataStructure.getConduits();
+        pipeCompany = new Lucchese_ca();
+        routingSetup = new RoutingSteadySetup(dataStructure.getRoutingSetup().getRoutingStepSize());
+        start = dataStructure.getTimeSetup().getStartDate();
+        end = dataStructure.getTimeSetup().getEndDate();
+        step = dataStructure.getRoutingSetup().getRoutingStepSize();
+
+        TimeSeries inflow = new TimeSeries(start, step);
+        for (int id = 1; id <= curves; id++) {
+            int index = 0;
+            for (Instant time = start; !time.isAfter(end); time = time.plusSeconds(step), index++) {
+                inflow.set(id, index, INFLOW);
+            }
+        }
+        for (String linkName : conduits.keySet()) {
+            dataStructure.setLinkFlowRate(linkName, inflow);
+        }
+
+        evaluateDimension();
+    }
+
+    @Benchmark
+    public Map<String, Conduit> evaluateDimension() {
+        return SyntheticNetwork.silently(() -> {
+            for (Conduit conduit : conduits.values()) {
+                conduit.evaluateDimension(conduit.evaluateMaxDischarge(start, 0.0), pipeCompany);
+            }
+            return conduits;
+        });
+    }
+
+    @Benchmark
+    public Map<String, Conduit> evaluateFlowRate() {
+        for (Conduit conduit : conduits.values()) {
+            for (Instant time = start; time.isBefore(end); time = time.plusSeconds(step)) {
+                conduit.evaluateFlowRate(time);
+            }
+        }
+        return conduits;
+    }
+
+    @Benchmark
+    public double routeFlowRate() {
+        double sum = 0.0;
+        for (Conduit conduit : conduits.values()) {
+            OutsideSetup upstream = conduit.getUpstreamOutside();
+            OutsideSetup downstream = conduit.getDownstreamOutside();
+            CrossSectionType crossSection = conduit.getCrossSectionType();
+            TimeSeries upstreamFlow = upstream.getStreamFlowRate();
+            for (int id = 1; id <= curves; id++) {
+                int index = 0;
+                for (Instant time = start; time.isBefore(end); time = time.plusSeconds(step), index++) {
+                    sum += routingSetup.routeFlowRate(id, time, upstreamFlow.get(id, index), upstream, downstream,
+                            100.0, 120.0, 0.005, crossSection).getValue();
+                }
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package routing;
+
+import com.github.geoframecomponents.jswmm.dataStructure.SWMMobject;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.Conduit;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.pipeSize.CommercialPipeSize;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.pipeSize.PipeCatalog;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import com.github.geoframecomponents.jswmm.routing.ConduitNetwork;
+import com.github.geoframecomponents.jswmm.routing.ParallelRouting;
+import com.github.geoframecomponents.jswmm.routing.Routing;
+import dataStructure.SyntheticNetwork;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Design and routing of a whole synthetic network: {@link ParallelRouting} on link indices against
+ * {@link Routing#route} called link by link with the subtrees keyed by link number, and the peak discharge of
+ * every conduit in one sweep of the rows against a call per step.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NetworkDesignBenchmark {
+
+    /**
+     * Inflow of the whole network, spread over its links
+     */
+    private static final double INFLOW = 0.1;
+
+    @Param({"1023", "8191"})
+    public int links;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private final CommercialPipeSize pipeCompany = catalog();
+    private SWMMobject dataStructure;
+    private Map<String, TimeSeries> inflows;
+    private Instant start;
+    private Instant end;
+    private long step;
+
+    @Setup(Level.Invocation)
+    public void createNetwork() throws IOException {
+        dataStructure = SyntheticNetwork.create(links, 1);
+        start = dataStructure.getTimeSetup().getStartDate();
+        end = dataStructure.getTimeSetup().getEndDate();
+        step = dataStructure.getRoutingSetup().getRoutingStepSize();
+
+        inflows = new HashMap<>();
+        for (String linkName : dataStructure.getConduits().keySet()) {
+            TimeSeries inflow = new TimeSeries(start, step);
+            int index = 0;
+            for (Instant time = start; !time.isAfter(end); time = time.plusSeconds(step), index++) {
+                inflow.set(1, index, INFLOW / links);
+            }
+            inflows.put(linkName, inflow);
+            dataStructure.setLinkFlowRate(linkName, inflow);
+        }
+    }
+
+    /**
+     * Pipes from 0.1 m to 5 m, wide enough for the outlet of the largest network
+     */
+    private static CommercialPipeSize catalog() {
+        double[] inner = new double[50];
+        double[] outer = new double[inner.length];
+        for (int pipe = 0; pipe < inner.length; pipe++) {
+            inner[pipe] = 100.0 * (pipe + 1);
+            outer[pipe] = 1.1 * inner[pipe];
+        }
+        return new PipeCatalog(inner, outer);
+    }
+
+    @Benchmark
+    public Map<String, TimeSeries> designByIndex() {
+        ParallelRouting routing = new ParallelRouting();
+        routing.dataStructure = dataStructure;
+        routing.inflows = inflows;
+        routing.pipeCompany = pipeCompany;
+        routing.parallelism = parallelism;
+        return SyntheticNetwork.silently(() -> {
+            routing.run();
+            return routing.routingFlowRate;
+        });
+    }
+
+    @Benchmark
+    public Map<String, TimeSeries> designByName() {
+        ConduitNetwork network = new ConduitNetwork(dataStructure.getConduits());
+        Map<String, TimeSeries> routed = new HashMap<>();
+        return SyntheticNetwork.silently(() -> {
+            for (List<String> level : network.getLevels()) {
+                for (String linkName : level) {
+                    HashMap<Integer, List<Integer>> subtrees = new HashMap<>();
+                    for (String upstreamLink : network.getUpstreamLinks(linkName)) {
+                        List<Integer> subtree = new ArrayList<>();
+                        for (String link : network.getSubtree(upstreamLink)) {
+                            subtree.add(Integer.parseInt(link));
+                        }
+                        subtrees.put(Integer.parseInt(upstreamLink), subtree);
+                    }
+                    List<TimeSeries> linkInflows = new ArrayList<>();
+                    linkInflows.add(inflows.get(linkName));
+                    for (String upstreamLink : network.getUpstreamLinks(linkName)) {
+                        linkInflows.add(routed.get(upstreamLink));
+                    }
+                    dataStructure.dispatchFlowRates(dataStructure.getConduit(linkName).getUpstreamOutside()
+                            .getNodeName(), linkName, linkInflows);
+
+                    routed.put(linkName, Routing.route(dataStructure, linkName, pipeCompany, subtrees));
+                }
+            }
+            return routed;
+        });
+    }
+
+    @Benchmark
+    public double maxDischargeSweep() {
+        double sum = 0.0;
+        for (Conduit conduit : dataStructure.getConduits().values()) {
+            sum += conduit.evaluateMaxDischarge(start, end, step);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double maxDischargePerStep() {
+        double sum = 0.0;
+        for (Conduit conduit : dataStructure.getConduits().values()) {
+            double maxDischarge = 0.0;
+            for (Instant time = start; time.isBefore(end); time = time.plusSeconds(step)) {
+                maxDischarge = conduit.evaluateMaxDischarge(time, maxDischarge);
+            }
+            sum += maxDischarge;
+        }
+        return sum;
+    }
+}
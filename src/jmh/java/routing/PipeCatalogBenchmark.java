@@ -0,0 +1,89 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package routing;
+
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.pipeSize.PipeCatalog;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Selection of commercial diameters from a catalog of thousands of pipes: binary search in {@link PipeCatalog}
+ * against the linear scan of a sorted map with the unit conversions of every call, as the catalogs used to do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PipeCatalogBenchmark {
+
+    private static final int DESIGNS = 1024;
+
+    @Param({"8", "5000"})
+    public int pipes;
+
+    private PipeCatalog catalog;
+    private Map<Double, Double> linearCatalog;
+    private double[] designs;
+
+    @Setup
+    public void createCatalog() {
+        double[] inner = new double[pipes];
+        double[] outer = new double[pipes];
+        linearCatalog = new LinkedHashMap<>();
+        for (int pipe = 0; pipe < pipes; pipe++) {
+            inner[pipe] = 100.0 + (pipe + 1) * 2900.0 / pipes;
+            outer[pipe] = 1.1 * inner[pipe];
+            linearCatalog.put(inner[pipe], outer[pipe]);
+        }
+        catalog = new PipeCatalog(inner, outer);
+
+        Random random = new Random(1);
+        designs = new double[DESIGNS];
+        for (int design = 0; design < DESIGNS; design++) {
+            designs[design] = 0.1 + 2.8 * random.nextDouble();
+        }
+    }
+
+    @Benchmark
+    public double binarySearch() {
+        double sum = 0.0;
+        for (double design : designs) {
+            sum += catalog.getCommercialDiameter(design)[0];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double linearScan() {
+        double sum = 0.0;
+        for (double design : designs) {
+            double designed = design * 1000.0;
+            for (Map.Entry<Double, Double> diameter : linearCatalog.entrySet()) {
+                if (diameter.getKey() > designed) {
+                    sum += new double[]{diameter.getKey() / 1000.0, diameter.getValue() / 1000.0}[0];
+                    break;
+                }
+            }
+        }
+        return sum;
+    }
+}
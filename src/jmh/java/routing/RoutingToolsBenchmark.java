@@ -0,0 +1,95 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package routing;
+
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.Circular;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.ShapeGeometry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups of the circular {@link ShapeGeometry} made by design and routing, over a batch of normalized section
+ * factors and areas: the kinematic wave and steady routing invert the section factor and read it back with its
+ * derivative, the design reads the depth of a section factor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RoutingToolsBenchmark {
+
+    private static final int LOOKUPS = 1024;
+
+    @Param({"180", "1800"})
+    public int referenceTableLength;
+
+    private ShapeGeometry geometry;
+    private double[] sectionFactors;
+    private double[] areas;
+
+    @Setup
+    public void createTable() {
+        geometry = new Circular(1.0).getGeometry(referenceTableLength);
+
+        Random random = new Random(1);
+        sectionFactors = new double[LOOKUPS];
+        areas = new double[LOOKUPS];
+        for (int lookup = 0; lookup < LOOKUPS; lookup++) {
+            sectionFactors[lookup] = random.nextDouble() * geometry.getMaximumSectionFactor();
+            areas[lookup] = random.nextDouble();
+        }
+    }
+
+    @Benchmark
+    public double areaOfSectionFactor() {
+        double sum = 0.0;
+        for (double sectionFactor : sectionFactors) {
+            sum += geometry.getAreaOfSectionFactor(sectionFactor);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double sectionFactorOfArea() {
+        double sum = 0.0;
+        for (double area : areas) {
+            sum += geometry.getSectionFactorOfArea(area);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double sectionFactorDerivative() {
+        double sum = 0.0;
+        for (double area : areas) {
+            sum += geometry.getSectionFactorDerivative(area);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double depthOfSectionFactor() {
+        double sum = 0.0;
+        for (double sectionFactor : sectionFactors) {
+            sum += geometry.getDepthOfSectionFactor(sectionFactor);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package runoff;
+
+import com.github.geoframecomponents.jswmm.dataStructure.SWMMobject;
+import com.github.geoframecomponents.jswmm.dataStructure.hydrology.subcatchment.Area;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import com.github.geoframecomponents.jswmm.metrics.Metrics;
+import com.github.geoframecomponents.jswmm.runoff.PreRunoff;
+import dataStructure.SyntheticNetwork;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runoff of every area of a synthetic network, and the sum of the subarea flow rates alone, with the metrics
+ * disabled or recording.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AreaBenchmark {
+
+    @Param({"10", "100"})
+    public int areas;
+
+    @Param({"1", "3"})
+    public int curves;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private SWMMobject dataStructure;
+    private TimeSeries rainfall;
+    private Instant start;
+    private Instant end;
+
+    @Setup
+    public void createNetwork() throws IOException {
+        Metrics.setEnabled(metrics);
+        dataStructure = SyntheticNetwork.create(areas, curves);
+        start = dataStructure.getTimeSetup().getStartDate();
+        end = dataStructure.getTimeSetup().getEndDate();
+
+        PreRunoff preRunoff = new PreRunoff();
+        preRunoff.dataStructure = dataStructure;
+        preRunoff.numberOfCurves = curves;
+        preRunoff.run();
+        rainfall = preRunoff.getAdaptedRainfallData();
+
+        for (String areaName : dataStructure.getAreaNames()) {
+            dataStructure.getAreas(areaName).evaluateRunoffFlowRate(rainfall, dataStructure.getRunoffSetup(),
+                    start, end);
+        }
+    }
+
+    @Benchmark
+    public void evaluateRunoffFlowRate(Blackhole blackhole) {
+        for (String areaName : dataStructure.getAreaNames()) {
+            Area area = dataStructure.getAreas(areaName);
+            blackhole.consume(area.evaluateRunoffFlowRate(rainfall, dataStructure.getRunoffSetup(), start, end));
+        }
+    }
+
+    @Benchmark
+    public void evaluateTotalFlowRate(Blackhole blackhole) {
+        for (String areaName : dataStructure.getAreaNames()) {
+            blackhole.consume(dataStructure.getAreas(areaName).evaluateTotalFlowRate());
+        }
+    }
+
+    @TearDown
+    public void disableMetrics() {
+        Metrics.setEnabled(false);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package runoff;
+
+import com.github.geoframecomponents.jswmm.dataStructure.options.ManningPowers;
+import org.apache.commons.math3.util.FastMath;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The 5/3 and 2/3 powers of the Manning equation: Math.pow, FastMath.pow and the fast mode of
+ * {@link ManningPowers}, over a batch of depths spread across twelve decades. The largest relative distance of
+ * each one from Math.pow on the batch is printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ManningPowersBenchmark {
+
+    private static final int POWERS = 1024;
+    private static final double FIVE_THIRDS = 5.0 / 3.0;
+    private static final double TWO_THIRDS = 2.0 / 3.0;
+
+    private double[] depths;
+
+    @Setup
+    public void createDepths() {
+        Random random = new Random(1);
+        depths = new double[POWERS];
+        for (int power = 0; power < POWERS; power++) {
+            depths[power] = Math.pow(10.0, -6.0 + 12.0 * random.nextDouble());
+        }
+
+        double fastMath = 0.0;
+        double fast = 0.0;
+        for (double depth : depths) {
+            double exact = Math.pow(depth, FIVE_THIRDS);
+            fastMath = Math.max(fastMath, Math.abs(FastMath.pow(depth, FIVE_THIRDS) - exact) / exact);
+            fast = Math.max(fast, Math.abs(ManningPowers.fastFiveThirds(depth) - exact) / exact);
+        }
+        System.out.println("5/3 relative error vs Math.pow: FastMath.pow " + fastMath + ", fast mode " + fast);
+    }
+
+    @Benchmark
+    public double fiveThirdsMathPow() {
+        double sum = 0.0;
+        for (double depth : depths) {
+            sum += Math.pow(depth, FIVE_THIRDS);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double fiveThirdsFastMathPow() {
+        double sum = 0.0;
+        for (double depth : depths) {
+            sum += FastMath.pow(depth, FIVE_THIRDS);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double fiveThirdsCbrt() {
+        double sum = 0.0;
+        for (double depth : depths) {
+            double root = Math.cbrt(depth);
+            sum += depth * root * root;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double fiveThirdsFastMode() {
+        double sum = 0.0;
+        for (double depth : depths) {
+            sum += ManningPowers.fastFiveThirds(depth);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double twoThirdsMathPow() {
+        double sum = 0.0;
+        for (double depth : depths) {
+            sum += Math.pow(depth, TWO_THIRDS);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double twoThirdsFastMode() {
+        double sum = 0.0;
+        for (double depth : depths) {
+            sum += ManningPowers.fastTwoThirds(depth);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package runoff;
+
+import com.github.geoframecomponents.jswmm.dataStructure.hydrology.subcatchment.ImperviousWithStorage;
+import com.github.geoframecomponents.jswmm.dataStructure.hydrology.subcatchment.ImperviousWithoutStorage;
+import com.github.geoframecomponents.jswmm.dataStructure.hydrology.subcatchment.Pervious;
+import com.github.geoframecomponents.jswmm.dataStructure.hydrology.subcatchment.Subarea;
+import com.github.geoframecomponents.jswmm.dataStructure.options.units.CubicMetersperSecond;
+import com.github.geoframecomponents.jswmm.dataStructure.runoffDS.RunoffSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.runoffDS.SWMM5RunoffSetup;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One hour of runoff of a single subarea, every rainfall curve at each 60 s step.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SubareaBenchmark {
+
+    private static final Instant START = Instant.parse("2018-01-01T00:00:00Z");
+    private static final Instant END = Instant.parse("2018-01-01T01:00:00Z");
+    private static final long STEP = 60L;
+
+    @Param({"PERVIOUS", "IMPERVIOUS_WITH_STORAGE", "IMPERVIOUS_WITHOUT_STORAGE"})
+    public String subareaType;
+
+    @Param({"1", "3", "10"})
+    public int curves;
+
+    private Subarea subarea;
+    private RunoffSetup runoffSetup;
+    private double[] rainfall;
+
+    @Setup
+    public void createSubarea() {
+        CubicMetersperSecond units = new CubicMetersperSecond();
+        runoffSetup = new SWMM5RunoffSetup(START, END, STEP, 1.0e-8, 1.0e+3, 1.0e-5, 1.0e-5, units);
+
+        switch (subareaType) {
+            case "PERVIOUS":
+                subarea = new Pervious(0.25, 0.00005, 0.1, units, START, STEP);
+                break;
+            case "IMPERVIOUS_WITH_STORAGE":
+                subarea = new ImperviousWithStorage(0.5625, 0.1875, 0.00005, 0.01, units, START, STEP);
+                break;
+            default:
+                subarea = new ImperviousWithoutStorage(0.5625, 0.1875, 0.01, units, START, STEP);
+                break;
+        }
+        subarea.setDepthFactor(0.01, 100.0);
+
+        rainfall = new double[curves];
+        for (int id = 1; id <= curves; id++) {
+            subarea.setAreaFlowRate(id, START, 0.0);
+            subarea.setRunoffDepth(id, START, 0.0);
+            subarea.setTotalDepth(id, START, 0.0);
+            rainfall[id - 1] = 0.005 * id;
+        }
+    }
+
+    @Benchmark
+    public Subarea evaluateFlowRate() {
+        for (Instant time = START; time.isBefore(END); time = time.plusSeconds(STEP)) {
+            for (int id = 1; id <= curves; id++) {
+                subarea.evaluateFlowRate(id, rainfall[id - 1], 0.0, time, runoffSetup, 0.01, 100.0);
+            }
+        }
+        return subarea;
+    }
+}
@@ -16,11 +16,18 @@
 package com.github.geoframecomponents.jswmm.dataStructure;
 
 import com.github.geoframecomponents.jswmm.dataStructure.hydrology.subcatchment.*;
+import com.github.geoframecomponents.jswmm.dataStructure.formatData.readData.ReadCheckpointFile;
 import com.github.geoframecomponents.jswmm.dataStructure.formatData.readData.ReadDataFromFile;
+import com.github.geoframecomponents.jswmm.dataStructure.formatData.readData.ReadSWMM5InpFile;
+import com.github.geoframecomponents.jswmm.dataStructure.formatData.writeData.WriteCheckpointFile;
 import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.Conduit;
 import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.OutsideSetup;
 import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.Circular;
 import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.CrossSectionType;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.Egg;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.Horseshoe;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.Rectangular;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.Trapezoidal;
 import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.nodeObject.Junction;
 import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.nodeObject.Outfall;
 import com.github.geoframecomponents.jswmm.dataStructure.hydrology.rainData.GIUHsetup;
@@ -31,22 +38,39 @@ import com.github.geoframecomponents.jswmm.dataStructure.options.units.CubicMete
 import com.github.geoframecomponents.jswmm.dataStructure.options.units.ProjectUnits;
 import com.github.geoframecomponents.jswmm.dataStructure.options.time.GlobalTimeSetup;
 import com.github.geoframecomponents.jswmm.dataStructure.options.time.TimeSetup;
-//import org.altervista.growworkinghard.jswmm.dataStructure.routingDS.RoutingKinematicWaveSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.routingDS.RoutingDynamicWaveSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.routingDS.RoutingKinematicWaveSetup;
 import com.github.geoframecomponents.jswmm.dataStructure.routingDS.RoutingSetup;
 import com.github.geoframecomponents.jswmm.dataStructure.routingDS.RoutingSteadySetup;
 import com.github.geoframecomponents.jswmm.dataStructure.runoffDS.RunoffSetup;
 import com.github.geoframecomponents.jswmm.dataStructure.runoffDS.SWMM5RunoffSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.Resampler;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.ResamplingMethod;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import com.github.geoframecomponents.jswmm.metrics.Counter;
+import com.github.geoframecomponents.jswmm.metrics.Metrics;
+import com.github.geoframecomponents.jswmm.metrics.Timer;
+import com.github.geoframecomponents.jswmm.routing.RoutingMethod;
+import com.github.geoframecomponents.jswmm.runoff.OdeMethod;
 
 import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class SWMMobject {
 
+    private static final Timer READ_INP = Metrics.timer("io.inp");
+    private static final Counter INP_LINES = Metrics.counter("io.inpLines");
+    private static final Timer WRITE_CHECKPOINT = Metrics.timer("io.checkpointWrite");
+    private static final Timer READ_CHECKPOINT = Metrics.timer("io.checkpointRead");
+    private static final double MINIMUM_DROP = 0.001;
+
     private TimeSetup timeSetup;
     private RunoffSetup runoffSetup;
     private RoutingSetup routingSetup;
@@ -57,15 +81,36 @@ public class SWMMobject {
     private Map<String, Conduit> conduit = new ConcurrentHashMap<>();
     private LinkedHashMap<Instant, Double> downstreamFlowRate;
     private ProjectUnits projectUnits;
+    private HashMap<String, String> areaOutlets = new HashMap<>();
+    private HashMap<String, Double> initialFlowRates = new HashMap<>();
+    private HashMap<String, Double> inpSlopes = new HashMap<>();
+    private HashMap<String, LinkedHashMap<Instant, Double>> timeSeries = new HashMap<>();
 
     public SWMMobject(String inpFileName) {
-        setTime();
-        setRunoff();
-        setRouting();
-        setRaingages();
-        setSubcatchments();
-        setNodes();
-        setLinks();
+        this(inpFileName, 3);
+    }
+
+    /**
+     * Network, options and time series of a SWMM5 .inp file, with the subareas of every subcatchment
+     * replicated for each rainfall curve.
+     */
+    public SWMMobject(String inpFileName, Integer numberOfCurves) {
+        InpSections sections = new InpSections(numberOfCurves);
+        ReadSWMM5InpFile inpFile;
+        try {
+            inpFile = new ReadSWMM5InpFile(inpFileName, sections);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Unable to read '" + inpFileName + "'", e);
+        }
+        sections.build();
+
+        for (int id = 1; id <= numberOfCurves; id++) {
+            setInitialValues(id);
+        }
+
+        READ_INP.record(inpFile.getElapsedNanos());
+        INP_LINES.add(inpFile.getLines());
     }
 
     public SWMMobject() {
@@ -128,10 +173,67 @@ public class SWMMobject {
         return areas.get(areaName);
     }
 
+    public Set<String> getAreaNames() {
+        return Collections.unmodifiableSet(areas.keySet());
+    }
+
     public Conduit getConduit(String conduitName) {
         return conduit.get(conduitName);
     }
 
+    public Map<String, Conduit> getConduits() {
+        return Collections.unmodifiableMap(conduit);
+    }
+
+    /**
+     * Keeps the XSECTIONS of the .inp conduits and their slopes between the inverts, so they are routed as SWMM5
+     * does instead of being designed again.
+     */
+    public void fixInpDimensions() {
+        for (Map.Entry<String, Double> slope : inpSlopes.entrySet()) {
+            Conduit link = conduit.get(slope.getKey());
+            CrossSectionType section = link.getCrossSectionType();
+            link.restoreDimensions(slope.getValue(), section.getMainDimension(), section.getOuterDimension());
+        }
+    }
+
+    public String getAreaOutlet(String areaName) {
+        return areaOutlets.get(areaName);
+    }
+
+    public LinkedHashMap<Instant, Double> getTimeSeries(String timeSeriesName) {
+        return timeSeries.get(timeSeriesName);
+    }
+
+    /**
+     * Saves the state of the simulation at the given time, see {@link WriteCheckpointFile}.
+     */
+    public void writeCheckpoint(String fileName, Instant time) {
+        long start = WRITE_CHECKPOINT.start();
+        try {
+            new WriteCheckpointFile(fileName, this, time);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Unable to write '" + fileName + "'", e);
+        }
+        WRITE_CHECKPOINT.stop(start);
+    }
+
+    /**
+     * Hot starts from a saved state, see {@link ReadCheckpointFile}; returns the time of the state.
+     */
+    public Instant restoreCheckpoint(String fileName) {
+        long start = READ_CHECKPOINT.start();
+        try {
+            Instant time = new ReadCheckpointFile(fileName, this).getTime();
+            READ_CHECKPOINT.stop(start);
+            return time;
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Unable to read '" + fileName + "'", e);
+        }
+    }
+
 
     private void setUnits() {
         String units = "CMS";
@@ -155,7 +257,10 @@ public class SWMMobject {
     }
 
     private void setRunoff() {
-        Long runoffStepSize = 60L; //must be in seconds!!
+        setRunoff(60L, OdeMethod.DP54);
+    }
+
+    private void setRunoff(Long runoffStepSize, OdeMethod odeMethod) { //step size must be in seconds!!
 
         Double minimumStepSize = 1.0e-8;
         Double maximumStepSize = 1.0e+3;
@@ -166,16 +271,30 @@ public class SWMMobject {
         Instant totalTime = timeSetup.getEndDate();
 
         this.runoffSetup = new SWMM5RunoffSetup(initialTime, totalTime, runoffStepSize,
-                minimumStepSize, maximumStepSize, absoluteRunoffTolerance, relativeRunoffTolerance, projectUnits);
+                minimumStepSize, maximumStepSize, absoluteRunoffTolerance, relativeRunoffTolerance, projectUnits,
+                odeMethod);
     }
 
     private void setRouting() {
-        Long routingStepSize = 30L;
+        setRouting(30L, RoutingMethod.STEADY);
+    }
+
+    private void setRouting(Long routingStepSize, RoutingMethod routingMethod) {
         Double toleranceMethod = 0.0015;
 
-        //TODO need change to parallelize
-        //routingSetup = new RoutingKinematicWaveSetup(routingStepSize, toleranceMethod);
-        routingSetup = new RoutingSteadySetup(routingStepSize);
+        switch (routingMethod) {
+            case STEADY:
+                routingSetup = new RoutingSteadySetup(routingStepSize);
+                break;
+            case KINEMATIC_WAVE:
+                routingSetup = new RoutingKinematicWaveSetup(routingStepSize, toleranceMethod);
+                break;
+            case DYNAMIC_WAVE:
+                routingSetup = new RoutingDynamicWaveSetup(routingStepSize);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported routing method " + routingMethod);
+        }
     }
 
     private void setRaingages() {
@@ -249,14 +368,30 @@ public class SWMMobject {
         ReceiverRunoff receiverSubcatchment = null;
         Integer numberOfCurves = 3;
 
+        setAreas(areaName, subcatchmentArea, raingageName, imperviousPercentage, imperviousWOstoragePercentage,
+                depressionStorageImpervious, depressionStoragePervious, perviousTo, imperviousTo,
+                percentageFromPervious, percentageFromImpervious, roughnessCoefficientPervious,
+                roughnessCoefficientImpervious, characteristicWidth, areaSlope, numberOfCurves);
+    }
+
+    private void setAreas(String areaName, double subcatchmentArea, String raingageName,
+                          Double imperviousPercentage, Double imperviousWOstoragePercentage,
+                          Double depressionStorageImpervious, Double depressionStoragePervious,
+                          String perviousTo, String imperviousTo,
+                          Double percentageFromPervious, Double percentageFromImpervious,
+                          Double roughnessCoefficientPervious, Double roughnessCoefficientImpervious,
+                          Double characteristicWidth, Double areaSlope, Integer numberOfCurves) {
+
+        // the subareas keep a row per curve, so every curve shares them and the area advances all together
+        List<Subarea> curveSubareas = divideAreas(imperviousPercentage, subcatchmentArea,
+                imperviousWOstoragePercentage, depressionStoragePervious, depressionStorageImpervious,
+                roughnessCoefficientPervious, roughnessCoefficientImpervious,
+                perviousTo, imperviousTo, percentageFromPervious, percentageFromImpervious);
         HashMap<Integer, List<Subarea>> subareas = new LinkedHashMap<>();
         for (int id = 1; id<=numberOfCurves; id++) {
-            subareas.put(id, divideAreas(imperviousPercentage, subcatchmentArea,
-                    imperviousWOstoragePercentage, depressionStoragePervious, depressionStorageImpervious,
-                    roughnessCoefficientPervious, roughnessCoefficientImpervious,
-                    perviousTo, imperviousTo, percentageFromPervious, percentageFromImpervious) );
+            subareas.put(id, curveSubareas);
         }
-        areas.put(areaName, new Area(subcatchmentArea, raingageSetup.get(areaName),
+        areas.put(areaName, new Area(subcatchmentArea, raingageSetup.get(raingageName),
                 characteristicWidth, areaSlope, subareas, projectUnits));
     }
 
@@ -299,8 +434,14 @@ public class SWMMobject {
         Double maximumDepthSurcharge = 1.0;
         Double nodePondingArea = 200.0;
 
+        setJunctions(nodeName, nodeElevation, maximumDepthNode, initialDepthNode, maximumDepthSurcharge,
+                nodePondingArea);
+    }
+
+    private void setJunctions(String nodeName, double nodeElevation, Double maximumDepthNode,
+                              Double initialDepthNode, Double maximumDepthSurcharge, Double nodePondingArea) {
         junctions.put(nodeName, new Junction(nodeElevation, maximumDepthNode, initialDepthNode,
-                maximumDepthSurcharge, nodePondingArea));
+                maximumDepthSurcharge, nodePondingArea, timeSetup.getStartDate(), routingSetup.getRoutingStepSize()));
     }
 
     private void setOutfalls() {
@@ -354,16 +495,29 @@ public class SWMMobject {
         Double downstreamOffset = 0.0;
         //Double initialFlowRate = 0.0;
         //Double maximumFlowRate = 0.0;
-        Double fillCoefficient = 0.9;
         Double diameter = 1.0;
 
         CrossSectionType crossSectionType = new Circular(diameter);
         //ProjectUnits linkUnits = new CubicMetersperSecond();
 
+        setConduit(linkName, linkLength, linkRoughness, crossSectionType, upName, upstreamOffset, upX, upY, upZ,
+                downName, downstreamOffset, downX, downY, downZ);
+    }
+
+    private void setConduit(String linkName, double linkLength, Double linkRoughness,
+                            CrossSectionType crossSectionType,
+                            String upName, Double upstreamOffset, double upX, double upY, double upZ,
+                            String downName, Double downstreamOffset, double downX, double downY, double downZ) {
+
+        Double fillCoefficient = 0.9;
+
+        Instant startTime = timeSetup.getStartDate();
+        Long routingStepSize = routingSetup.getRoutingStepSize();
+
         OutsideSetup upstreamOutside = new OutsideSetup(upName, upstreamOffset,
-                fillCoefficient, upX, upY, upZ);
+                fillCoefficient, upX, upY, upZ, startTime, routingStepSize);
         OutsideSetup downstreamOutside = new OutsideSetup(downName, downstreamOffset,
-                fillCoefficient, downX, downY, downZ);
+                fillCoefficient, downX, downY, downZ, startTime, routingStepSize);
 
         conduit.put(linkName, new Conduit(routingSetup, crossSectionType, upstreamOutside, downstreamOutside,
                 linkLength, linkRoughness));
@@ -374,6 +528,9 @@ public class SWMMobject {
                                       Double roughnessCoefficientPervious, Double roughnessCoefficientImpervious,
                                       String perviousTo, String imperviousTo, Double percentageFromPervious, Double percentageFromImpervious) {
 
+        Instant startTime = timeSetup.getStartDate();
+        Long runoffStepSize = runoffSetup.getRunoffStepSize();
+
         Double imperviousWOStorageArea = subcatchmentArea * imperviousPercentage * imperviousWOstoragePercentage;
         Double imperviousWStorageArea = subcatchmentArea * imperviousPercentage  - imperviousWOStorageArea;
         Double perviousArea = subcatchmentArea * (1-imperviousPercentage);
@@ -381,81 +538,68 @@ public class SWMMobject {
         List<Subarea> tmpSubareas = new LinkedList<>();
         if(imperviousPercentage == 0.0) {
             tmpSubareas.add(new Pervious(perviousArea, depressionStoragePervious,
-                    roughnessCoefficientImpervious, projectUnits));
+                    roughnessCoefficientImpervious, projectUnits, startTime, runoffStepSize));
         }
         else if(imperviousPercentage == 1.0) {
             if (imperviousWOstoragePercentage != 0.0) {
                 tmpSubareas.add(new ImperviousWithoutStorage(imperviousWStorageArea, imperviousWOStorageArea,
-                        roughnessCoefficientImpervious, projectUnits));
+                        roughnessCoefficientImpervious, projectUnits, startTime, runoffStepSize));
             }
             if (imperviousWOstoragePercentage != 1.0) {
                 tmpSubareas.add(new ImperviousWithStorage(imperviousWStorageArea, imperviousWOStorageArea,
-                        depressionStorageImpervious, roughnessCoefficientImpervious, projectUnits));
+                        depressionStorageImpervious, roughnessCoefficientImpervious, projectUnits,
+                        startTime, runoffStepSize));
             }
 
         }
         else {
             if (perviousTo.equals("IMPERVIOUS")) {
                 tmpSubareas.add(new ImperviousWithoutStorage(imperviousWStorageArea, imperviousWOStorageArea,
-                        roughnessCoefficientImpervious, projectUnits));
+                        roughnessCoefficientImpervious, projectUnits, startTime, runoffStepSize));
 
                 List<Subarea> tmpConnections = null;
                 tmpConnections.add(new Pervious(perviousArea, depressionStoragePervious,
-                        roughnessCoefficientPervious, projectUnits));
+                        roughnessCoefficientPervious, projectUnits, startTime, runoffStepSize));
 
                 tmpSubareas.add(new ImperviousWithStorage(imperviousWStorageArea, imperviousWOStorageArea,
                         depressionStorageImpervious, roughnessCoefficientImpervious, percentageFromPervious,
-                        tmpConnections, projectUnits));
+                        tmpConnections, projectUnits, startTime, runoffStepSize));
             }
             else if(perviousTo.equals("OUTLET")) {
                 tmpSubareas.add(new Pervious(perviousArea, depressionStoragePervious,
-                        roughnessCoefficientPervious, projectUnits));
+                        roughnessCoefficientPervious, projectUnits, startTime, runoffStepSize));
             }
 
             if (imperviousTo.equals("PERVIOUS")) {
 
                 List<Subarea> tmpConnections = null;
                 tmpConnections.add(new ImperviousWithoutStorage(imperviousWStorageArea, imperviousWOStorageArea,
-                        roughnessCoefficientImpervious, projectUnits));
+                        roughnessCoefficientImpervious, projectUnits, startTime, runoffStepSize));
                 tmpConnections.add(new ImperviousWithStorage(imperviousWStorageArea, imperviousWOStorageArea,
                         depressionStorageImpervious, roughnessCoefficientImpervious, percentageFromPervious,
-                        tmpConnections, projectUnits));
+                        tmpConnections, projectUnits, startTime, runoffStepSize));
 
                 tmpSubareas.add(new Pervious(perviousArea, depressionStoragePervious, roughnessCoefficientPervious,
-                        percentageFromImpervious, tmpConnections, projectUnits));
+                        percentageFromImpervious, tmpConnections, projectUnits, startTime, runoffStepSize));
             }
             else if (imperviousTo.equals("OUTLET")) {
                 tmpSubareas.add(new ImperviousWithStorage(imperviousWStorageArea, imperviousWOStorageArea,
-                        depressionStorageImpervious, roughnessCoefficientImpervious, projectUnits));
+                        depressionStorageImpervious, roughnessCoefficientImpervious, projectUnits,
+                        startTime, runoffStepSize));
                 tmpSubareas.add(new ImperviousWithoutStorage(imperviousWStorageArea, imperviousWOStorageArea,
-                        roughnessCoefficientImpervious, projectUnits));
+                        roughnessCoefficientImpervious, projectUnits, startTime, runoffStepSize));
             }
         }
         return tmpSubareas;
     }
 
-    //TODO add at each subcatchment!
     private void setInitialValues(Integer id) {
-        setSubareasInitialValue(id, "1");
-        setSubareasInitialValue(id, "2");
-        setSubareasInitialValue(id, "3");
-        setSubareasInitialValue(id, "4");
-        setSubareasInitialValue(id, "5");
-        setSubareasInitialValue(id, "6");
-        setSubareasInitialValue(id, "7");
-        setSubareasInitialValue(id, "8");
-        setSubareasInitialValue(id, "9");
-        setSubareasInitialValue(id, "10");
-        setInitialTime(id, "11");
-        setInitialTime(id, "12");
-        setInitialTime(id, "13");
-        setInitialTime(id, "14");
-        setInitialTime(id, "15");
-        setInitialTime(id, "16");
-        setInitialTime(id, "17");
-        setInitialTime(id, "18");
-        setInitialTime(id, "19");
-        setInitialTime(id, "20");
+        for (String areaName : areas.keySet()) {
+            setSubareasInitialValue(id, areaName);
+        }
+        for (String linkName : conduit.keySet()) {
+            setInitialTime(id, linkName);
+        }
     }
 
     private void setSubareasInitialValue(Integer id, String areaName) {
@@ -466,15 +610,17 @@ public class SWMMobject {
         }
     }
 
+    /**
+     * Seeds the upstream flow rate of a link with its .inp InitFlow, or with 0.01 m^3/s for the built-in network.
+     */
     private void setInitialTime(Integer id, String linkName) {
+        double initialFlowRate = initialFlowRates.getOrDefault(linkName, 0.01);
         Instant time = timeSetup.getStartDate();
         while (time.isBefore(timeSetup.getEndDate())) {
-            conduit.get(linkName).getUpstreamOutside().setFlowRate(id, time, 0.01);
-            conduit.get(linkName).getUpstreamOutside().setFlowRate(id, time, 0.01);
+            conduit.get(linkName).getUpstreamOutside().setFlowRate(id, time, initialFlowRate);
             time = time.plusSeconds(routingSetup.getRoutingStepSize());
         }
-        conduit.get(linkName).getUpstreamOutside().setFlowRate(id, time, 0.01);
-        conduit.get(linkName).getUpstreamOutside().setFlowRate(id, time, 0.01);
+        conduit.get(linkName).getUpstreamOutside().setFlowRate(id, time, initialFlowRate);
     }
 
     public List<Double> readFileList(String fileName) {
@@ -506,66 +652,77 @@ public class SWMMobject {
         return testingValues;
     }
 
-    public LinkedHashMap<Instant, Double> adaptDataSeries(Long toStepSize, Long fromStepSize, Long finalTime,
-                                                           Long initialTime, LinkedHashMap<Instant, Double> HMData) {
-
-        LinkedHashMap<Instant, Double> adaptedData = new LinkedHashMap<>();
-        Long currentDataTime = initialTime;
-
-        Long currentTime = initialTime;
-        while (currentTime<finalTime) {
-
-            double currentData;
-            if (currentDataTime.equals(currentTime)) {
-                currentData = HMData.get(Instant.ofEpochSecond(currentTime));
-            }
-            else {
-                while(currentDataTime <= currentTime) {
-                    currentDataTime += fromStepSize;
-                }
-
-                Long upperTime = currentDataTime;
-
-                Double upperData = HMData.get(Instant.ofEpochSecond(upperTime));
-                if (upperData == null) {
-                    upperData = HMData.get(Instant.ofEpochSecond(finalTime));
-                }
-
-                Long lowerTime = upperTime - fromStepSize;
-                double lowerData = HMData.get(Instant.ofEpochSecond(lowerTime));
-
-                currentData = interpolateData(currentTime, lowerTime, lowerData,
-                        upperTime, upperData);
+    /**
+     * Linear resampling of curves sampled every fromStepSize from the initial time, held past their last sample.
+     */
+    public TimeSeries adaptDataSeries(Long toStepSize, Long fromStepSize, Long finalTime, Long initialTime,
+                                      HashMap<Integer, LinkedHashMap<Instant, Double>> HMData) {
+
+        TimeSeries data = new TimeSeries(Instant.ofEpochSecond(initialTime), fromStepSize);
+        for (Integer id : HMData.keySet()) {
+            LinkedHashMap<Instant, Double> curve = HMData.get(id);
+            int step = 0;
+            Double value;
+            while ((value = curve.get(Instant.ofEpochSecond(initialTime + step * fromStepSize))) != null) {
+                data.set(id, step++, value);
             }
-            adaptedData.put(Instant.ofEpochSecond(currentTime), currentData);
-            currentTime+=toStepSize;
         }
-        adaptedData.put(Instant.ofEpochSecond(currentTime), HMData.get(Instant.ofEpochSecond(finalTime)));
-
-//        for (Instant time : adaptedData.keySet()) {
-//            System.out.println("Time " + time + " value " + adaptedData.get(time));
-//        }
+        return adaptDataSeries(toStepSize, finalTime, initialTime, data);
+    }
 
-        return adaptedData;
+    public TimeSeries adaptDataSeries(Long toStepSize, Long finalTime, Long initialTime, TimeSeries data) {
+        return new Resampler(ResamplingMethod.LINEAR, data, Instant.ofEpochSecond(initialTime),
+                Instant.ofEpochSecond(finalTime), toStepSize).resample(data);
     }
 
-    private Double interpolateData(Long currentRunoffTime, Long lowerTime,
-                                   Double lowerTimeData, Long upperTime, Double upperTimeData) {
-        Long rangeTime = upperTime - lowerTime;
+    /**
+     * Adds a flow rate to the upstream node and link, resampled to the routing step size.
+     */
+    public void dispatchFlowRate(String upstreamNodeName, String linkName, TimeSeries flowRate) {
+        dispatchFlowRates(upstreamNodeName, linkName, Collections.singletonList(flowRate));
+    }
 
-        if( rangeTime == 0 ) { return lowerTimeData; }
-        else {
-            Double numerator = upperTimeData - lowerTimeData;
+    /**
+     * Adds the sum of many flow rates to the upstream node and link. Each one is resampled to the routing
+     * step size and accumulated in the same pass, sharing the plan with the previous one when the axes match;
+     * the sum is then added in place to the node and link buffers.
+     */
+    public void dispatchFlowRates(String upstreamNodeName, String linkName, Collection<TimeSeries> flowRates) {
+        Instant startTime = timeSetup.getStartDate();
+        Instant endTime = timeSetup.getEndDate();
+        Long routingStepSize = routingSetup.getRoutingStepSize();
+        int size = Resampler.axisSize(startTime, endTime, routingStepSize);
+
+        TimeSeries totalFlowRate = new TimeSeries(startTime, routingStepSize);
+        Resampler resampler = null;
+        for (TimeSeries flowRate : flowRates) {
+            if (flowRate.getSize() == 0) {
+                continue;
+            }
+            if (resampler == null || !resampler.isPlannedFor(flowRate)) {
+                resampler = new Resampler(ResamplingMethod.LINEAR, flowRate, startTime, endTime, routingStepSize);
+            }
+            for (Integer id : flowRate.getScenarios()) {
+                resampler.accumulate(flowRate.getValues(id), totalFlowRate.reserve(id, size));
+            }
+        }
 
-            return lowerTimeData + numerator / rangeTime * (currentRunoffTime - lowerTime);
+        Junction node = junctions.get(upstreamNodeName);
+        OutsideSetup upstream = conduit.get(linkName).getUpstreamOutside();
+        int nodeIndex = node.getFlowRate().indexOf(startTime);
+        int linkIndex = upstream.getStreamFlowRate().indexOf(startTime);
+        for (Integer id : totalFlowRate.getScenarios()) {
+            double[] values = totalFlowRate.getValues(id);
+            node.accumulateFlowRate(id, nodeIndex, values, size);
+            upstream.accumulateStreamFlowRate(id, linkIndex, values, size);
         }
     }
 
-    public void setNodeFlowRate(String nodeName, HashMap<Integer, LinkedHashMap<Instant, Double>> flowRate) {
+    public void setNodeFlowRate(String nodeName, TimeSeries flowRate) {
         junctions.get(nodeName).sumFlowRate(flowRate);
     }
 
-    public void setLinkFlowRate(String linkName, HashMap<Integer, LinkedHashMap<Instant, Double>> flowRate) {
+    public void setLinkFlowRate(String linkName, TimeSeries flowRate) {
         conduit.get(linkName).getUpstreamOutside().sumStreamFlowRate(flowRate);
     }
 
@@ -573,20 +730,20 @@ public class SWMMobject {
 
         double downstreamDepthOut = getConduit(outLink).getUpstreamOutside().getWaterDepth();
         double maxDepth = downstreamDepthOut;
-        Integer maxId = Integer.parseInt(outLink);
+        boolean deeperSubtree = false;
 
         for (Integer subtreeId : subtrees.keySet()) {
             if (getConduit(String.valueOf(subtreeId)) != null) {
                 double downstreamDepth = getConduit(String.valueOf(subtreeId)).getDownstreamOutside().getWaterDepth();
                 if (downstreamDepth > maxDepth) {
                     maxDepth = downstreamDepth;
-                    maxId = subtreeId;
+                    deeperSubtree = true;
                 }
 
             }
         }
 
-        if (maxId != Integer.parseInt(outLink)) {
+        if (deeperSubtree) {
             upgradeStream(outLink, downstreamDepthOut - maxDepth);
         }
 
@@ -639,4 +796,327 @@ public class SWMMobject {
                 //System.out.println("END UPSTREAM upgrade!");
             }
     }
+
+    /**
+     * Collects the sections of a .inp file line by line and builds the data structure once the whole file
+     * has been read, since elements refer to each other across sections (e.g. conduits to coordinates).
+     * <p>
+     * Units follow the file (CMS only): percentages become fractions, depression storages go from mm to m
+     * and the Manning roughness of conduits becomes the Gauckler-Strickler coefficient used by the routing.
+     */
+    private class InpSections implements ReadSWMM5InpFile.SectionHandler {
+
+        private final HashMap<String, String> options = new HashMap<>();
+        private final LinkedHashMap<String, Long> raingageIntervals = new LinkedHashMap<>();
+        private final LinkedHashMap<String, String[]> subcatchments = new LinkedHashMap<>();
+        private final HashMap<String, String[]> subareas = new HashMap<>();
+        private final LinkedHashMap<String, double[]> junctionValues = new LinkedHashMap<>();
+        private final LinkedHashMap<String, String[]> outfallValues = new LinkedHashMap<>();
+        private final LinkedHashMap<String, String[]> conduits = new LinkedHashMap<>();
+        private final HashMap<String, String[]> crossSections = new HashMap<>();
+        private final HashMap<String, double[]> coordinates = new HashMap<>();
+        private final HashMap<String, LocalDate> lastSeriesDate = new HashMap<>();
+        private final Integer numberOfCurves;
+
+        InpSections(Integer numberOfCurves) {
+            this.numberOfCurves = numberOfCurves;
+        }
+
+        @Override
+        public void accept(String section, String[] tokens, int count) {
+            switch (section) {
+                case "OPTIONS":
+                    options.put(tokens[0].toUpperCase(), count > 1 ? tokens[1] : "");
+                    break;
+                case "RAINGAGES":
+                    raingageIntervals.put(tokens[0], parseDuration(tokens[2]));
+                    break;
+                case "SUBCATCHMENTS":
+                    subcatchments.put(tokens[0], Arrays.copyOf(tokens, count));
+                    break;
+                case "SUBAREAS":
+                    subareas.put(tokens[0], Arrays.copyOf(tokens, count));
+                    break;
+                case "JUNCTIONS":
+                    junctionValues.put(tokens[0], parseValues(tokens, count, 1, 5));
+                    break;
+                case "OUTFALLS":
+                    outfallValues.put(tokens[0], Arrays.copyOf(tokens, count));
+                    break;
+                case "CONDUITS":
+                    conduits.put(tokens[0], Arrays.copyOf(tokens, count));
+                    break;
+                case "XSECTIONS":
+                    crossSections.put(tokens[0], Arrays.copyOf(tokens, count));
+                    break;
+                case "TIMESERIES":
+                    acceptTimeSeries(tokens, count);
+                    break;
+                case "COORDINATES":
+                    coordinates.put(tokens[0], parseValues(tokens, count, 1, 2));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void acceptTimeSeries(String[] tokens, int count) {
+            if (count < 3) {
+                throw new IllegalArgumentException("Bad time series line for " + tokens[0]);
+            }
+            if (count == 3 && "FILE".equalsIgnoreCase(tokens[1])) {
+                throw new IllegalArgumentException("External time series files are not supported: " + tokens[2]);
+            }
+
+            String name = tokens[0];
+            long time;
+            if (count >= 4) {
+                LocalDate date = parseDate(tokens[1]);
+                lastSeriesDate.put(name, date);
+                time = date.atStartOfDay(ZoneOffset.UTC).toEpochSecond() + parseDuration(tokens[2]);
+            }
+            else if (lastSeriesDate.containsKey(name)) {
+                time = lastSeriesDate.get(name).atStartOfDay(ZoneOffset.UTC).toEpochSecond() +
+                        parseDuration(tokens[1]);
+            }
+            else {
+                // hours elapsed from the start of the simulation
+                time = startDate().getEpochSecond() + parseDuration(tokens[1]);
+            }
+
+            timeSeries.computeIfAbsent(name, key -> new LinkedHashMap<>())
+                    .put(Instant.ofEpochSecond(time), Double.parseDouble(tokens[count - 1]));
+        }
+
+        void build() {
+            String units = options.getOrDefault("FLOW_UNITS", "CMS").toUpperCase();
+            if (!units.equals("CMS")) {
+                throw new IllegalArgumentException("Unsupported flow units " + units);
+            }
+            projectUnits = new CubicMetersperSecond();
+
+            buildTime();
+            setRunoff(parseDuration(options.getOrDefault("WET_STEP", "00:05:00")), OdeMethod.DP54);
+            setRouting(parseSeconds(options.getOrDefault("ROUTING_STEP", "20")), routingMethod());
+
+            for (Map.Entry<String, Long> raingage : raingageIntervals.entrySet()) {
+                raingageSetup.put(raingage.getKey(), new GIUHsetup(raingage.getValue()));
+            }
+            buildSubcatchments();
+            for (Map.Entry<String, double[]> junction : junctionValues.entrySet()) {
+                double[] values = junction.getValue();
+                setJunctions(junction.getKey(), values[0], values[1], values[2], values[3], values[4]);
+            }
+            buildOutfalls();
+            buildConduits();
+        }
+
+        private void buildTime() {
+            Instant startDate = startDate();
+            Instant endDate = dateTime("END_DATE", "END_TIME");
+            Instant reportStartDate = options.containsKey("REPORT_START_DATE") ?
+                    dateTime("REPORT_START_DATE", "REPORT_START_TIME") : startDate;
+            int year = LocalDate.ofEpochDay(startDate.getEpochSecond() / 86400).getYear();
+            Instant sweepStart = sweepDate(options.getOrDefault("SWEEP_START", "01/01"), year);
+            Instant sweepEnd = sweepDate(options.getOrDefault("SWEEP_END", "12/31"), year);
+            Integer dryDays = Integer.parseInt(options.getOrDefault("DRY_DAYS", "0"));
+
+            timeSetup = new GlobalTimeSetup(startDate, endDate, reportStartDate, endDate,
+                    sweepStart, sweepEnd, dryDays);
+        }
+
+        private RoutingMethod routingMethod() {
+            String routing = options.getOrDefault("FLOW_ROUTING", "KINWAVE").toUpperCase();
+            switch (routing) {
+                case "STEADY":
+                    return RoutingMethod.STEADY;
+                case "KINWAVE":
+                    return RoutingMethod.KINEMATIC_WAVE;
+                default:
+                    // DYNWAVE included, the dynamic wave routing is not implemented yet
+                    throw new IllegalArgumentException("Unsupported flow routing " + routing);
+            }
+        }
+
+        private void buildSubcatchments() {
+            for (Map.Entry<String, String[]> subcatchment : subcatchments.entrySet()) {
+                String areaName = subcatchment.getKey();
+                String[] values = subcatchment.getValue();
+                String[] subarea = subareas.get(areaName);
+                if (subarea == null) {
+                    throw new IllegalArgumentException("Missing subareas of subcatchment " + areaName);
+                }
+
+                String routeTo = subarea.length > 6 ? subarea[6].toUpperCase() : "OUTLET";
+                double percentageRouted = subarea.length > 7 ? Double.parseDouble(subarea[7]) / 100.0 : 1.0;
+                // runoff routed between the subareas is not modelled yet
+                if (!routeTo.equals("OUTLET") && percentageRouted > 0.0) {
+                    throw new IllegalArgumentException("Unsupported RouteTo " + routeTo + " of subcatchment " +
+                            areaName + ", only OUTLET is supported");
+                }
+
+                setAreas(areaName, Double.parseDouble(values[3]), values[1],
+                        Double.parseDouble(values[4]) / 100.0,
+                        Double.parseDouble(subarea[5]) / 100.0,
+                        Double.parseDouble(subarea[3]) / 1000.0,
+                        Double.parseDouble(subarea[4]) / 1000.0,
+                        "OUTLET", "OUTLET", 0.0, 0.0,
+                        Double.parseDouble(subarea[2]),
+                        Double.parseDouble(subarea[1]),
+                        Double.parseDouble(values[5]),
+                        Double.parseDouble(values[6]) / 100.0,
+                        numberOfCurves);
+                areaOutlets.put(areaName, values[2]);
+            }
+        }
+
+        private void buildOutfalls() {
+            for (Map.Entry<String, String[]> outfall : outfallValues.entrySet()) {
+                String[] values = outfall.getValue();
+                String type = values.length > 2 ? values[2].toUpperCase() : "FREE";
+                int next = type.equals("FREE") || type.equals("NORMAL") ? 3 : 4;
+
+                Double fixedStage = type.equals("FIXED") ? Double.parseDouble(values[3]) : null;
+                LinkedHashMap<Instant, Double> stageTimeseries = type.equals("TIMESERIES") ?
+                        timeSeries.get(values[3]) : null;
+                boolean gated = values.length > next && values[next].equalsIgnoreCase("YES");
+                String routeTo = values.length > next + 1 ? values[next + 1] : "";
+
+                outfalls.put(outfall.getKey(), new Outfall(Double.parseDouble(values[1]), fixedStage, null,
+                        stageTimeseries, gated, routeTo));
+            }
+        }
+
+        private void buildConduits() {
+            for (Map.Entry<String, String[]> link : conduits.entrySet()) {
+                String linkName = link.getKey();
+                String[] values = link.getValue();
+                String[] crossSection = crossSections.get(linkName);
+                if (crossSection == null) {
+                    throw new IllegalArgumentException("Missing cross section of conduit " + linkName);
+                }
+
+                String upName = values[1];
+                String downName = values[2];
+                double[] upCoordinates = coordinates.getOrDefault(upName, new double[2]);
+                double[] downCoordinates = coordinates.getOrDefault(downName, new double[2]);
+                double upstreamOffset = values.length > 5 ? Double.parseDouble(values[5]) : 0.0;
+                double downstreamOffset = values.length > 6 ? Double.parseDouble(values[6]) : 0.0;
+                initialFlowRates.put(linkName, values.length > 7 ? Double.parseDouble(values[7]) : 0.0);
+                double length = Double.parseDouble(values[3]);
+                inpSlopes.put(linkName, slope(length, nodeElevation(upName) + upstreamOffset,
+                        nodeElevation(downName) + downstreamOffset));
+
+                setConduit(linkName, length, 1.0 / Double.parseDouble(values[4]),
+                        crossSectionType(linkName, crossSection),
+                        upName, upstreamOffset, upCoordinates[0], upCoordinates[1], nodeElevation(upName),
+                        downName, downstreamOffset, downCoordinates[0], downCoordinates[1], nodeElevation(downName));
+            }
+        }
+
+        /**
+         * Section of the XSECTIONS values of a conduit, whose dimensions follow the SWMM5 geometry parameters
+         */
+        private CrossSectionType crossSectionType(String linkName, String[] crossSection) {
+            double[] geometry = new double[4];
+            for (int index = 0; index < geometry.length && index + 2 < crossSection.length; index++) {
+                geometry[index] = Double.parseDouble(crossSection[index + 2]);
+            }
+            switch (crossSection[1].toUpperCase()) {
+                case "CIRCULAR":
+                    return new Circular(geometry[0]);
+                case "RECT_CLOSED":
+                    return new Rectangular(geometry[0], geometry[1]);
+                case "RECT_OPEN":
+                    return new Trapezoidal(geometry[0], geometry[1], 0.0, 0.0);
+                case "TRAPEZOIDAL":
+                    return new Trapezoidal(geometry[0], geometry[1], geometry[2], geometry[3]);
+                case "EGG":
+                    return new Egg(geometry[0]);
+                case "HORSESHOE":
+                    return new Horseshoe(geometry[0]);
+                default:
+                    throw new IllegalArgumentException("Unsupported shape " + crossSection[1] + " of conduit " +
+                            linkName);
+            }
+        }
+
+        /**
+         * SWMM5 conduit slope: the drop between the inverts over the horizontal projection of the length
+         */
+        private double slope(double length, double upstreamInvert, double downstreamInvert) {
+            double drop = Math.max(Math.abs(upstreamInvert - downstreamInvert), MINIMUM_DROP);
+            return drop >= length ? drop / length : drop / Math.sqrt(length * length - drop * drop);
+        }
+
+        private double nodeElevation(String nodeName) {
+            if (junctionValues.containsKey(nodeName)) {
+                return junctionValues.get(nodeName)[0];
+            }
+            if (outfallValues.containsKey(nodeName)) {
+                return Double.parseDouble(outfallValues.get(nodeName)[1]);
+            }
+            throw new IllegalArgumentException("Unknown node " + nodeName);
+        }
+
+        private Instant startDate() {
+            return dateTime("START_DATE", "START_TIME");
+        }
+
+        private Instant dateTime(String dateOption, String timeOption) {
+            String date = options.get(dateOption);
+            if (date == null) {
+                throw new IllegalArgumentException("Missing option " + dateOption);
+            }
+            return Instant.ofEpochSecond(parseDate(date).atStartOfDay(ZoneOffset.UTC).toEpochSecond() +
+                    parseDuration(options.getOrDefault(timeOption, "00:00:00")));
+        }
+    }
+
+    private static Instant sweepDate(String monthDay, int year) {
+        return parseDate(monthDay + "/" + year).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    /**
+     * Date as MM/DD/YYYY
+     */
+    private static LocalDate parseDate(String date) {
+        int first = date.indexOf('/');
+        int second = date.indexOf('/', first + 1);
+        if (first < 0 || second < 0) {
+            throw new IllegalArgumentException("Bad date " + date);
+        }
+        return LocalDate.of(Integer.parseInt(date.substring(second + 1)),
+                Integer.parseInt(date.substring(0, first)), Integer.parseInt(date.substring(first + 1, second)));
+    }
+
+    /**
+     * Seconds of a duration as H:MM[:SS] or decimal hours
+     */
+    private static long parseDuration(String duration) {
+        int first = duration.indexOf(':');
+        if (first < 0) {
+            return Math.round(Double.parseDouble(duration) * 3600.0);
+        }
+        int second = duration.indexOf(':', first + 1);
+        long hours = Long.parseLong(duration.substring(0, first));
+        long minutes = Long.parseLong(duration.substring(first + 1, second < 0 ? duration.length() : second));
+        long seconds = second < 0 ? 0L : Long.parseLong(duration.substring(second + 1));
+        return hours * 3600L + minutes * 60L + seconds;
+    }
+
+    /**
+     * Seconds of a duration as H:MM:SS or decimal seconds
+     */
+    private static long parseSeconds(String duration) {
+        return duration.indexOf(':') < 0 ? Math.round(Double.parseDouble(duration)) : parseDuration(duration);
+    }
+
+    private static double[] parseValues(String[] tokens, int count, int first, int length) {
+        double[] values = new double[length];
+        for (int index = 0; index < length && first + index < count; index++) {
+            values[index] = Double.parseDouble(tokens[first + index]);
+        }
+        return values;
+    }
 }
@@ -0,0 +1,130 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.dataStructure.formatData.readData;
+
+import com.github.geoframecomponents.jswmm.dataStructure.SWMMobject;
+import com.github.geoframecomponents.jswmm.dataStructure.formatData.writeData.WriteCheckpointFile;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.Conduit;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.OutsideSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.hydrology.subcatchment.Area;
+import com.github.geoframecomponents.jswmm.dataStructure.hydrology.subcatchment.Subarea;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Restores the state saved by {@link WriteCheckpointFile} into a data structure of the same network, whose time
+ * axes must contain the time of the checkpoint, usually as their start.
+ * <p>
+ * Subarea and downstream link states are written at that time; conduits keep the saved dimensions and are
+ * routed without a new design, and the kinematic wave continues from the saved downstream state.
+ */
+public class ReadCheckpointFile {
+
+    private final Instant time;
+
+    public ReadCheckpointFile(String fileName, SWMMobject dataStructure) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (buffer.remaining() < 16 || buffer.getInt() != WriteCheckpointFile.MAGIC_NUMBER) {
+            throw new IllegalArgumentException("Not a checkpoint file: " + fileName);
+        }
+        int version = buffer.getInt();
+        if (version != WriteCheckpointFile.VERSION) {
+            throw new IllegalArgumentException("Unsupported checkpoint version " + version + ": " + fileName);
+        }
+        time = Instant.ofEpochSecond(buffer.getLong());
+
+        readAreas(buffer, dataStructure);
+        readConduits(buffer, dataStructure);
+    }
+
+    private void readAreas(ByteBuffer buffer, SWMMobject dataStructure) {
+        int areas = buffer.getInt();
+        for (int index = 0; index < areas; index++) {
+            String name = getName(buffer);
+            Area area = dataStructure.getAreas(name);
+            if (area == null) {
+                throw new IllegalArgumentException("Unknown area " + name);
+            }
+
+            int scenarios = buffer.getInt();
+            for (int scenario = 0; scenario < scenarios; scenario++) {
+                int id = buffer.getInt();
+                int count = buffer.getInt();
+                List<Subarea> subareas = area.getSubareas().get(id);
+                if (subareas == null || subareas.size() != count) {
+                    throw new IllegalArgumentException("Subareas of scenario " + id + " of area " + name +
+                            " differ from the checkpoint");
+                }
+                for (Subarea subarea : subareas) {
+                    subarea.restoreState(id, time, buffer);
+                }
+            }
+        }
+    }
+
+    private void readConduits(ByteBuffer buffer, SWMMobject dataStructure) {
+        int conduits = buffer.getInt();
+        for (int index = 0; index < conduits; index++) {
+            String name = getName(buffer);
+            Conduit conduit = dataStructure.getConduit(name);
+            if (conduit == null) {
+                throw new IllegalArgumentException("Unknown conduit " + name);
+            }
+            OutsideSetup downstream = conduit.getDownstreamOutside();
+
+            double slope = buffer.getDouble();
+            double innerDiameter = buffer.getDouble();
+            double outerDiameter = buffer.getDouble();
+            if (!Double.isNaN(slope)) {
+                conduit.restoreDimensions(slope, innerDiameter, outerDiameter);
+            }
+            conduit.getUpstreamOutside().restoreGeometry(buffer);
+            downstream.restoreGeometry(buffer);
+
+            int scenarios = buffer.getInt();
+            for (int scenario = 0; scenario < scenarios; scenario++) {
+                int id = buffer.getInt();
+                downstream.setFlowRate(id, time, buffer.getDouble());
+                downstream.setWetArea(id, time, buffer.getDouble());
+            }
+            downstream.setRestartTime(time);
+        }
+    }
+
+    private static String getName(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Simulation time of the restored state
+     */
+    public Instant getTime() {
+        return time;
+    }
+}
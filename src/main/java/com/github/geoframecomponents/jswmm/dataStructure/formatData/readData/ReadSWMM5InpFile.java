@@ -0,0 +1,139 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.dataStructure.formatData.readData;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Single pass reader of a SWMM5 .inp file.
+ * <p>
+ * Each data line is split in place into a reused token array and handed to a {@link SectionHandler} together
+ * with the name of the enclosing [SECTION]; comments after ';' and blank lines are skipped. Nothing is kept
+ * after a line is handled, so the memory needed does not depend on the file size.
+ */
+
+public class ReadSWMM5InpFile {
+
+    public interface SectionHandler {
+        /**
+         * @param section upper case name of the section, without brackets
+         * @param tokens  tokens of the line, valid only during the call
+         * @param count   number of tokens
+         */
+        void accept(String section, String[] tokens, int count);
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private long lines;
+    private long characters;
+    private long elapsedNanos;
+
+    public ReadSWMM5InpFile(String fileName, SectionHandler handler) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(fileName),
+                StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            read(reader, handler);
+        }
+    }
+
+    public ReadSWMM5InpFile(Reader reader, SectionHandler handler) throws IOException {
+        read(new BufferedReader(reader, BUFFER_SIZE), handler);
+    }
+
+    private void read(BufferedReader reader, SectionHandler handler) throws IOException {
+        long start = System.nanoTime();
+
+        String section = null;
+        String[] tokens = new String[16];
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines++;
+            characters += line.length() + 1;
+
+            int count = 0;
+            int length = line.length();
+            int position = 0;
+            while (position < length) {
+                char character = line.charAt(position);
+                if (character <= ' ') {
+                    position++;
+                    continue;
+                }
+                if (character == ';') {
+                    break;
+                }
+
+                int end;
+                String token;
+                if (character == '"') {
+                    end = line.indexOf('"', position + 1);
+                    if (end < 0) {
+                        throw new IllegalArgumentException("Unterminated quote at line " + lines);
+                    }
+                    token = line.substring(position + 1, end);
+                    end++;
+                }
+                else {
+                    end = position + 1;
+                    while (end < length && line.charAt(end) > ' ' && line.charAt(end) != ';') {
+                        end++;
+                    }
+                    token = line.substring(position, end);
+                }
+
+                if (count == tokens.length) {
+                    tokens = Arrays.copyOf(tokens, 2 * count);
+                }
+                tokens[count++] = token;
+                position = end;
+            }
+
+            if (count == 0) {
+                continue;
+            }
+            if (tokens[0].charAt(0) == '[') {
+                int close = tokens[0].indexOf(']');
+                section = tokens[0].substring(1, close < 0 ? tokens[0].length() : close).toUpperCase();
+            }
+            else if (section != null) {
+                handler.accept(section, tokens, count);
+            }
+        }
+
+        elapsedNanos = System.nanoTime() - start;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public long getCharacters() {
+        return characters;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Characters read per second, in millions
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0.0 : characters * 1.0e3 / elapsedNanos;
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.dataStructure.formatData.readData;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Random access reader of a SWMM5 binary results (.out) file.
+ * <p>
+ * Only the opening and closing records are decoded when the file is opened; the results are memory mapped,
+ * in chunks made of whole report periods so that files larger than 2 GB can be read, and every value is
+ * fetched from its offset when asked for. Series are returned as primitive arrays.
+ */
+public class ReadSWMM5OutFile implements Closeable {
+
+    public static final int MAGIC_NUMBER = 516114522;
+
+    public static final int SUBCATCHMENT_RAINFALL = 0;
+    public static final int SUBCATCHMENT_RUNOFF = 4;
+    public static final int NODE_DEPTH = 0;
+    public static final int NODE_HEAD = 1;
+    public static final int NODE_LATERAL_INFLOW = 3;
+    public static final int NODE_TOTAL_INFLOW = 4;
+    public static final int LINK_FLOW = 0;
+    public static final int LINK_DEPTH = 1;
+    public static final int LINK_VELOCITY = 2;
+
+    private static final int CLOSING_RECORDS = 24;
+    private static final long MAXIMUM_CHUNK_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+
+    private final int version;
+    private final int flowUnits;
+    private final List<String> subcatchmentNames;
+    private final List<String> nodeNames;
+    private final List<String> linkNames;
+    private final List<String> pollutantNames;
+    private final Map<String, Integer> subcatchmentIndex;
+    private final Map<String, Integer> nodeIndex;
+    private final Map<String, Integer> linkIndex;
+
+    private final int subcatchmentVariables;
+    private final int nodeVariables;
+    private final int linkVariables;
+    private final int systemVariables;
+
+    private final double startDate;
+    private final int reportStepSize;
+    private final int periods;
+
+    private final int periodSize;
+    private final int nodeOffset;
+    private final int linkOffset;
+    private final int systemOffset;
+    private final int periodsPerChunk;
+    private final MappedByteBuffer[] chunks;
+
+    public ReadSWMM5OutFile(String fileName) throws IOException {
+        channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < 7 * 4 + CLOSING_RECORDS) {
+                throw new IllegalArgumentException("Not a SWMM5 results file: " + fileName);
+            }
+
+            ByteBuffer closing = read(size - CLOSING_RECORDS, CLOSING_RECORDS);
+            closing.getInt();
+            closing.getInt();
+            int outputStart = closing.getInt();
+            periods = closing.getInt();
+            int errorCode = closing.getInt();
+            if (closing.getInt() != MAGIC_NUMBER) {
+                throw new IllegalArgumentException("Not a SWMM5 results file: " + fileName);
+            }
+            if (errorCode != 0) {
+                throw new IllegalArgumentException("The SWMM5 run ended with error " + errorCode + ": " + fileName);
+            }
+
+            ByteBuffer header = read(0, outputStart);
+            if (header.getInt() != MAGIC_NUMBER) {
+                throw new IllegalArgumentException("Not a SWMM5 results file: " + fileName);
+            }
+            version = header.getInt();
+            flowUnits = header.getInt();
+            int subcatchments = header.getInt();
+            int nodes = header.getInt();
+            int links = header.getInt();
+            int pollutants = header.getInt();
+
+            subcatchmentNames = names(header, subcatchments);
+            nodeNames = names(header, nodes);
+            linkNames = names(header, links);
+            pollutantNames = names(header, pollutants);
+            subcatchmentIndex = index(subcatchmentNames);
+            nodeIndex = index(nodeNames);
+            linkIndex = index(linkNames);
+
+            header.position(header.position() + 4 * pollutants);
+            skipProperties(header, subcatchments);
+            skipProperties(header, nodes);
+            skipProperties(header, links);
+
+            subcatchmentVariables = variables(header);
+            nodeVariables = variables(header);
+            linkVariables = variables(header);
+            systemVariables = variables(header);
+
+            startDate = header.getDouble();
+            reportStepSize = header.getInt();
+
+            nodeOffset = 8 + 4 * subcatchments * subcatchmentVariables;
+            linkOffset = nodeOffset + 4 * nodes * nodeVariables;
+            systemOffset = linkOffset + 4 * links * linkVariables;
+            periodSize = systemOffset + 4 * systemVariables;
+            if (outputStart + (long) periods * periodSize + CLOSING_RECORDS != size) {
+                throw new IllegalArgumentException("Truncated SWMM5 results file: " + fileName);
+            }
+
+            periodsPerChunk = (int) Math.max(1, MAXIMUM_CHUNK_SIZE / periodSize);
+            chunks = new MappedByteBuffer[(periods + periodsPerChunk - 1) / periodsPerChunk];
+            for (int chunk = 0; chunk < chunks.length; chunk++) {
+                int chunkPeriods = Math.min(periodsPerChunk, periods - chunk * periodsPerChunk);
+                chunks[chunk] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        outputStart + (long) chunk * periodsPerChunk * periodSize, (long) chunkPeriods * periodSize);
+                chunks[chunk].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * SWMM5 code of the flow units, 0 for CFS and 3 for CMS
+     */
+    public int getFlowUnits() {
+        return flowUnits;
+    }
+
+    public List<String> getSubcatchmentNames() {
+        return subcatchmentNames;
+    }
+
+    public List<String> getNodeNames() {
+        return nodeNames;
+    }
+
+    public List<String> getLinkNames() {
+        return linkNames;
+    }
+
+    public List<String> getPollutantNames() {
+        return pollutantNames;
+    }
+
+    public int getSubcatchmentVariables() {
+        return subcatchmentVariables;
+    }
+
+    public int getNodeVariables() {
+        return nodeVariables;
+    }
+
+    public int getLinkVariables() {
+        return linkVariables;
+    }
+
+    public int getSystemVariables() {
+        return systemVariables;
+    }
+
+    public int getPeriods() {
+        return periods;
+    }
+
+    public int getReportStepSize() {
+        return reportStepSize;
+    }
+
+    public Instant getStartTime() {
+        return toInstant(startDate);
+    }
+
+    /**
+     * Time stamp of a report period, as stored in the file
+     */
+    public Instant getTime(int period) {
+        return toInstant(chunk(period).getDouble(offset(period)));
+    }
+
+    public float getSubcatchmentValue(int period, int subcatchment, int variable) {
+        check(subcatchment, subcatchmentNames.size(), variable, subcatchmentVariables);
+        return chunk(period).getFloat(offset(period) + 8 + 4 * (subcatchment * subcatchmentVariables + variable));
+    }
+
+    public float getNodeValue(int period, int node, int variable) {
+        check(node, nodeNames.size(), variable, nodeVariables);
+        return chunk(period).getFloat(offset(period) + nodeOffset + 4 * (node * nodeVariables + variable));
+    }
+
+    public float getLinkValue(int period, int link, int variable) {
+        check(link, linkNames.size(), variable, linkVariables);
+        return chunk(period).getFloat(offset(period) + linkOffset + 4 * (link * linkVariables + variable));
+    }
+
+    public float getSystemValue(int period, int variable) {
+        check(0, 1, variable, systemVariables);
+        return chunk(period).getFloat(offset(period) + systemOffset + 4 * variable);
+    }
+
+    public double[] getSubcatchmentSeries(String name, int variable) {
+        int subcatchment = indexOf(subcatchmentIndex, name, "subcatchment");
+        double[] series = new double[periods];
+        for (int period = 0; period < periods; period++) {
+            series[period] = getSubcatchmentValue(period, subcatchment, variable);
+        }
+        return series;
+    }
+
+    public double[] getNodeSeries(String name, int variable) {
+        int node = indexOf(nodeIndex, name, "node");
+        double[] series = new double[periods];
+        for (int period = 0; period < periods; period++) {
+            series[period] = getNodeValue(period, node, variable);
+        }
+        return series;
+    }
+
+    public double[] getLinkSeries(String name, int variable) {
+        int link = indexOf(linkIndex, name, "link");
+        double[] series = new double[periods];
+        for (int period = 0; period < periods; period++) {
+            series[period] = getLinkValue(period, link, variable);
+        }
+        return series;
+    }
+
+    public double[] getSystemSeries(int variable) {
+        double[] series = new double[periods];
+        for (int period = 0; period < periods; period++) {
+            series[period] = getSystemValue(period, variable);
+        }
+        return series;
+    }
+
+    /**
+     * A variable of every node at a report period, in the order of {@link #getNodeNames()}: e.g. the depths
+     * to start a simulation from.
+     */
+    public double[] getNodeValues(int period, int variable) {
+        double[] values = new double[nodeNames.size()];
+        for (int node = 0; node < values.length; node++) {
+            values[node] = getNodeValue(period, node, variable);
+        }
+        return values;
+    }
+
+    public double[] getLinkValues(int period, int variable) {
+        double[] values = new double[linkNames.size()];
+        for (int link = 0; link < values.length; link++) {
+            values[link] = getLinkValue(period, link, variable);
+        }
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IllegalArgumentException("Unexpected end of the SWMM5 results file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private ByteBuffer chunk(int period) {
+        if (period < 0 || period >= periods) {
+            throw new IllegalArgumentException("Period " + period + " outside 0.." + (periods - 1));
+        }
+        return chunks[period / periodsPerChunk];
+    }
+
+    private int offset(int period) {
+        return (period % periodsPerChunk) * periodSize;
+    }
+
+    private static void check(int element, int elements, int variable, int variables) {
+        if (element < 0 || element >= elements || variable < 0 || variable >= variables) {
+            throw new IllegalArgumentException("Element " + element + " or variable " + variable + " out of range");
+        }
+    }
+
+    private static int indexOf(Map<String, Integer> index, String name, String kind) {
+        Integer element = index.get(name);
+        if (element == null) {
+            throw new IllegalArgumentException("Unknown " + kind + " " + name);
+        }
+        return element;
+    }
+
+    private static List<String> names(ByteBuffer header, int count) {
+        List<String> names = new ArrayList<>(count);
+        for (int name = 0; name < count; name++) {
+            byte[] bytes = new byte[header.getInt()];
+            header.get(bytes);
+            names.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    private static Map<String, Integer> index(List<String> names) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int element = 0; element < names.size(); element++) {
+            index.put(names.get(element), element);
+        }
+        return index;
+    }
+
+    private static void skipProperties(ByteBuffer header, int elements) {
+        int properties = header.getInt();
+        header.position(header.position() + 4 * properties + 4 * properties * elements);
+    }
+
+    private static int variables(ByteBuffer header) {
+        int variables = header.getInt();
+        header.position(header.position() + 4 * variables);
+        return variables;
+    }
+
+    private static Instant toInstant(double swmmDate) {
+        return Instant.ofEpochSecond(Math.round((swmmDate - 25569.0) * 86400.0));
+    }
+}
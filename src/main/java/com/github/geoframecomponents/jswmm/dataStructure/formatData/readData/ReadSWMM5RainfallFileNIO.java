@@ -0,0 +1,306 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.dataStructure.formatData.readData;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Set;
+
+/**
+ * Same SWMM5 rainfall FILE format of {@link ReadSWMM5RainfallFile}, read in blocks through a file channel.
+ * <p>
+ * Lines are tokenized on the bytes, the epoch seconds are computed from year, month, day, hour and minutes
+ * with integer arithmetic and values go straight into growing primitive arrays, one pair per station: no
+ * String, Instant or boxed Double is created per line. Lines starting with ';' are comments.
+ */
+
+public class ReadSWMM5RainfallFileNIO implements ReadDataFromFile {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final double[] POWERS_OF_TEN = {1.0e0, 1.0e1, 1.0e2, 1.0e3, 1.0e4, 1.0e5, 1.0e6, 1.0e7, 1.0e8,
+            1.0e9, 1.0e10, 1.0e11, 1.0e12, 1.0e13, 1.0e14, 1.0e15, 1.0e16, 1.0e17, 1.0e18, 1.0e19, 1.0e20, 1.0e21,
+            1.0e22};
+
+    private final LinkedHashMap<String, Integer> stations = new LinkedHashMap<>();
+    private long[][] times = new long[4][];
+    private double[][] values = new double[4][];
+    private int[] sizes = new int[4];
+
+    private LinkedHashMap<String, LinkedHashMap<Instant, Double>> fileRead;
+
+    private byte[] lastStation = new byte[0];
+    private int lastStationIndex = -1;
+    private int position;
+    private long line;
+
+    public ReadSWMM5RainfallFileNIO(String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            read(channel);
+        }
+    }
+
+    private void read(FileChannel channel) throws IOException {
+        byte[] bytes = new byte[BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        int length = 0;
+        boolean endOfFile = false;
+        while (!endOfFile) {
+            buffer.limit(bytes.length).position(length);
+            endOfFile = channel.read(buffer) < 0;
+            length = buffer.position();
+
+            int start = 0;
+            for (int index = 0; index < length; index++) {
+                if (bytes[index] == '\n') {
+                    parseLine(bytes, start, index);
+                    start = index + 1;
+                }
+            }
+            if (endOfFile && start < length) {
+                parseLine(bytes, start, length);
+                start = length;
+            }
+            if (start == 0 && length == bytes.length) {
+                throw new IllegalArgumentException("Line " + (line + 1) + " longer than " + BUFFER_SIZE + " bytes");
+            }
+
+            // keep the incomplete line for the next block
+            System.arraycopy(bytes, start, bytes, 0, length - start);
+            length -= start;
+        }
+    }
+
+    private void parseLine(byte[] bytes, int start, int end) {
+        line++;
+        position = start;
+        skipBlanks(bytes, end);
+        if (position == end || bytes[position] == ';') {
+            return;
+        }
+
+        int stationStart = position;
+        while (position < end && bytes[position] > ' ') {
+            position++;
+        }
+        int station = stationIndex(bytes, stationStart, position);
+
+        int year = parseInteger(bytes, end);
+        int month = parseInteger(bytes, end);
+        int day = parseInteger(bytes, end);
+        int hour = parseInteger(bytes, end);
+        int minutes = parseInteger(bytes, end);
+        double value = parseDouble(bytes, end);
+        if (hour < 0 || hour > 23 || minutes < 0 || minutes > 59) {
+            throw new IllegalArgumentException("Bad time " + hour + ":" + minutes + " at line " + line);
+        }
+
+        append(station, epochDay(year, month, day) * 86400L + hour * 3600L + minutes * 60L, value);
+    }
+
+    private int stationIndex(byte[] bytes, int start, int end) {
+        int length = end - start;
+        if (length == lastStation.length) {
+            int index = 0;
+            while (index < length && bytes[start + index] == lastStation[index]) {
+                index++;
+            }
+            if (index == length) {
+                return lastStationIndex;
+            }
+        }
+
+        lastStation = Arrays.copyOfRange(bytes, start, end);
+        String name = new String(lastStation, StandardCharsets.UTF_8);
+        Integer index = stations.get(name);
+        if (index == null) {
+            index = stations.size();
+            stations.put(name, index);
+            if (index == sizes.length) {
+                times = Arrays.copyOf(times, 2 * index);
+                values = Arrays.copyOf(values, 2 * index);
+                sizes = Arrays.copyOf(sizes, 2 * index);
+            }
+            times[index] = new long[INITIAL_CAPACITY];
+            values[index] = new double[INITIAL_CAPACITY];
+        }
+        lastStationIndex = index;
+        return index;
+    }
+
+    private void append(int station, long time, double value) {
+        int size = sizes[station];
+        if (size == times[station].length) {
+            times[station] = Arrays.copyOf(times[station], size + (size >> 1));
+            values[station] = Arrays.copyOf(values[station], size + (size >> 1));
+        }
+        times[station][size] = time;
+        values[station][size] = value;
+        sizes[station] = size + 1;
+    }
+
+    private void skipBlanks(byte[] bytes, int end) {
+        while (position < end && bytes[position] <= ' ') {
+            position++;
+        }
+    }
+
+    private int parseInteger(byte[] bytes, int end) {
+        skipBlanks(bytes, end);
+        int start = position;
+        int value = 0;
+        while (position < end && bytes[position] >= '0' && bytes[position] <= '9') {
+            value = 10 * value + (bytes[position++] - '0');
+        }
+        if (position == start || (position < end && bytes[position] > ' ')) {
+            throw new IllegalArgumentException("Bad integer at line " + line);
+        }
+        return value;
+    }
+
+    /**
+     * Exact with up to 15 digits and a decimal exponent within 22, since the mantissa and the power of ten are
+     * then exact doubles and a single division or product is correctly rounded; otherwise Double.parseDouble.
+     */
+    private double parseDouble(byte[] bytes, int end) {
+        skipBlanks(bytes, end);
+        int start = position;
+        while (position < end && bytes[position] > ' ') {
+            position++;
+        }
+        if (position == start) {
+            throw new IllegalArgumentException("Missing value at line " + line);
+        }
+
+        int index = start;
+        boolean negative = bytes[index] == '-';
+        if (negative || bytes[index] == '+') {
+            index++;
+        }
+
+        long mantissa = 0L;
+        int digits = 0;
+        int exponent = 0;
+        boolean fraction = false;
+        for (; index < position; index++) {
+            byte character = bytes[index];
+            if (character >= '0' && character <= '9') {
+                mantissa = 10 * mantissa + (character - '0');
+                digits++;
+                if (fraction) {
+                    exponent--;
+                }
+            }
+            else if (character == '.' && !fraction) {
+                fraction = true;
+            }
+            else {
+                break;
+            }
+        }
+
+        boolean valid = digits > 0 && digits <= 15;
+        if (valid && index < position) {
+            valid = (bytes[index] == 'e' || bytes[index] == 'E') && ++index < position;
+            boolean negativeExponent = valid && bytes[index] == '-';
+            if (valid && (negativeExponent || bytes[index] == '+')) {
+                valid = ++index < position;
+            }
+            int decimalExponent = 0;
+            for (; valid && index < position; index++) {
+                valid = bytes[index] >= '0' && bytes[index] <= '9' && decimalExponent < 1000;
+                decimalExponent = 10 * decimalExponent + (bytes[index] - '0');
+            }
+            exponent += negativeExponent ? -decimalExponent : decimalExponent;
+        }
+
+        if (!valid || exponent < -22 || exponent > 22) {
+            return Double.parseDouble(new String(bytes, start, position - start, StandardCharsets.US_ASCII));
+        }
+        double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Days from 1970-01-01 of a proleptic Gregorian date
+     */
+    static long epochDay(int year, int month, int day) {
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            throw new IllegalArgumentException("Bad date " + year + "-" + month + "-" + day);
+        }
+        long shiftedYear = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(shiftedYear, 400);
+        long yearOfEra = shiftedYear - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+            return leap ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    public Set<String> getStations() {
+        return Collections.unmodifiableSet(stations.keySet());
+    }
+
+    public int getSize(String station) {
+        Integer index = stations.get(station);
+        return index == null ? 0 : sizes[index];
+    }
+
+    /**
+     * Epoch seconds of the station's values, in file order
+     */
+    public long[] getTimes(String station) {
+        Integer index = stations.get(station);
+        return index == null ? new long[0] : Arrays.copyOf(times[index], sizes[index]);
+    }
+
+    public double[] getValues(String station) {
+        Integer index = stations.get(station);
+        return index == null ? new double[0] : Arrays.copyOf(values[index], sizes[index]);
+    }
+
+    @Override
+    public LinkedHashMap<String, LinkedHashMap<Instant, Double>> getData() {
+        if (fileRead == null) {
+            fileRead = new LinkedHashMap<>();
+            for (String station : stations.keySet()) {
+                int index = stations.get(station);
+                LinkedHashMap<Instant, Double> stationData = new LinkedHashMap<>();
+                for (int value = 0; value < sizes[index]; value++) {
+                    stationData.put(Instant.ofEpochSecond(times[index][value]), values[index][value]);
+                }
+                fileRead.put(station, stationData);
+            }
+        }
+        return fileRead;
+    }
+}
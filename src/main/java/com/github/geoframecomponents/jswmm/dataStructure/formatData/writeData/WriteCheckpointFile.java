@@ -0,0 +1,143 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.dataStructure.formatData.writeData;
+
+import com.github.geoframecomponents.jswmm.dataStructure.SWMMobject;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.Conduit;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.OutsideSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.hydrology.subcatchment.Area;
+import com.github.geoframecomponents.jswmm.dataStructure.hydrology.subcatchment.Subarea;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Binary snapshot of the state of a simulation at one step, to hot start a later run from it.
+ * <p>
+ * For each area and scenario the depths and flow rates of the subareas; for each conduit its slope and
+ * diameters, the offsets, heights and water depths of both ends and the downstream flow rate and wet area of
+ * every scenario. Names are UTF-8, numbers little endian, written through a direct buffer to a file channel.
+ * Node flow rates are not saved, since the routing sums them again from the restored flows.
+ */
+public class WriteCheckpointFile implements WriteDataToFile {
+
+    public static final int MAGIC_NUMBER = 0x4A53434B;
+    public static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Room left before each area scenario or conduit, far more than any of them needs
+     */
+    private static final int ENTRY_SIZE = 1 << 16;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private FileChannel channel;
+
+    public WriteCheckpointFile(String fileName, SWMMobject dataStructure, Instant time) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            this.channel = channel;
+
+            buffer.putInt(MAGIC_NUMBER);
+            buffer.putInt(VERSION);
+            buffer.putLong(time.getEpochSecond());
+            writeAreas(dataStructure, time);
+            writeConduits(dataStructure, time);
+            flush();
+        }
+    }
+
+    private void writeAreas(SWMMobject dataStructure, Instant time) throws IOException {
+        TreeSet<String> names = new TreeSet<>(dataStructure.getAreaNames());
+        buffer.putInt(names.size());
+        for (String name : names) {
+            Area area = dataStructure.getAreas(name);
+            Map<Integer, List<Subarea>> scenarios = new TreeMap<>(area.getSubareas());
+
+            reserve();
+            putName(name);
+            buffer.putInt(scenarios.size());
+            for (Map.Entry<Integer, List<Subarea>> scenario : scenarios.entrySet()) {
+                reserve();
+                buffer.putInt(scenario.getKey());
+                buffer.putInt(scenario.getValue().size());
+                for (Subarea subarea : scenario.getValue()) {
+                    subarea.saveState(scenario.getKey(), time, buffer);
+                }
+            }
+        }
+    }
+
+    private void writeConduits(SWMMobject dataStructure, Instant time) throws IOException {
+        Map<String, Conduit> conduits = new TreeMap<>(dataStructure.getConduits());
+        buffer.putInt(conduits.size());
+        for (Map.Entry<String, Conduit> entry : conduits.entrySet()) {
+            Conduit conduit = entry.getValue();
+            OutsideSetup downstream = conduit.getDownstreamOutside();
+
+            reserve();
+            putName(entry.getKey());
+            buffer.putDouble(conduit.getLinkSlope() != null ? conduit.getLinkSlope() : Double.NaN);
+            buffer.putDouble(conduit.getCrossSectionType().getMainDimension());
+            buffer.putDouble(conduit.getCrossSectionType().getOuterDimension());
+            conduit.getUpstreamOutside().saveGeometry(buffer);
+            downstream.saveGeometry(buffer);
+
+            TimeSeries flowRate = downstream.getStreamFlowRate();
+            TimeSeries wetArea = downstream.getStreamWetArea();
+            int step = flowRate.indexOf(time);
+            buffer.putInt(flowRate.getScenarios().size());
+            for (Integer id : flowRate.getScenarios()) {
+                reserve();
+                buffer.putInt(id);
+                buffer.putDouble(flowRate.get(id, step));
+                buffer.putDouble(wetArea.get(id, step));
+            }
+        }
+    }
+
+    private void putName(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void reserve() throws IOException {
+        if (buffer.remaining() < ENTRY_SIZE) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.dataStructure.formatData.writeData;
+
+import com.github.geoframecomponents.jswmm.dataStructure.options.units.UnitsSWMM;
+import com.github.geoframecomponents.jswmm.metrics.Metrics;
+import com.github.geoframecomponents.jswmm.metrics.Timer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming writer of the SWMM5 binary results (.out) file.
+ * <p>
+ * Subcatchments, nodes and links are declared first; the opening records are written with the first report
+ * period and every period goes to the file as soon as it is handed over, through a direct buffer flushed
+ * to a file channel, so that no result has to stay on heap. Closing writes the trailing records with the
+ * positions of the sections and the number of periods. Pollutants are not supported.
+ */
+public class WriteSWMM5OutFile implements WriteDataToFile, Closeable {
+
+    private static final Timer WRITE_PERIOD = Metrics.timer("io.outPeriod");
+
+    public static final int MAGIC_NUMBER = 516114522;
+    public static final int VERSION = 51011;
+
+    public static final int SUBCATCHMENT_VARIABLES = 8;
+    public static final int NODE_VARIABLES = 6;
+    public static final int LINK_VARIABLES = 5;
+    public static final int SYSTEM_VARIABLES = 15;
+
+    public static final int JUNCTION = 0;
+    public static final int OUTFALL = 1;
+    public static final int STORAGE = 2;
+    public static final int DIVIDER = 3;
+    public static final int CONDUIT = 0;
+
+    /**
+     * SWMM5 dates are days from 1899-12-30
+     */
+    public static final double EPOCH_DAY = 25569.0;
+
+    private static final int FLOW_UNITS_CFS = 0;
+    private static final int FLOW_UNITS_CMS = 3;
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    private static final int ID_START_POSITION = 28;
+
+    private static final int PROPERTY_TYPE = 0;
+    private static final int PROPERTY_AREA = 1;
+    private static final int PROPERTY_INVERT = 2;
+    private static final int PROPERTY_MAX_DEPTH = 3;
+    private static final int PROPERTY_OFFSET = 4;
+    private static final int PROPERTY_LENGTH = 5;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int flowUnits;
+    private final Instant startTime;
+    private final long reportStepSize;
+
+    private final List<String> subcatchmentNames = new ArrayList<>();
+    private final List<float[]> subcatchmentProperties = new ArrayList<>();
+    private final List<String> nodeNames = new ArrayList<>();
+    private final List<float[]> nodeProperties = new ArrayList<>();
+    private final List<String> linkNames = new ArrayList<>();
+    private final List<float[]> linkProperties = new ArrayList<>();
+
+    private long position;
+    private int inputStartPosition;
+    private int outputStartPosition;
+    private int periods;
+    private boolean started;
+
+    public WriteSWMM5OutFile(String fileName, UnitsSWMM units, Instant startTime, long reportStepSize)
+            throws IOException {
+        this(fileName, units, startTime, reportStepSize, DEFAULT_BUFFER_SIZE);
+    }
+
+    public WriteSWMM5OutFile(String fileName, UnitsSWMM units, Instant startTime, long reportStepSize,
+                             int bufferSize) throws IOException {
+        if (reportStepSize <= 0) {
+            throw new IllegalArgumentException("Report step size must be positive: " + reportStepSize);
+        }
+        if (bufferSize < 64) {
+            throw new IllegalArgumentException("Buffer too small: " + bufferSize);
+        }
+        this.flowUnits = units == UnitsSWMM.CFS ? FLOW_UNITS_CFS : FLOW_UNITS_CMS;
+        this.startTime = startTime;
+        this.reportStepSize = reportStepSize;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+        this.channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    public void addSubcatchment(String name, double area) {
+        checkNotStarted();
+        subcatchmentNames.add(name);
+        subcatchmentProperties.add(new float[]{(float) area});
+    }
+
+    /**
+     * @param type one of {@link #JUNCTION}, {@link #OUTFALL}, {@link #STORAGE}, {@link #DIVIDER}
+     */
+    public void addNode(String name, int type, double invertElevation, double maximumDepth) {
+        checkNotStarted();
+        nodeNames.add(name);
+        nodeProperties.add(new float[]{Float.intBitsToFloat(type), (float) invertElevation, (float) maximumDepth});
+    }
+
+    public void addLink(String name, int type, double upstreamOffset, double downstreamOffset,
+                        double maximumDepth, double length) {
+        checkNotStarted();
+        linkNames.add(name);
+        linkProperties.add(new float[]{Float.intBitsToFloat(type), (float) upstreamOffset,
+                (float) downstreamOffset, (float) maximumDepth, (float) length});
+    }
+
+    public int getPeriods() {
+        return periods;
+    }
+
+    /**
+     * Appends the results of a report period. Each array holds the variables of every object in declaration
+     * order, object after object, e.g. nodes[node * NODE_VARIABLES + variable].
+     */
+    public void writePeriod(Instant time, double[] subcatchments, double[] nodes, double[] links, double[] system)
+            throws IOException {
+        checkLength("subcatchment", subcatchments, subcatchmentNames.size() * SUBCATCHMENT_VARIABLES);
+        checkLength("node", nodes, nodeNames.size() * NODE_VARIABLES);
+        checkLength("link", links, linkNames.size() * LINK_VARIABLES);
+        checkLength("system", system, SYSTEM_VARIABLES);
+        long start = WRITE_PERIOD.start();
+        if (!started) {
+            writeOpeningRecords();
+        }
+
+        putDouble(toSWMMDate(time));
+        putFloats(subcatchments);
+        putFloats(nodes);
+        putFloats(links);
+        putFloats(system);
+        periods++;
+        WRITE_PERIOD.stop(start);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!started) {
+                writeOpeningRecords();
+            }
+            putInt(ID_START_POSITION);
+            putInt(inputStartPosition);
+            putInt(outputStartPosition);
+            putInt(periods);
+            putInt(0);
+            putInt(MAGIC_NUMBER);
+            flush();
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    public static double toSWMMDate(Instant time) {
+        return EPOCH_DAY + time.getEpochSecond() / 86400.0;
+    }
+
+    private void writeOpeningRecords() throws IOException {
+        started = true;
+
+        putInt(MAGIC_NUMBER);
+        putInt(VERSION);
+        putInt(flowUnits);
+        putInt(subcatchmentNames.size());
+        putInt(nodeNames.size());
+        putInt(linkNames.size());
+        putInt(0);
+
+        for (List<String> names : Arrays.asList(subcatchmentNames, nodeNames, linkNames)) {
+            for (String name : names) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                putInt(bytes.length);
+                reserve(bytes.length);
+                buffer.put(bytes);
+                position += bytes.length;
+            }
+        }
+
+        inputStartPosition = Math.toIntExact(position);
+        putProperties(subcatchmentProperties, PROPERTY_AREA);
+        putProperties(nodeProperties, PROPERTY_TYPE, PROPERTY_INVERT, PROPERTY_MAX_DEPTH);
+        putProperties(linkProperties, PROPERTY_TYPE, PROPERTY_OFFSET, PROPERTY_OFFSET, PROPERTY_MAX_DEPTH,
+                PROPERTY_LENGTH);
+
+        putCodes(SUBCATCHMENT_VARIABLES);
+        putCodes(NODE_VARIABLES);
+        putCodes(LINK_VARIABLES);
+        putCodes(SYSTEM_VARIABLES);
+
+        putDouble(toSWMMDate(startTime));
+        putInt(Math.toIntExact(reportStepSize));
+        outputStartPosition = Math.toIntExact(position);
+    }
+
+    private void putProperties(List<float[]> properties, int... codes) throws IOException {
+        putInt(codes.length);
+        for (int code : codes) {
+            putInt(code);
+        }
+        for (float[] values : properties) {
+            for (float value : values) {
+                putFloat(value);
+            }
+        }
+    }
+
+    private void putCodes(int variables) throws IOException {
+        putInt(variables);
+        for (int code = 0; code < variables; code++) {
+            putInt(code);
+        }
+    }
+
+    private void putInt(int value) throws IOException {
+        reserve(4);
+        buffer.putInt(value);
+        position += 4;
+    }
+
+    private void putFloat(float value) throws IOException {
+        reserve(4);
+        buffer.putFloat(value);
+        position += 4;
+    }
+
+    private void putDouble(double value) throws IOException {
+        reserve(8);
+        buffer.putDouble(value);
+        position += 8;
+    }
+
+    private void putFloats(double[] values) throws IOException {
+        for (double value : values) {
+            putFloat((float) value);
+        }
+    }
+
+    private void reserve(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+            if (buffer.remaining() < bytes) {
+                throw new IllegalArgumentException("Record of " + bytes + " bytes larger than the buffer");
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void checkNotStarted() {
+        if (started) {
+            throw new IllegalStateException("Objects must be declared before the first report period");
+        }
+    }
+
+    private static void checkLength(String kind, double[] values, int expected) {
+        if (values.length != expected) {
+            throw new IllegalArgumentException("Expected " + expected + " " + kind + " results, found " +
+                    values.length);
+        }
+    }
+}
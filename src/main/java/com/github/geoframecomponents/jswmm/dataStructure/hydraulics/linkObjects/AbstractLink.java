@@ -18,10 +18,9 @@ package com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects
 import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.pipeSize.CommercialPipeSize;
 import com.github.geoframecomponents.jswmm.dataStructure.options.units.ProjectUnits;
 import com.github.geoframecomponents.jswmm.dataStructure.routingDS.RoutingSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
 
 import java.time.Instant;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 
 public abstract class AbstractLink {
 
@@ -34,11 +33,11 @@ public abstract class AbstractLink {
     OutsideSetup upstreamOutside;
     OutsideSetup downstreamOutside;
 
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> getDownstreamFlowRate() {
+    public TimeSeries getDownstreamFlowRate() {
         return downstreamOutside.streamFlowRate;
     }
 
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> getUpstreamFlowRate() {
+    public TimeSeries getUpstreamFlowRate() {
         return upstreamOutside.streamFlowRate;
     }
 
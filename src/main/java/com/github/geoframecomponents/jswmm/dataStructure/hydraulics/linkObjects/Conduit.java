@@ -19,22 +19,32 @@ import it.blogspot.geoframe.utils.GEOconstants;
 import it.blogspot.geoframe.utils.GEOgeometry;
 import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.pipeSize.CommercialPipeSize;
 import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.CrossSectionType;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.ShapeGeometry;
 import com.github.geoframecomponents.jswmm.dataStructure.routingDS.RoutedFlow;
 import com.github.geoframecomponents.jswmm.dataStructure.routingDS.RoutingSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import com.github.geoframecomponents.jswmm.metrics.Counter;
+import com.github.geoframecomponents.jswmm.metrics.Histogram;
+import com.github.geoframecomponents.jswmm.metrics.Metrics;
 import org.geotools.graph.util.geom.Coordinate2D;
 
 import java.time.Instant;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 
 public class Conduit extends AbstractLink {
 
+    private static final double EIGHTOVERTHREE = 8.0 / 3;
+
+    private static final Histogram DIAMETERS = Metrics.histogram("design.diameterMillimeters");
+    private static final Counter MINIMUM_SLOPES = Metrics.counter("design.minimumSlopes");
+
     CrossSectionType crossSectionType;
 
     Double linkLength;
     Double linkRoughness;
     Double linkSlope;
 
+    private boolean fixedDimensions;
+
     public Conduit(RoutingSetup routingSetup, CrossSectionType crossSectionType, OutsideSetup upstreamOutside,
                    OutsideSetup downstreamOutside, Double linkLength, Double linkRoughness) {
         this.routingSetup = routingSetup;
@@ -45,10 +55,33 @@ public class Conduit extends AbstractLink {
         this.linkRoughness = linkRoughness;
     }
 
+    public Conduit(RoutingSetup routingSetup, CrossSectionType crossSectionType, OutsideSetup upstreamOutside,
+                   OutsideSetup downstreamOutside, Double linkLength, Double linkRoughness, Double linkSlope) {
+        this(routingSetup, crossSectionType, upstreamOutside, downstreamOutside, linkLength, linkRoughness);
+        this.linkSlope = linkSlope;
+    }
+
     public CrossSectionType getCrossSectionType() {
         return crossSectionType;
     }
 
+    public Double getLinkSlope() {
+        return linkSlope;
+    }
+
+    /**
+     * Sets the slope and the diameters of an already designed link, which is then routed without a new design.
+     */
+    public void restoreDimensions(double slope, double innerDiameter, double outerDiameter) {
+        linkSlope = slope;
+        crossSectionType.setDimensions(innerDiameter, outerDiameter);
+        fixedDimensions = true;
+    }
+
+    public boolean hasFixedDimensions() {
+        return fixedDimensions;
+    }
+
     @Override
     public OutsideSetup getUpstreamOutside() {
         return upstreamOutside;
@@ -59,6 +92,13 @@ public class Conduit extends AbstractLink {
         return downstreamOutside;
     }
 
+    /**
+     * True if the design dug either end of the conduit deeper than the maximum excavation.
+     */
+    public boolean isOverMaximumExcavation() {
+        return upstreamOutside.isOverMaximumExcavation() || downstreamOutside.isOverMaximumExcavation();
+    }
+
     @Override
     public void setInitialUpFlowRate(Integer id, Instant time, Double flowRate) {
         upstreamOutside.setFlowRate(id, time, flowRate);
@@ -72,14 +112,12 @@ public class Conduit extends AbstractLink {
     @Override
     public void evaluateFlowRate(Instant currentTime) {
 
-        HashMap<Integer, LinkedHashMap<Instant, Double>> currentFlow = getUpstreamOutside().getStreamFlowRate();
-        for (Integer id : currentFlow.keySet()) {
+        TimeSeries upstreamFlow = getUpstreamOutside().getStreamFlowRate();
+        int step = upstreamFlow.indexOf(currentTime);
+        for (Integer id : upstreamFlow.getScenarios()) {
 
-            HashMap<Integer, LinkedHashMap<Instant, Double>> flow = upstreamOutside.getStreamFlowRate();
-            LinkedHashMap<Instant, Double> upstreamFlow = flow.get(id);
-
-            RoutedFlow routedFlow = routingSetup.routeFlowRate(id, currentTime, upstreamFlow.get(currentTime),
-                    downstreamOutside, linkLength, linkRoughness, linkSlope, crossSectionType);
+            RoutedFlow routedFlow = routingSetup.routeFlowRate(id, currentTime, upstreamFlow.get(id, step),
+                    upstreamOutside, downstreamOutside, linkLength, linkRoughness, linkSlope, crossSectionType);
             downstreamOutside.setFlowRate(id, routedFlow.getTime(), routedFlow.getValue());
         }
 
@@ -89,11 +127,12 @@ public class Conduit extends AbstractLink {
     @Override
     public Double evaluateMaxDischarge(Instant currentTime, Double maxDischarge) {
 
-        HashMap<Integer, LinkedHashMap<Instant, Double>> flowUpstreamNode = this.getUpstreamOutside().getStreamFlowRate();
+        TimeSeries flowUpstreamNode = this.getUpstreamOutside().getStreamFlowRate();
+        int step = flowUpstreamNode.indexOf(currentTime);
 
-        for (Integer id : flowUpstreamNode.keySet()) {
+        for (Integer id : flowUpstreamNode.getScenarios()) {
 
-            double currentFlow = flowUpstreamNode.get(id).get(currentTime);
+            double currentFlow = flowUpstreamNode.get(id, step);
             if ( currentFlow >= maxDischarge) {
                 maxDischarge = currentFlow;
             }
@@ -102,6 +141,35 @@ public class Conduit extends AbstractLink {
         return maxDischarge;
     }
 
+    /**
+     * Largest upstream flow rate of all scenarios at the steps from the start time up to the end time excluded,
+     * as {@link #evaluateMaxDischarge(Instant, Double)} called at each step from 0.0, in one sweep of each row.
+     */
+    public double evaluateMaxDischarge(Instant startTime, Instant endTime, long stepSize) {
+
+        TimeSeries flowUpstreamNode = this.getUpstreamOutside().getStreamFlowRate();
+        double maxDischarge = 0.0;
+        if (!startTime.isBefore(endTime)) {
+            return maxDischarge;
+        }
+
+        int first = flowUpstreamNode.indexOf(startTime);
+        int stride = flowUpstreamNode.indexOf(startTime.plusSeconds(stepSize)) - first;
+        long steps = (endTime.getEpochSecond() - startTime.getEpochSecond() + stepSize - 1) / stepSize;
+        long last = Math.min(first + (steps - 1) * stride, flowUpstreamNode.getSize() - 1L);
+
+        for (Integer id : flowUpstreamNode.getScenarios()) {
+            double[] flows = flowUpstreamNode.getValues(id);
+            for (int step = first; step <= last; step += stride) {
+                if (flows[step] >= maxDischarge) {
+                    maxDischarge = flows[step];
+                }
+            }
+        }
+
+        return maxDischarge;
+    }
+
     @Override
     public void evaluateDimension(Double discharge, CommercialPipeSize pipeCompany) {
 
@@ -120,10 +188,10 @@ public class Conduit extends AbstractLink {
             diameter = getDimension(discharge, minSlope);
             diameters = pipeCompany.getCommercialDiameter(diameter); //diameters in meters
             linkSlope = minSlope;
+            MINIMUM_SLOPES.increment();
         }
         crossSectionType.setDimensions(diameters[0], diameters[1]);
-        double fillAngleMax = evaluateFillAngle(diameters[0], linkSlope, discharge);
-        double maxQDepth = diameters[0] / 2 * ( 1 + Math.cos(Math.PI - fillAngleMax / 2) );
+        double maxQDepth = diameters[0] * evaluateFillDepth(diameters[0], linkSlope, discharge);
 
         double excavation = GEOconstants.MINIMUMEXCAVATION + diameters[1];
         upstreamOutside.setHeights(excavation, 0.0);
@@ -133,91 +201,18 @@ public class Conduit extends AbstractLink {
         getUpstreamOutside().setWaterDepth(waterDepth);
         getDownstreamOutside().setWaterDepth(waterDepth);
 
-        System.out.println("D " + diameters[0]);
-    }
-
-    private double evaluateFillAngle(double innerSize, double slope, double discharge) {
-        final double TWO_THIRTEENOVERTHREE = Math.pow(2, 13/3);
-        final double EIGHTOVERTHREE = 8/3;
-        double initFillAngle = 2 * Math.acos((1 - 2 * getUpstreamOutside().getFillCoeff()));
-
-        double b = discharge / (linkRoughness * Math.sqrt(slope)); // conversione di discharge m3 to l e slope m to cm
-        double known = (b * TWO_THIRTEENOVERTHREE) / Math.pow(innerSize, EIGHTOVERTHREE); // innersize m2cm
-
-        double exponent = 2/3;
-        double fillAngle = fillAngleBisection(initFillAngle, known, exponent);
-
-        if (fillAngle > initFillAngle)
-            throw new IllegalArgumentException("New angle must be smaller than old angle");
-
-        return  fillAngle;
+        DIAMETERS.record(Math.round(diameters[0] * 1000.0));
     }
 
-    private double fillAngleBisection(double fillAngle, double known, double exponent) {
-        double delta = fillAngle / 10;
-        double upperBound = gsm(known, fillAngle, exponent);
-
-        double fillAngle_i = 0;
-        double lowerBound;
-        for (int i = 1; i <= 10; i++) {
-            fillAngle_i = fillAngle - (i * delta);
-            lowerBound = gsm(known, fillAngle_i, exponent);
-
-            if (upperBound * lowerBound < 0) break; // root of function is between upperBound, lowerBound
-
-        }
-        // add check on bracketing not succeeding
-        if (fillAngle_i == 0) {
-            String msg = "fillAngle_i cannot be 0";
-            throw new NullPointerException(msg);
-        }
+    /**
+     * Depth of the discharge relative to the main dimension of the designed section
+     */
+    private double evaluateFillDepth(double innerSize, double slope, double discharge) {
+        ShapeGeometry geometry = crossSectionType.getGeometry();
+        double sectionFactor = discharge / (linkRoughness * Math.sqrt(slope) * geometry.getSectionFactorFull() *
+                Math.pow(innerSize, EIGHTOVERTHREE));
 
-        double accuracy = 0.005;
-        return bisection(fillAngle_i, fillAngle_i + delta, known, accuracy, exponent);
-    }
-
-    private double bisection(double fillAngle, double fillAnglePlusDelta, double known, double accuracy, double exponent) {
-
-        double function = gsm(known, fillAngle, exponent);
-        double function_mid = gsm(known, fillAnglePlusDelta, exponent);
-
-        if (function * function_mid >= 0) {
-            String msg = "Both functions are positive. Non bisection possible";
-            throw new IllegalArgumentException(msg);
-        }
-
-        double deltaAngle;
-        double rtb;
-        if (function < 0) {
-            deltaAngle = fillAnglePlusDelta - fillAngle;
-            rtb = fillAngle;
-        } else {
-            deltaAngle = fillAngle - fillAnglePlusDelta;
-            rtb = fillAnglePlusDelta;
-        }
-
-        int MAXLOOP = 40;
-        for (int i = 0; i < MAXLOOP; i++) {
-            double fillAngleMid = rtb + (deltaAngle *= 0.5);
-            function_mid = gsm(known, fillAngleMid, exponent);
-
-            if (function_mid <= 0) {
-                rtb = fillAngleMid;
-            }
-
-            if (Math.abs(deltaAngle) < accuracy || function_mid == 0) {
-                return rtb;
-            }
-        }
-        throw new UnsupportedOperationException("Too many bisections");
-    }
-
-    private double gsm(double known, double fillAngle, double exponent) {
-        if (fillAngle <= 0) {
-            fillAngle = 0.01; //minimum filling for channels
-            System.out.println("Negative fill angle: " + fillAngle + ". Minimum assigned.");
-        }
-        return (known - (fillAngle - Math.sin(fillAngle)) * Math.pow((1 - Math.sin(fillAngle)/fillAngle), exponent));
+        return geometry.getDepthOfSectionFactor(sectionFactor);
     }
 
     private Double computeNaturalSlope() {
@@ -233,9 +228,9 @@ public class Conduit extends AbstractLink {
 
     private double computeMinSlope(Double diameter) {
 
-        Double fillCoeff = getUpstreamOutside().getFillCoeff();
-        Double fillAngle = crossSectionType.computeFillAngle(fillCoeff);
-        Double hydraulicRadius = crossSectionType.computeHydraulicRadious(diameter, fillAngle);
+        ShapeGeometry geometry = crossSectionType.getGeometry();
+        double hydraulicRadius = geometry.getHydraulicRadiusFull() * diameter *
+                geometry.getHydraulicRadius(getUpstreamOutside().getFillCoeff());
 
         return GEOconstants.SHEARSTRESS
                 / (GEOconstants.WSPECIFICWEIGHT * hydraulicRadius);
@@ -244,21 +239,13 @@ public class Conduit extends AbstractLink {
     private Double getDimension(Double discharge, Double slope) {
         
         Double fillCoeff = getUpstreamOutside().getFillCoeff();
-        Double fillAngle = crossSectionType.computeFillAngle(fillCoeff);
-        if( fillAngle == 0.0 ) {
-            fillAngle = 0.001;
+        ShapeGeometry geometry = crossSectionType.getGeometry();
+        double sectionFactor = geometry.getSectionFactorFull() * geometry.getSectionFactor(fillCoeff);
+        if (sectionFactor == 0.0) {
+            throw new IllegalArgumentException("Fill coefficient must be positive: " + fillCoeff);
         }
 
-        System.out.println("fillCoeff " + fillCoeff);
-        System.out.println("fillAngle " + fillAngle);
-        System.out.println("slope " + slope);
-
         final double pow1 = 3.0 / 8;
-        double coeff = Math.pow(2, 13.0/3);
-        double numerator = (coeff * discharge);
-        double denominator = (fillAngle - Math.sin(fillAngle)) * linkRoughness *
-                Math.pow(slope, 0.5) * Math.pow( (1 - Math.sin(fillAngle) / fillAngle), 2.0/3 );
-
-        return Math.pow( numerator / denominator, pow1 );
+        return Math.pow(discharge / (linkRoughness * Math.sqrt(slope) * sectionFactor), pow1);
     }
 }
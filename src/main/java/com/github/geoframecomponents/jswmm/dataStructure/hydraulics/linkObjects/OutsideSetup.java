@@ -15,15 +15,19 @@
 
 package com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects;
 
+import java.nio.ByteBuffer;
 import java.time.Instant;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import com.github.geoframecomponents.jswmm.metrics.Counter;
+import com.github.geoframecomponents.jswmm.metrics.Metrics;
 import it.blogspot.geoframe.utils.GEOconstants;
 import org.geotools.graph.util.geom.Coordinate2D;
 
 public class OutsideSetup {
 
+    private static final Counter OVER_MAXIMUM_EXCAVATION = Metrics.counter("design.overMaximumExcavation");
+
     String nodeName;
     private Coordinate2D nodeCoordinates;
     private double terrainElevation;
@@ -34,70 +38,81 @@ public class OutsideSetup {
     private double excavation;
     private double fillCoeff;
     private double waterDepth;
+    private boolean overMaximumExcavation;
+    private Instant restartTime;
 
-    HashMap<Integer, LinkedHashMap<Instant, Double>> streamWetArea = new HashMap<>();
-    HashMap<Integer, LinkedHashMap<Instant, Double>> streamFlowRate = new HashMap<>();
+    TimeSeries streamWetArea;
+    TimeSeries streamFlowRate;
 
-    public OutsideSetup(String nodeName, Double downOffset, Double fillCoeff, Double x, Double y, double terrainElevation) {
+    public OutsideSetup(String nodeName, Double downOffset, Double fillCoeff, Double x, Double y, double terrainElevation,
+                        Instant startTime, Long routingStepSize) {
         this.nodeName = nodeName;
         this.downOffset = downOffset;
         this.fillCoeff = fillCoeff;
         this.nodeCoordinates = new Coordinate2D(x, y);
         this.terrainElevation = terrainElevation;
+        this.streamWetArea = new TimeSeries(startTime, routingStepSize);
+        this.streamFlowRate = new TimeSeries(startTime, routingStepSize);
     }
 
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> getStreamWetArea() {
+    public TimeSeries getStreamWetArea() {
         return streamWetArea;
     }
 
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> getStreamFlowRate() {
+    public TimeSeries getStreamFlowRate() {
         return streamFlowRate;
     }
 
     public void setWetArea(Integer id, Instant time, Double wetArea) {
-        if (!streamWetArea.containsKey(id)) {
-            streamWetArea.put(id, new LinkedHashMap<>());
-        }
-        Double oldWetArea = streamWetArea.get(id).get(time);
-        if (oldWetArea == null) {
-            LinkedHashMap<Instant, Double> newLHM = new LinkedHashMap<>();
-            newLHM.put(time, wetArea);
-            streamWetArea.put(id, newLHM);
-        }
-        else {
-            LinkedHashMap<Instant, Double> oldLHM = streamWetArea.get(id);
-            oldLHM.put(time, wetArea);
-            streamWetArea.put(id, oldLHM);
-        }
+        streamWetArea.set(id, time, wetArea);
     }
 
     public void setFlowRate(Integer id, Instant time, Double flowRate) {
-        if (!streamFlowRate.containsKey(id)) {
-            streamFlowRate.put(id, new LinkedHashMap<>());
-        }
-        LinkedHashMap<Instant, Double> oldLHM = streamFlowRate.get(id);
-        oldLHM.put(time, flowRate);
-        streamFlowRate.put(id, oldLHM);
-    }
-
-    public void sumStreamFlowRate(HashMap<Integer, LinkedHashMap<Instant, Double>> newFlowRate) {
-        for (Integer id : newFlowRate.keySet()) {
-            if (!streamFlowRate.containsKey(id)) {
-                streamFlowRate.put(id, new LinkedHashMap<>());
-            }
-            for (Instant time : newFlowRate.get(id).keySet()) {
-                Double oldFLowRate = streamFlowRate.get(id).get(time);
-                double value;
-                if (oldFLowRate == null) {
-                    value = newFlowRate.get(id).get(time);
-                } else {
-                    value = newFlowRate.get(id).get(time) + oldFLowRate;
-                }
-                LinkedHashMap<Instant, Double> oldLHM = streamFlowRate.get(id);
-                oldLHM.put(time, value);
-                streamFlowRate.put(id, oldLHM);
-            }
-        }
+        streamFlowRate.set(id, time, flowRate);
+    }
+
+    public void sumStreamFlowRate(TimeSeries newFlowRate) {
+        streamFlowRate.sum(newFlowRate);
+    }
+
+    /**
+     * Adds a primitive flow rate of a scenario in place, from the given step of the routing axis on. Only the
+     * task routing the link writes its stream flow rate, so no synchronisation is needed.
+     */
+    public void accumulateStreamFlowRate(int id, int index, double[] flowRate, int length) {
+        streamFlowRate.accumulate(id, index, flowRate, length);
+    }
+
+    /**
+     * Marks the state at the given time as read from a checkpoint, to be continued instead of evaluated again.
+     */
+    public void setRestartTime(Instant restartTime) {
+        this.restartTime = restartTime;
+    }
+
+    public boolean isRestartedAt(Instant time) {
+        return time.equals(restartTime);
+    }
+
+    /**
+     * Writes the offsets, heights and water depth given by the design of the link.
+     */
+    public void saveGeometry(ByteBuffer buffer) {
+        buffer.putDouble(downOffset);
+        buffer.putDouble(upOffset);
+        buffer.putDouble(height);
+        buffer.putDouble(excavation);
+        buffer.putDouble(baseElevation);
+        buffer.putDouble(waterDepth);
+    }
+
+    public void restoreGeometry(ByteBuffer buffer) {
+        downOffset = buffer.getDouble();
+        upOffset = buffer.getDouble();
+        height = buffer.getDouble();
+        excavation = buffer.getDouble();
+        baseElevation = buffer.getDouble();
+        waterDepth = buffer.getDouble();
     }
 
     public Double getFillCoeff() {
@@ -145,16 +160,23 @@ public class OutsideSetup {
         //System.out.println(upOffset);
 
         //System.out.println(upOffset);
-        checkMaxExcavation(height);//TODO
+        checkMaxExcavation(height);
     }
 
     private void checkMaxExcavation(double escavation) {
-        if (escavation > GEOconstants.MAXIMUMEXCAVATION) {
-            //TODO warning
-            System.out.println("over MAXIMUMEXCAVATION");
+        overMaximumExcavation = escavation > GEOconstants.MAXIMUMEXCAVATION;
+        if (overMaximumExcavation) {
+            OVER_MAXIMUM_EXCAVATION.increment();
         }
     }
 
+    /**
+     * True if the last excavation set or upgraded is deeper than {@link GEOconstants#MAXIMUMEXCAVATION}.
+     */
+    public boolean isOverMaximumExcavation() {
+        return overMaximumExcavation;
+    }
+
     public void setHeights(double excavation, double offset) {
         this.downOffset = offset;
         setHeight(excavation + downOffset);
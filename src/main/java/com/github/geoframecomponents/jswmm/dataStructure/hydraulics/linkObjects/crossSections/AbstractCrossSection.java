@@ -0,0 +1,92 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections;
+
+import com.github.geoframecomponents.jswmm.dataStructure.options.ManningPowers;
+
+/**
+ * Section whose hydraulics come from the {@link ShapeGeometry} of its profile, scaled by its full depth: the main
+ * dimension, with which the other dimensions scale when a design sets it.
+ */
+public abstract class AbstractCrossSection implements CrossSectionType {
+
+    private final ShapeProfile profile;
+    private final double[] dimensions;
+
+    private ShapeGeometry geometry;
+
+    AbstractCrossSection(ShapeProfile profile, double depth, double outerDepth) {
+        this.profile = profile;
+        this.dimensions = new double[]{depth, outerDepth};
+    }
+
+    @Override
+    public ShapeGeometry getGeometry(int tableLength) {
+        ShapeGeometry current = geometry;
+        if (current == null || current.getTableLength() != tableLength) {
+            current = ShapeGeometry.of(profile, tableLength);
+            geometry = current;
+        }
+        return current;
+    }
+
+    @Override
+    public Boolean getAlwaysIncrease() {
+        return !profile.isClosed();
+    }
+
+    @Override
+    public Double getDepthFull() {
+        return dimensions[0];
+    }
+
+    @Override
+    public Double getAreaFull() {
+        return getGeometry().getAreaFull() * dimensions[0] * dimensions[0];
+    }
+
+    @Override
+    public Double getHydraulicRadiusFull() {
+        return getGeometry().getHydraulicRadiusFull() * dimensions[0];
+    }
+
+    @Override
+    public Double getDischargeFull(double roughnessCoefficient, double slope) {
+        return getAreaFull() * ManningPowers.twoThirds(getHydraulicRadiusFull()) * roughnessCoefficient *
+                Math.sqrt(slope);
+    }
+
+    @Override
+    public Double getAreaMax() {
+        return getGeometry().getAreaAtMaximumSectionFactor() * getAreaFull();
+    }
+
+    @Override
+    public void setDimensions(double innerDimension, double outerDimension) {
+        dimensions[0] = innerDimension;
+        dimensions[1] = outerDimension;
+    }
+
+    @Override
+    public double getMainDimension() {
+        return dimensions[0];
+    }
+
+    @Override
+    public double getOuterDimension() {
+        return dimensions[1];
+    }
+}
@@ -15,8 +15,37 @@
 
 package com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections;
 
+import com.github.geoframecomponents.jswmm.dataStructure.options.ManningPowers;
+
 public class Circular implements CrossSectionType {
 
+    private static final ShapeProfile PROFILE = new ShapeProfile() {
+
+        @Override
+        public String getKey() {
+            return "CIRCULAR";
+        }
+
+        @Override
+        public boolean isClosed() {
+            return true;
+        }
+
+        @Override
+        public double getWidth(double depth) {
+            return 2.0 * Math.sqrt(Math.max(0.0, depth * (1.0 - depth)));
+        }
+
+        @Override
+        public void integrate(int intervals, double[] area, double[] perimeter) {
+            for (int interval = 0; interval <= intervals; interval++) {
+                double theta = 2.0 * Math.acos(1.0 - 2.0 * interval / intervals);
+                area[interval] = (theta - Math.sin(theta)) / 8.0;
+                perimeter[interval] = theta / 2.0;
+            }
+        }
+    };
+
     private double[] diameters;
     private Boolean alwaysIncrease = false;
 
@@ -26,13 +55,15 @@ public class Circular implements CrossSectionType {
     private Double hydraulicRadiousFull;
     private Double sectionFactorFull;
 
+    private ShapeGeometry geometry;
+
     public Circular(double innerDiameter, double outerDiameter) {
         this.diameters = new double[]{innerDiameter, outerDiameter};
         this.depthFull = 0.938 * innerDiameter;
         this.areaFull = Math.PI * innerDiameter * innerDiameter / 4;
         this.areaMax = 0.7854 * Math.pow(getDepthFull(), 2);
         this.hydraulicRadiousFull = 0.25 * getDepthFull();
-        this.sectionFactorFull = getAreaFull() * Math.pow(getHydraulicRadiusFull(), 2.0 / 3.0);
+        this.sectionFactorFull = getAreaFull() * ManningPowers.twoThirds(getHydraulicRadiusFull());
     }
 
     public Circular(double innerDiameter) {
@@ -52,7 +83,7 @@ public class Circular implements CrossSectionType {
         this.areaFull = Math.PI * innerDiameter * innerDiameter / 4;
         this.areaMax = 0.7854 * Math.pow(getDepthFull(), 2);
         this.hydraulicRadiousFull = 0.25 * getDepthFull();
-        this.sectionFactorFull = getAreaFull() * Math.pow(getHydraulicRadiusFull(), 2.0 / 3.0);
+        this.sectionFactorFull = getAreaFull() * ManningPowers.twoThirds(getHydraulicRadiusFull());
     }
 
     @Override
@@ -65,9 +96,8 @@ public class Circular implements CrossSectionType {
         return areaFull;
     }
 
-    @Override
     public Double computeHydraulicRadious(Double diameter, Double fillAngle) {
-        return (diameter / 4.0) / ( 1 - Math.sin(fillAngle)/fillAngle );
+        return (diameter / 4.0) * ( 1 - Math.sin(fillAngle)/fillAngle );
     }
 
     @Override
@@ -77,7 +107,7 @@ public class Circular implements CrossSectionType {
 
     @Override
     public Double getDischargeFull(double roughnessCoefficient, double slope) {
-        return areaFull * Math.pow(hydraulicRadiousFull, 2.0 / 3) * roughnessCoefficient * Math.pow(slope, 0.5);
+        return areaFull * ManningPowers.twoThirds(hydraulicRadiousFull) * roughnessCoefficient * Math.pow(slope, 0.5);
     }
 
     @Override
@@ -109,7 +139,21 @@ public class Circular implements CrossSectionType {
         return 2 * Math.acos( 1 - 2 * fillCoefficient );
     }
 
+    @Override
+    public ShapeGeometry getGeometry(int tableLength) {
+        ShapeGeometry current = geometry;
+        if (current == null || current.getTableLength() != tableLength) {
+            current = ShapeGeometry.of(PROFILE, tableLength);
+            geometry = current;
+        }
+        return current;
+    }
+
     public double getMainDimension() {
         return diameters[0];
     }
+
+    public double getOuterDimension() {
+        return diameters[1];
+    }
 }
@@ -19,8 +19,6 @@ public interface CrossSectionType {
 
     public Boolean getAlwaysIncrease();
 
-    public Double derivatedSectionFactor(Double theta);
-
     Double getDepthFull();
 
     Double getAreaFull();
@@ -31,11 +29,18 @@ public interface CrossSectionType {
 
     Double getAreaMax();
 
-    Double computeHydraulicRadious(Double diameter, Double fillAngle);
-
-    Double computeFillAngle(Double fillCoeff);
-
     void setDimensions(double innerDiameter, double outerDiameter);
 
     double getMainDimension();
+
+    double getOuterDimension();
+
+    /**
+     * Dimensionless tables of the shape, shared by the sections of the same shape and proportions
+     */
+    ShapeGeometry getGeometry(int tableLength);
+
+    default ShapeGeometry getGeometry() {
+        return getGeometry(ShapeGeometry.DEFAULT_TABLE_LENGTH);
+    }
 }
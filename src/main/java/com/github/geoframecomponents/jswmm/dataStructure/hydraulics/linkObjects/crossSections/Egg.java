@@ -0,0 +1,64 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections;
+
+/**
+ * Standard egg-shaped section, 1.5 times higher than wide: a top arc of radius R = B / 2, side arcs of radius 3R
+ * and an invert arc of radius R / 2, with B the width.
+ */
+public class Egg extends AbstractCrossSection {
+
+    private static final ShapeProfile PROFILE = new ShapeProfile() {
+
+        private static final double RADIUS = 1.0 / 3.0;
+
+        @Override
+        public String getKey() {
+            return "EGG";
+        }
+
+        @Override
+        public boolean isClosed() {
+            return true;
+        }
+
+        @Override
+        public double getWidth(double depth) {
+            double halfWidth;
+            if (depth < 0.2 * RADIUS) {
+                double invert = depth - 0.5 * RADIUS;
+                halfWidth = Math.sqrt(0.25 * RADIUS * RADIUS - invert * invert);
+            }
+            else if (depth < 2.0 * RADIUS) {
+                double side = depth - 2.0 * RADIUS;
+                halfWidth = Math.sqrt(9.0 * RADIUS * RADIUS - side * side) - 2.0 * RADIUS;
+            }
+            else {
+                double top = depth - 2.0 * RADIUS;
+                halfWidth = Math.sqrt(Math.max(0.0, RADIUS * RADIUS - top * top));
+            }
+            return 2.0 * halfWidth;
+        }
+    };
+
+    public Egg(double height) {
+        this(height, height);
+    }
+
+    public Egg(double height, double outerHeight) {
+        super(PROFILE, height, outerHeight);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections;
+
+/**
+ * Standard horseshoe section, as wide as high: a top semicircle of radius D / 2, side arcs of radius D centered
+ * on the opposite springing line and an invert arc of radius D, with D the height.
+ */
+public class Horseshoe extends AbstractCrossSection {
+
+    private static final ShapeProfile PROFILE = new ShapeProfile() {
+
+        private final double invertDepth = (3.0 - Math.sqrt(7.0)) / 4.0;
+
+        @Override
+        public String getKey() {
+            return "HORSESHOE";
+        }
+
+        @Override
+        public boolean isClosed() {
+            return true;
+        }
+
+        @Override
+        public double getWidth(double depth) {
+            double halfWidth;
+            if (depth < invertDepth) {
+                double invert = depth - 1.0;
+                halfWidth = Math.sqrt(1.0 - invert * invert);
+            }
+            else if (depth < 0.5) {
+                double side = depth - 0.5;
+                halfWidth = Math.sqrt(1.0 - side * side) - 0.5;
+            }
+            else {
+                double top = depth - 0.5;
+                halfWidth = Math.sqrt(Math.max(0.0, 0.25 - top * top));
+            }
+            return 2.0 * halfWidth;
+        }
+    };
+
+    public Horseshoe(double height) {
+        this(height, height);
+    }
+
+    public Horseshoe(double height, double outerHeight) {
+        super(PROFILE, height, outerHeight);
+    }
+}
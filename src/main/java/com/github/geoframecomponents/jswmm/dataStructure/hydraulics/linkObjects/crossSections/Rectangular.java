@@ -0,0 +1,73 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections;
+
+/**
+ * Closed rectangular section, whose width keeps its ratio to the height.
+ */
+public class Rectangular extends AbstractCrossSection {
+
+    private final double widthRatio;
+
+    public Rectangular(double height, double width) {
+        this(height, height, width);
+    }
+
+    public Rectangular(double height, double outerHeight, double width) {
+        super(new Profile(width / height), height, outerHeight);
+        this.widthRatio = width / height;
+    }
+
+    public double getWidth() {
+        return widthRatio * getMainDimension();
+    }
+
+    private static class Profile implements ShapeProfile {
+
+        private final double width;
+
+        Profile(double width) {
+            if (!(width > 0.0)) {
+                throw new IllegalArgumentException("Width must be positive: " + width);
+            }
+            this.width = width;
+        }
+
+        @Override
+        public String getKey() {
+            return "RECT_CLOSED " + width;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return true;
+        }
+
+        @Override
+        public double getWidth(double depth) {
+            return width;
+        }
+
+        @Override
+        public void integrate(int intervals, double[] area, double[] perimeter) {
+            for (int interval = 0; interval <= intervals; interval++) {
+                double depth = (double) interval / intervals;
+                area[interval] = width * depth;
+                perimeter[interval] = width + 2.0 * depth;
+            }
+        }
+    }
+}
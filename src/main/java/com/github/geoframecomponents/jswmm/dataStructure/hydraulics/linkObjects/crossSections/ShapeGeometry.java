@@ -0,0 +1,249 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections;
+
+import com.github.geoframecomponents.jswmm.dataStructure.options.ManningPowers;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dimensionless geometry of a shape, tabulated once and shared by every section of the same shape and
+ * proportions through {@link #of(ShapeProfile, int)}.
+ * <p>
+ * Depths are relative to the full depth, areas to the full area, hydraulic radii to the full hydraulic radius and
+ * section factors A R^(2/3) to the full one, so that the relative section factor is the flow relative to the full
+ * flow of Manning's formula. Widths are per unit of full depth. Tables by depth and the section factor by area are
+ * uniform in their argument; the inverse tables, depth by area and area or depth by section factor on its
+ * increasing branch, are uniform in the square root of their argument, which straightens their steep start. Each
+ * lookup interpolates linearly between two entries found by index.
+ * <p>
+ * Tables are built from a profile integrated on a grid {@value #REFINEMENT} times finer, which is inverted to fill
+ * the area and the section factor tables.
+ */
+public final class ShapeGeometry {
+
+    public static final int DEFAULT_TABLE_LENGTH = 180;
+
+    static final int REFINEMENT = 8;
+
+    private static final ConcurrentHashMap<String, ShapeGeometry> GEOMETRIES = new ConcurrentHashMap<>();
+
+    private final String key;
+    private final int tableLength;
+
+    private final double areaFull;
+    private final double hydraulicRadiusFull;
+    private final double sectionFactorFull;
+
+    private final double[] areaByDepth;
+    private final double[] hydraulicRadiusByDepth;
+    private final double[] sectionFactorByDepth;
+    private final double[] widthByDepth;
+
+    private final double[] sectionFactorByArea;
+    private final double[] depthByArea;
+
+    private final double maximumSectionFactor;
+    private final double areaAtMaximumSectionFactor;
+    private final double[] areaBySectionFactor;
+    private final double[] depthBySectionFactor;
+
+    /**
+     * Tables of the profile, built at the first request of its key and table length
+     */
+    public static ShapeGeometry of(ShapeProfile profile, int tableLength) {
+        if (tableLength < 1) {
+            throw new IllegalArgumentException("Table length must be positive: " + tableLength);
+        }
+        return GEOMETRIES.computeIfAbsent(profile.getKey() + "/" + tableLength,
+                key -> new ShapeGeometry(profile, tableLength));
+    }
+
+    private ShapeGeometry(ShapeProfile profile, int tableLength) {
+        this.key = profile.getKey();
+        this.tableLength = tableLength;
+
+        int intervals = tableLength * REFINEMENT;
+        double[] area = new double[intervals + 1];
+        double[] perimeter = new double[intervals + 1];
+        profile.integrate(intervals, area, perimeter);
+        if (profile.isClosed()) {
+            perimeter[intervals] += profile.getWidth(1.0);
+        }
+
+        areaFull = area[intervals];
+        hydraulicRadiusFull = areaFull / perimeter[intervals];
+        sectionFactorFull = areaFull * ManningPowers.twoThirds(hydraulicRadiusFull);
+
+        double[] hydraulicRadius = new double[intervals + 1];
+        double[] sectionFactor = new double[intervals + 1];
+        int maximum = 0;
+        for (int i = 1; i <= intervals; i++) {
+            hydraulicRadius[i] = area[i] / perimeter[i] / hydraulicRadiusFull;
+            area[i] /= areaFull;
+            sectionFactor[i] = area[i] * ManningPowers.twoThirds(hydraulicRadius[i]);
+            if (sectionFactor[i] > sectionFactor[maximum]) {
+                maximum = i;
+            }
+        }
+        maximumSectionFactor = sectionFactor[maximum];
+        areaAtMaximumSectionFactor = area[maximum];
+
+        areaByDepth = new double[tableLength + 1];
+        hydraulicRadiusByDepth = new double[tableLength + 1];
+        sectionFactorByDepth = new double[tableLength + 1];
+        widthByDepth = new double[tableLength + 1];
+        for (int i = 0; i <= tableLength; i++) {
+            areaByDepth[i] = area[i * REFINEMENT];
+            hydraulicRadiusByDepth[i] = hydraulicRadius[i * REFINEMENT];
+            sectionFactorByDepth[i] = sectionFactor[i * REFINEMENT];
+            widthByDepth[i] = profile.getWidth((double) i / tableLength);
+        }
+
+        sectionFactorByArea = invert(area, intervals, 1.0, false, sectionFactor);
+        depthByArea = invert(area, intervals, 1.0, true, null);
+        areaBySectionFactor = invert(sectionFactor, maximum, maximumSectionFactor, true, area);
+        depthBySectionFactor = invert(sectionFactor, maximum, maximumSectionFactor, true, null);
+    }
+
+    /**
+     * Values, or depths if null, at tableLength + 1 points up to the last one of an increasing function tabulated
+     * on the fine grid up to the given index, equally spaced in the function or in its square root.
+     */
+    private double[] invert(double[] function, int last, double lastValue, boolean squareRootSpaced,
+                            double[] values) {
+        double[] table = new double[tableLength + 1];
+        int fine = 0;
+        for (int i = 0; i <= tableLength; i++) {
+            double fraction = (double) i / tableLength;
+            double target = i == tableLength ? lastValue :
+                    lastValue * (squareRootSpaced ? fraction * fraction : fraction);
+            while (fine < last - 1 && function[fine + 1] < target) {
+                fine++;
+            }
+            double weight = last == 0 ? 0.0 : (target - function[fine]) / (function[fine + 1] - function[fine]);
+            weight = Math.max(0.0, Math.min(1.0, weight));
+            table[i] = values == null ? (fine + weight) / (tableLength * REFINEMENT) :
+                    values[fine] + weight * (values[fine + 1] - values[fine]);
+        }
+        return table;
+    }
+
+    private double lookup(double[] table, double position) {
+        if (position >= tableLength) {
+            return table[tableLength];
+        }
+        int index = (int) position;
+        return table[index] + (table[index + 1] - table[index]) * (position - index);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int getTableLength() {
+        return tableLength;
+    }
+
+    /**
+     * Full area of the shape of unit full depth
+     */
+    public double getAreaFull() {
+        return areaFull;
+    }
+
+    /**
+     * Full hydraulic radius of the shape of unit full depth
+     */
+    public double getHydraulicRadiusFull() {
+        return hydraulicRadiusFull;
+    }
+
+    /**
+     * Full section factor A R^(2/3) of the shape of unit full depth
+     */
+    public double getSectionFactorFull() {
+        return sectionFactorFull;
+    }
+
+    private static double checked(double value, String name) {
+        if (!(value >= 0.0)) {
+            throw new IllegalArgumentException("Negative " + name + " " + value);
+        }
+        return value;
+    }
+
+    public double getArea(double depth) {
+        return lookup(areaByDepth, checked(depth, "depth") * tableLength);
+    }
+
+    public double getHydraulicRadius(double depth) {
+        return lookup(hydraulicRadiusByDepth, checked(depth, "depth") * tableLength);
+    }
+
+    public double getSectionFactor(double depth) {
+        return lookup(sectionFactorByDepth, checked(depth, "depth") * tableLength);
+    }
+
+    public double getWidth(double depth) {
+        return lookup(widthByDepth, checked(depth, "depth") * tableLength);
+    }
+
+    public double getDepthOfArea(double area) {
+        return lookup(depthByArea, Math.sqrt(checked(area, "area")) * tableLength);
+    }
+
+    /**
+     * Section factor of the wet area, the full one beyond it
+     */
+    public double getSectionFactorOfArea(double area) {
+        return lookup(sectionFactorByArea, checked(area, "area") * tableLength);
+    }
+
+    /**
+     * Derivative of the section factor by the area, constant between two entries of the table
+     */
+    public double getSectionFactorDerivative(double area) {
+        int index = Math.max(0, Math.min((int) (area * tableLength), tableLength - 1));
+        return (sectionFactorByArea[index + 1] - sectionFactorByArea[index]) * tableLength;
+    }
+
+    /**
+     * Area on the increasing branch of the section factor, the one at the maximum beyond it
+     */
+    public double getAreaOfSectionFactor(double sectionFactor) {
+        return lookup(areaBySectionFactor, relativeRoot(sectionFactor));
+    }
+
+    /**
+     * Depth on the increasing branch of the section factor, the one at the maximum beyond it
+     */
+    public double getDepthOfSectionFactor(double sectionFactor) {
+        return lookup(depthBySectionFactor, relativeRoot(sectionFactor));
+    }
+
+    private double relativeRoot(double sectionFactor) {
+        return Math.sqrt(checked(sectionFactor, "section factor") / maximumSectionFactor) * tableLength;
+    }
+
+    public double getMaximumSectionFactor() {
+        return maximumSectionFactor;
+    }
+
+    public double getAreaAtMaximumSectionFactor() {
+        return areaAtMaximumSectionFactor;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections;
+
+/**
+ * Outline of a shape of unit full depth, from which {@link ShapeGeometry} builds its tables.
+ * <p>
+ * Sections of the same shape and proportions must have equal keys, so that they share the same tables.
+ */
+public interface ShapeProfile {
+
+    /**
+     * Number of width evaluations per depth interval of the numeric integration
+     */
+    int SUBSTEPS = 16;
+
+    String getKey();
+
+    /**
+     * Closed shapes add their top width to the wetted perimeter of the full section.
+     */
+    boolean isClosed();
+
+    /**
+     * Width of the free surface at the given depth, between 0 and 1
+     */
+    double getWidth(double depth);
+
+    /**
+     * Wet area and wetted perimeter at the depths i / intervals, integrating the width of a symmetric outline
+     * with the trapezoidal rule; the perimeter starts from the width of the bottom. Shapes with closed forms
+     * override it.
+     */
+    default void integrate(int intervals, double[] area, double[] perimeter) {
+        double step = 1.0 / (intervals * SUBSTEPS);
+        double width = getWidth(0.0);
+        area[0] = 0.0;
+        perimeter[0] = width;
+        for (int interval = 1; interval <= intervals; interval++) {
+            double currentArea = area[interval - 1];
+            double currentPerimeter = perimeter[interval - 1];
+            for (int substep = 1; substep <= SUBSTEPS; substep++) {
+                double nextWidth = getWidth(((interval - 1) * SUBSTEPS + substep) * step);
+                currentArea += 0.5 * (width + nextWidth) * step;
+                currentPerimeter += 2.0 * Math.hypot(step, 0.5 * (nextWidth - width));
+                width = nextWidth;
+            }
+            area[interval] = currentArea;
+            perimeter[interval] = currentPerimeter;
+        }
+    }
+}
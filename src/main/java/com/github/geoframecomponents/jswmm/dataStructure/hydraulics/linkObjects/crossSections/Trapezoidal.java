@@ -0,0 +1,77 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections;
+
+/**
+ * Open trapezoidal channel, whose bottom width keeps its ratio to the depth; side slopes are horizontal over
+ * vertical, zero for a rectangular channel.
+ */
+public class Trapezoidal extends AbstractCrossSection {
+
+    private final double bottomWidthRatio;
+
+    public Trapezoidal(double depth, double bottomWidth, double leftSlope, double rightSlope) {
+        super(new Profile(bottomWidth / depth, leftSlope, rightSlope), depth, depth);
+        this.bottomWidthRatio = bottomWidth / depth;
+    }
+
+    public double getBottomWidth() {
+        return bottomWidthRatio * getMainDimension();
+    }
+
+    private static class Profile implements ShapeProfile {
+
+        private final double bottomWidth;
+        private final double leftSlope;
+        private final double rightSlope;
+
+        Profile(double bottomWidth, double leftSlope, double rightSlope) {
+            if (bottomWidth < 0.0 || leftSlope < 0.0 || rightSlope < 0.0 ||
+                    bottomWidth + leftSlope + rightSlope == 0.0) {
+                throw new IllegalArgumentException("Bad trapezoid: bottom width " + bottomWidth + ", side slopes " +
+                        leftSlope + " and " + rightSlope);
+            }
+            this.bottomWidth = bottomWidth;
+            this.leftSlope = leftSlope;
+            this.rightSlope = rightSlope;
+        }
+
+        @Override
+        public String getKey() {
+            return "TRAPEZOIDAL " + bottomWidth + " " + leftSlope + " " + rightSlope;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return false;
+        }
+
+        @Override
+        public double getWidth(double depth) {
+            return bottomWidth + (leftSlope + rightSlope) * depth;
+        }
+
+        @Override
+        public void integrate(int intervals, double[] area, double[] perimeter) {
+            double sides = Math.sqrt(1.0 + leftSlope * leftSlope) + Math.sqrt(1.0 + rightSlope * rightSlope);
+            for (int interval = 0; interval <= intervals; interval++) {
+                double depth = (double) interval / intervals;
+                area[interval] = (bottomWidth + 0.5 * (leftSlope + rightSlope) * depth) * depth;
+                perimeter[interval] = bottomWidth + sides * depth;
+            }
+        }
+    }
+}
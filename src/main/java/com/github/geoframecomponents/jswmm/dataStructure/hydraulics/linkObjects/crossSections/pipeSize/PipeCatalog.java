@@ -0,0 +1,167 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.pipeSize;
+
+import it.blogspot.geoframe.utils.GEOunitsTransform;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Commercial pipes sorted by inner diameter in primitive arrays: the smallest pipe wider than the designed
+ * diameter is found by binary search, and the sizes in meters are converted once when the catalog is built.
+ * <p>
+ * Catalogs can be read from CSV files with a material, the inner and the outer diameter in millimeters on each
+ * line, e.g. "PVC,153.6,160.0"; blank lines, lines starting with '#' and a leading header are skipped.
+ */
+public class PipeCatalog implements CommercialPipeSize {
+
+    private final double[] innerMillimeters;
+    private final double[] innerMeters;
+    private final double[] outerMeters;
+
+    /**
+     * @param innerDiameters inner diameters [mm], in any order
+     * @param outerDiameters outer diameters [mm] of the same pipes
+     */
+    public PipeCatalog(double[] innerDiameters, double[] outerDiameters) {
+        if (innerDiameters.length != outerDiameters.length) {
+            throw new IllegalArgumentException("Expected " + innerDiameters.length + " outer diameters, found " +
+                    outerDiameters.length);
+        }
+        if (innerDiameters.length == 0) {
+            throw new IllegalArgumentException("Empty pipe catalog");
+        }
+
+        Integer[] order = new Integer[innerDiameters.length];
+        for (int pipe = 0; pipe < order.length; pipe++) {
+            order[pipe] = pipe;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingDouble(pipe -> innerDiameters[pipe])
+                .thenComparingDouble(pipe -> outerDiameters[pipe]));
+
+        innerMillimeters = new double[order.length];
+        innerMeters = new double[order.length];
+        outerMeters = new double[order.length];
+        for (int index = 0; index < order.length; index++) {
+            innerMillimeters[index] = innerDiameters[order[index]];
+            innerMeters[index] = GEOunitsTransform.millimiters2meters(innerDiameters[order[index]]);
+            outerMeters[index] = GEOunitsTransform.millimiters2meters(outerDiameters[order[index]]);
+        }
+    }
+
+    /**
+     * Pipes of every material of a CSV catalog
+     */
+    public static PipeCatalog readCsv(String fileName) throws IOException {
+        return readCsv(fileName, null);
+    }
+
+    /**
+     * Pipes of one material of a CSV catalog, compared ignoring case; every material if null
+     */
+    public static PipeCatalog readCsv(String fileName, String material) throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(fileName), StandardCharsets.UTF_8)) {
+            return readCsv(reader, material);
+        }
+    }
+
+    public static PipeCatalog readCsv(Reader reader, String material) throws IOException {
+        List<double[]> pipes = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        long lineNumber = 0;
+        boolean first = true;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+
+            String[] fields = line.split(",");
+            if (fields.length < 3) {
+                throw new IllegalArgumentException("Expected material, inner and outer diameter at line " +
+                        lineNumber);
+            }
+            double inner;
+            double outer;
+            try {
+                inner = Double.parseDouble(fields[1].trim());
+                outer = Double.parseDouble(fields[2].trim());
+            }
+            catch (NumberFormatException e) {
+                if (first) {
+                    first = false;
+                    continue;
+                }
+                throw new IllegalArgumentException("Bad diameter at line " + lineNumber, e);
+            }
+            first = false;
+
+            if (material == null || material.equalsIgnoreCase(fields[0].trim())) {
+                pipes.add(new double[]{inner, outer});
+            }
+        }
+
+        double[] innerDiameters = new double[pipes.size()];
+        double[] outerDiameters = new double[pipes.size()];
+        for (int pipe = 0; pipe < innerDiameters.length; pipe++) {
+            innerDiameters[pipe] = pipes.get(pipe)[0];
+            outerDiameters[pipe] = pipes.get(pipe)[1];
+        }
+        return new PipeCatalog(innerDiameters, outerDiameters);
+    }
+
+    public int size() {
+        return innerMeters.length;
+    }
+
+    // returns commercial size in meters
+    // expects designed size in meters
+    @Override
+    public double[] getCommercialDiameter(Double designedDiameter) {
+        double designed = GEOunitsTransform.meters2millimiters(designedDiameter);
+
+        // first inner diameter strictly greater than the designed one
+        int lower = 0;
+        int upper = innerMillimeters.length;
+        while (lower < upper) {
+            int middle = (lower + upper) >>> 1;
+            if (innerMillimeters[middle] > designed) {
+                upper = middle;
+            }
+            else {
+                lower = middle + 1;
+            }
+        }
+
+        if (lower == innerMillimeters.length) {
+            String msg = "Designed diameter " + designed;
+            msg += " is bigger than the biggest diameter available.";
+            throw new NullPointerException(msg);
+        }
+        return new double[]{innerMeters[lower], outerMeters[lower]};
+    }
+}
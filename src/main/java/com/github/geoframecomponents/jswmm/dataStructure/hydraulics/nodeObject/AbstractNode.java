@@ -18,9 +18,9 @@ package com.github.geoframecomponents.jswmm.dataStructure.hydraulics.nodeObject;
 import com.github.geoframecomponents.jswmm.dataStructure.formatData.writeData.WriteDataToFile;
 import com.github.geoframecomponents.jswmm.dataStructure.formatData.readData.ReadDataFromFile;
 import com.github.geoframecomponents.jswmm.dataStructure.options.units.ProjectUnits;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
 
 import java.time.Instant;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 
 public abstract class AbstractNode {
@@ -35,12 +35,17 @@ public abstract class AbstractNode {
     String nodeName;
     Double nodeElevation;
 
-    HashMap<Integer, LinkedHashMap<Instant, Double>> nodeFlowRate = new HashMap<>();
+    TimeSeries nodeFlowRate;
     LinkedHashMap<Instant, Double> nodeDepth;
 
-    public abstract void sumFlowRate(HashMap<Integer, LinkedHashMap<Instant, Double>> newFlowRate);
+    public abstract void sumFlowRate(TimeSeries newFlowRate);
 
-    public abstract HashMap<Integer, LinkedHashMap<Instant, Double>> getFlowRate();
+    /**
+     * Adds a primitive flow rate of a scenario in place, from the given step of the node axis on.
+     */
+    public abstract void accumulateFlowRate(int id, int index, double[] flowRate, int length);
+
+    public abstract TimeSeries getFlowRate();
 }
 
 
@@ -15,19 +15,22 @@
 
 package com.github.geoframecomponents.jswmm.dataStructure.hydraulics.nodeObject;
 
-import java.time.Instant;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
 
 public class Divider extends AbstractNode {
 
     @Override
-    public void sumFlowRate(HashMap<Integer, LinkedHashMap<Instant, Double>> newFlowRate) {
+    public void sumFlowRate(TimeSeries newFlowRate) {
         throw new NullPointerException("Nothing implemented yet");
     }
 
     @Override
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> getFlowRate() {
+    public void accumulateFlowRate(int id, int index, double[] flowRate, int length) {
+        throw new NullPointerException("Nothing implemented yet");
+    }
+
+    @Override
+    public TimeSeries getFlowRate() {
         throw new NullPointerException("Nothing implemented yet");
     }
 }
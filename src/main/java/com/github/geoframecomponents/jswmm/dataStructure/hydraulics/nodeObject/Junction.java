@@ -15,9 +15,10 @@
 
 package com.github.geoframecomponents.jswmm.dataStructure.hydraulics.nodeObject;
 
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.StripedAccumulator;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+
 import java.time.Instant;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 
 public class Junction extends AbstractNode {
 
@@ -26,39 +27,34 @@ public class Junction extends AbstractNode {
     Double maximumDepthSurcharge;
     Double pondingArea;
 
+    private final StripedAccumulator flowRateAccumulator;
+
     public Junction(Double nodeElevation, Double maximumDepthNode, Double initialDepthnode,
-                    Double maximumDepthSurcharge, Double pondingArea) {
+                    Double maximumDepthSurcharge, Double pondingArea, Instant startTime, Long routingStepSize) {
         this.nodeElevation = nodeElevation;
         this.maximumDepthNode = maximumDepthNode;
         this.initialDepthnode = initialDepthnode;
         this.maximumDepthSurcharge = maximumDepthSurcharge;
         this.pondingArea = pondingArea;
+        this.nodeFlowRate = new TimeSeries(startTime, routingStepSize);
+        this.flowRateAccumulator = new StripedAccumulator(nodeFlowRate);
     }
 
     @Override
-    public void sumFlowRate(HashMap<Integer, LinkedHashMap<Instant, Double>> newFlowRate) {
+    public void sumFlowRate(TimeSeries newFlowRate) {
+        nodeFlowRate.sum(newFlowRate);
+    }
 
-        for (Integer id : newFlowRate.keySet()) {
-            if (!nodeFlowRate.containsKey(id)) {
-                nodeFlowRate.put(id, new LinkedHashMap<>());
-            }
-            for (Instant time : newFlowRate.get(id).keySet()) {
-                Double oldFLowRate = nodeFlowRate.get(id).get(time);
-                double value;
-                if (oldFLowRate == null) {
-                    value = newFlowRate.get(id).get(time);
-                } else {
-                    value = newFlowRate.get(id).get(time) + oldFLowRate;
-                }
-                LinkedHashMap<Instant, Double> oldLHM = nodeFlowRate.get(id);
-                oldLHM.put(time, value);
-                nodeFlowRate.put(id, oldLHM);
-            }
-        }
+    /**
+     * Safe with concurrent upstream producers, e.g. the links leaving the node in {@code ParallelRouting}.
+     */
+    @Override
+    public void accumulateFlowRate(int id, int index, double[] flowRate, int length) {
+        flowRateAccumulator.accumulate(id, index, flowRate, length);
     }
 
     @Override
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> getFlowRate() {
+    public TimeSeries getFlowRate() {
         return this.nodeFlowRate;
     }
 }
@@ -15,8 +15,9 @@
 
 package com.github.geoframecomponents.jswmm.dataStructure.hydraulics.nodeObject;
 
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+
 import java.time.Instant;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 
 public class Outfall extends AbstractNode {
@@ -41,12 +42,17 @@ public class Outfall extends AbstractNode {
     }
 
     @Override
-    public void sumFlowRate(HashMap<Integer, LinkedHashMap<Instant, Double>> newFlowRate) {
+    public void sumFlowRate(TimeSeries newFlowRate) {
+        throw new NullPointerException("Nothing implemented yet");
+    }
+
+    @Override
+    public void accumulateFlowRate(int id, int index, double[] flowRate, int length) {
         throw new NullPointerException("Nothing implemented yet");
     }
 
     @Override
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> getFlowRate() {
+    public TimeSeries getFlowRate() {
         throw new NullPointerException("Nothing implemented yet");
     }
 }
@@ -19,14 +19,23 @@ import com.github.geoframecomponents.jswmm.dataStructure.hydrology.rainData.Rain
 import com.github.geoframecomponents.jswmm.dataStructure.hydrology.subcatchment.ReceiverRunoff.ReceiverRunoff;
 import com.github.geoframecomponents.jswmm.dataStructure.options.units.ProjectUnits;
 import com.github.geoframecomponents.jswmm.dataStructure.runoffDS.RunoffSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import com.github.geoframecomponents.jswmm.metrics.Metrics;
+import com.github.geoframecomponents.jswmm.metrics.Timer;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class Area extends AbstractSubcatchment {
 
+    private static final Timer RUNOFF = Metrics.timer("runoff.area");
+
     RaingageSetup raingageSetup;
     List<ReceiverRunoff> receivers;
 
@@ -38,7 +47,7 @@ public class Area extends AbstractSubcatchment {
     //Double curbLength;
 
     HashMap<Integer, List<Subarea>> subareas;
-    HashMap<Integer, LinkedHashMap<Instant, Double>> totalAreaFlowRate;
+    TimeSeries totalAreaFlowRate;
 
     public Area(Double subcatchmentArea, RaingageSetup raingageSetup, Double characteristicWidth, Double areaSlope,
                 HashMap<Integer, List<Subarea>> subareas, ProjectUnits projectUnits) {
@@ -47,34 +56,35 @@ public class Area extends AbstractSubcatchment {
         this.characteristicWidth = characteristicWidth;
         this.areaSlope = areaSlope;
         this.subareas = subareas;
-        this.totalAreaFlowRate = new LinkedHashMap<>();
 
         setProjectUnits(projectUnits);
+        prepare();
     }
 
-    public LinkedHashMap<Instant, Double> evaluateTotalFlowRate(Integer id) {
-        //check if totalarea contain the rainfallTimeId
-        if (!totalAreaFlowRate.containsKey(id)) {
-            totalAreaFlowRate.put(id, new LinkedHashMap<>());
+    public TimeSeries evaluateTotalFlowRate() {
+        for (Integer id : subareas.keySet()) {
+            evaluateTotalFlowRate(id);
         }
+        return totalAreaFlowRate;
+    }
+
+    public TimeSeries evaluateTotalFlowRate(Integer id) {
+        if (totalAreaFlowRate == null) {
+            TimeSeries axis = subareas.get(id).get(0).getFlowRate();
+            totalAreaFlowRate = new TimeSeries(axis.getStartTime(), axis.getStepSize());
+        }
+        totalAreaFlowRate.clear(id);
+
         //sum the volume of each subarea as product of the flowrate and the subarea's area
         for(Subarea subarea : subareas.get(id)) {
-
-            LinkedHashMap<Instant, Double> subareaFlowRate = subarea.getFlowRate().get(id);
-            for (Instant time : subareaFlowRate.keySet()) {
-                Double oldFLowRate = totalAreaFlowRate.get(id).get(time);
-                double value;
-                if (oldFLowRate == null) {
-                    value = subareaFlowRate.get(time) * subarea.subareaArea * 10.0;// [m^3/s]
-                } else {
-                    value = oldFLowRate + subareaFlowRate.get(time) * subarea.subareaArea * 10.0;// [m^3/s]
-                }
-                LinkedHashMap<Instant, Double> upgradedLHM = totalAreaFlowRate.get(id);
-                upgradedLHM.put(time, value);
-                totalAreaFlowRate.put(id, upgradedLHM);
+            TimeSeries subareaFlowRate = subarea.getFlowRate();
+            double[] flowValues = subareaFlowRate.getValues(id);
+            double areaFactor = subarea.subareaArea * 10.0;
+            for (int step = 0; step < subareaFlowRate.getSize(); step++) {
+                totalAreaFlowRate.add(id, step, flowValues[step] * areaFactor);// [m^3/s]
             }
         }
-        return totalAreaFlowRate.get(id);
+        return totalAreaFlowRate;
     }
 
     public List<ReceiverRunoff> getReceivers() {
@@ -85,22 +95,79 @@ public class Area extends AbstractSubcatchment {
         return subareas;
     }
 
-    public void evaluateRunoffFlowRate(HashMap<Integer, LinkedHashMap<Instant, Double>> adaptedRainfallData,
-                                       RunoffSetup runoffSetup, Instant currentTime) {
+    /**
+     * Runs the runoff of every subarea from the initial to the total time and returns the area's flow rate.
+     * The state touched is owned by this area only, so distinct areas can be evaluated concurrently.
+     */
+    public TimeSeries evaluateRunoffFlowRate(TimeSeries adaptedRainfallData, RunoffSetup runoffSetup,
+                                             Instant initialTime, Instant totalTime) {
+        long start = RUNOFF.start();
+        Map<List<Subarea>, int[]> scenarios = groupScenarios(adaptedRainfallData.getScenarios());
+        int maximumScenarios = 0;
+        for (int[] identifiers : scenarios.values()) {
+            maximumScenarios = Math.max(maximumScenarios, identifiers.length);
+        }
+        double[] rainfall = new double[maximumScenarios];
+        Instant currentTime = initialTime;
+        while (currentTime.isBefore(totalTime)) {
+            evaluateRunoffFlowRate(adaptedRainfallData, runoffSetup, currentTime, scenarios, rainfall);
+            currentTime = currentTime.plusSeconds(runoffSetup.getRunoffStepSize());
+        }
+        TimeSeries totalFlowRate = evaluateTotalFlowRate();
+        RUNOFF.stop(start);
+        return totalFlowRate;
+    }
+
+    /**
+     * Advances every group of scenarios by one step, gathering their rainfall in the shared buffer.
+     */
+    private void evaluateRunoffFlowRate(TimeSeries adaptedRainfallData, RunoffSetup runoffSetup, Instant currentTime,
+                                        Map<List<Subarea>, int[]> scenarios, double[] rainfall) {
 
-        for (Integer identifier : adaptedRainfallData.keySet()) {
+        int step = adaptedRainfallData.indexOf(currentTime);
+        for (Map.Entry<List<Subarea>, int[]> group : scenarios.entrySet()) {
 
-            double rainfall = adaptedRainfallData.get(identifier).get(currentTime);
+            int[] identifiers = group.getValue();
+            for (int scenario = 0; scenario < identifiers.length; scenario++) {
+                rainfall[scenario] = adaptedRainfallData.get(identifiers[scenario], step);
+            }
 
-            adaptedRainfallData.get(identifier).get(currentTime);
-            for (Subarea subarea : subareas.get(identifier)) {
-                subarea.setDepthFactor(areaSlope, characteristicWidth);
-                subarea.evaluateFlowRate(identifier, rainfall, 0.0,
+            for (Subarea subarea : group.getKey()) {
+                subarea.evaluateFlowRates(identifiers, rainfall, 0.0,
                         currentTime, runoffSetup, areaSlope, characteristicWidth); //TODO evaporation!!
             }
         }
     }
 
+    /**
+     * Fixes the constants of every subarea for the slope and width of the area, once for the whole simulation.
+     */
+    private void prepare() {
+        Set<Subarea> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (List<Subarea> curveSubareas : subareas.values()) {
+            distinct.addAll(curveSubareas);
+        }
+        for (Subarea subarea : distinct) {
+            subarea.prepare(areaSlope, characteristicWidth);
+        }
+    }
+
+    /**
+     * Scenarios sharing the same subareas, which then carry the state of all of them and advance them together.
+     */
+    private Map<List<Subarea>, int[]> groupScenarios(Set<Integer> identifiers) {
+        Map<List<Subarea>, List<Integer>> grouped = new IdentityHashMap<>();
+        for (Integer identifier : identifiers) {
+            grouped.computeIfAbsent(subareas.get(identifier), list -> new ArrayList<>()).add(identifier);
+        }
+
+        Map<List<Subarea>, int[]> scenarios = new IdentityHashMap<>();
+        for (Map.Entry<List<Subarea>, List<Integer>> group : grouped.entrySet()) {
+            scenarios.put(group.getKey(), group.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        return scenarios;
+    }
+
     @Override
     public void setProjectUnits(ProjectUnits projectUnits) {
         this.projectUnits = projectUnits;
@@ -20,7 +20,6 @@ import com.github.geoframecomponents.jswmm.dataStructure.options.units.ProjectUn
 import com.github.geoframecomponents.jswmm.dataStructure.runoffDS.RunoffSetup;
 
 import java.time.Instant;
-import java.util.HashMap;
 import java.util.List;
 
 public class ImperviousWithStorage extends Subarea {
@@ -29,14 +28,15 @@ public class ImperviousWithStorage extends Subarea {
 
     public ImperviousWithStorage(Double imperviousWStorageArea, Double imperviousWOStorageArea,
                                  Double depressionStorageImpervious, Double roughnessCoefficient,
-                                 ProjectUnits projectUnits) {
+                                 ProjectUnits projectUnits, Instant startTime, Long runoffStepSize) {
         this(imperviousWStorageArea, imperviousWOStorageArea, depressionStorageImpervious,
-                roughnessCoefficient, null, null, projectUnits);
+                roughnessCoefficient, null, null, projectUnits, startTime, runoffStepSize);
     }
 
     public ImperviousWithStorage(Double imperviousWStorageArea, Double imperviousWOStorageArea,
                                  Double depressionStorageImpervious, Double roughnessCoefficient,
-                                 Double percentageRouted, List<Subarea> connections, ProjectUnits projectUnits) {
+                                 Double percentageRouted, List<Subarea> connections, ProjectUnits projectUnits,
+                                 Instant startTime, Long runoffStepSize) {
 
         this.subareaArea = imperviousWStorageArea;
         this.totalImperviousArea = imperviousWStorageArea + imperviousWOStorageArea;
@@ -45,10 +45,7 @@ public class ImperviousWithStorage extends Subarea {
         this.percentageRouted = percentageRouted;
         this.subareaConnections = connections;
 
-        this.totalDepth = new HashMap<>();
-        this.runoffDepth = new HashMap<>();
-        this.flowRate = new HashMap<>();
-        this.excessRainfall = new HashMap<>();
+        initializeSeries(startTime, runoffStepSize);
 
         this.projectUnits = projectUnits;
     }
@@ -77,7 +74,7 @@ public class ImperviousWithStorage extends Subarea {
     @Override
     Double getWeightedFlowRate(Integer identifier, Instant currentTime) {
 
-        double weightedFlowRate = flowRate.get(identifier).get(currentTime) * subareaArea * percentageRouted;
+        double weightedFlowRate = flowRate.get(identifier, currentTime) * subareaArea * percentageRouted;
 //        if (projectUnits.getProjectUnits() == CMS) {
 //            weightedFlowRate = weightedFlowRate * 1E3;      // [mm/s]
 //        }
@@ -91,9 +88,9 @@ public class ImperviousWithStorage extends Subarea {
         Long runoffStepSize = runoffSetup.getRunoffStepSize();
         Instant nextTime = currentTime.plusSeconds(runoffStepSize);
 
-        double totalDepthCurrent = totalDepth.get(id).get(currentTime);
-        double runoffDepthCurrent = runoffDepth.get(id).get(currentTime);
-        double areaFlowRateCurrent = getFlowRate().get(id).get(currentTime);
+        double totalDepthCurrent = totalDepth.get(id, currentTime);
+        double runoffDepthCurrent = runoffDepth.get(id, currentTime);
+        double areaFlowRateCurrent = getFlowRate().get(id, currentTime);
 
         Double moistureVolume = rainfall * runoffStepSize + totalDepthCurrent;
 
@@ -111,26 +108,25 @@ public class ImperviousWithStorage extends Subarea {
         else {
             if (getExcessRainfall(id) * runoffStepSize <= depressionStorage - totalDepthCurrent) {
 
-                setTotalDepth(id, nextTime, totalDepth.get(id).get(currentTime) +
+                setTotalDepth(id, nextTime, totalDepth.get(id, currentTime) +
                         getExcessRainfall(id) * runoffStepSize);
-                setRunoffDepth(id, nextTime, runoffDepth.get(id).get(currentTime) + 0.0);
-                setAreaFlowRate(id, nextTime, getFlowRate().get(id).get(currentTime) + 0.0);
+                setRunoffDepth(id, nextTime, runoffDepth.get(id, currentTime) + 0.0);
+                setAreaFlowRate(id, nextTime, getFlowRate().get(id, currentTime) + 0.0);
             } else {
                 runoffODEsolver(id, currentTime, nextTime, getExcessRainfall(id), runoffSetup);
                 setAreaFlowRate(id, nextTime, evaluateNextFlowRate(subareaSlope, characteristicWidth,
-                        runoffDepth.get(id).get(nextTime)));
+                        runoffDepth.get(id, nextTime)));
             }
         }
     }
 
     @Override
-    Double evaluateNextFlowRate(Double subareaSlope, Double characteristicWidth, Double currentDepth) {
+    double flowRateCoefficient(double subareaSlope, double characteristicWidth) {
         double unitsFactor = 1.0;
         if (projectUnits.getProjectUnits() == UnitsSWMM.CMS) {
             unitsFactor = 1E-6; //[mm/s]
         }
-
-        return unitsFactor * ( Math.sqrt(subareaSlope) * characteristicWidth *
-                Math.pow(currentDepth, 5.0/3.0) ) / (totalImperviousArea * roughnessCoefficient);
+        return unitsFactor * Math.sqrt(subareaSlope) * characteristicWidth /
+                (totalImperviousArea * roughnessCoefficient);
     }
 }
@@ -20,7 +20,6 @@ import com.github.geoframecomponents.jswmm.dataStructure.options.units.ProjectUn
 import com.github.geoframecomponents.jswmm.dataStructure.runoffDS.RunoffSetup;
 
 import java.time.Instant;
-import java.util.HashMap;
 import java.util.List;
 
 public class ImperviousWithoutStorage extends Subarea {
@@ -28,24 +27,23 @@ public class ImperviousWithoutStorage extends Subarea {
     Double totalImperviousArea;
 
     public ImperviousWithoutStorage(Double imperviousWStorageArea, Double imperviousWOStorageArea,
-                                    Double roughnessCoefficient, ProjectUnits projectUnits) {
+                                    Double roughnessCoefficient, ProjectUnits projectUnits,
+                                    Instant startTime, Long runoffStepSize) {
         this(imperviousWStorageArea, imperviousWOStorageArea, roughnessCoefficient,
-                null, null, projectUnits);
+                null, null, projectUnits, startTime, runoffStepSize);
     }
 
     public ImperviousWithoutStorage(Double imperviousWStorageArea, Double imperviousWOStorageArea,
                                     Double roughnessCoefficient, Double percentageRouted,
-                                    List<Subarea> connections, ProjectUnits projectUnits) {
+                                    List<Subarea> connections, ProjectUnits projectUnits,
+                                    Instant startTime, Long runoffStepSize) {
         this.subareaArea = imperviousWOStorageArea;
         this.totalImperviousArea = imperviousWStorageArea + imperviousWOStorageArea;
         this.roughnessCoefficient = roughnessCoefficient;
         this.percentageRouted = percentageRouted;
         this.subareaConnections = connections;
 
-        this.totalDepth = new HashMap<>();
-        this.runoffDepth = new HashMap<>();
-        this.flowRate = new HashMap<>();
-        this.excessRainfall = new HashMap<>();
+        initializeSeries(startTime, runoffStepSize);
         this.depressionStorage = 0.0;
 
         this.projectUnits = projectUnits;
@@ -75,7 +73,7 @@ public class ImperviousWithoutStorage extends Subarea {
 
     @Override
     Double getWeightedFlowRate(Integer identifier, Instant currentTime) {
-        double weightedFlowRate = flowRate.get(identifier).get(currentTime) * subareaArea * percentageRouted;
+        double weightedFlowRate = flowRate.get(identifier, currentTime) * subareaArea * percentageRouted;
         /*if (projectUnits.getProjectUnits() == CMS) {
             weightedFlowRate = weightedFlowRate * 1E10;      // [mm^3/s]
         }*/
@@ -88,32 +86,43 @@ public class ImperviousWithoutStorage extends Subarea {
 
         Long runoffStepSize = runoffSetup.getRunoffStepSize();
         Instant nextTime = currentTime.plusSeconds(runoffStepSize);
-        Double moistureVolume = rainfall * runoffStepSize + runoffDepth.get(id).get(currentTime);
+        Double moistureVolume = rainfall * runoffStepSize + runoffDepth.get(id, currentTime);
 
         if(evaporation != 0.0) {
-            evaporation = Math.max(evaporation, totalDepth.get(id).get(currentTime) / runoffStepSize);
+            evaporation = Math.max(evaporation, totalDepth.get(id, currentTime) / runoffStepSize);
         }
 
         setExcessRainfall(id, rainfall - evaporation);
 
         if(evaporation * runoffStepSize >= moistureVolume) {
-            setTotalDepth(id, nextTime, totalDepth.get(id).get(currentTime));
-            setRunoffDepth(id, nextTime, runoffDepth.get(id).get(currentTime));
-            setAreaFlowRate(id, nextTime, getFlowRate().get(id).get(currentTime));
+            setTotalDepth(id, nextTime, totalDepth.get(id, currentTime));
+            setRunoffDepth(id, nextTime, runoffDepth.get(id, currentTime));
+            setAreaFlowRate(id, nextTime, getFlowRate().get(id, currentTime));
         }
         else {
             runoffODEsolver(id, currentTime, nextTime, getExcessRainfall(id), runoffSetup);
             setAreaFlowRate( id, nextTime, evaluateNextFlowRate(subareaSlope, characteristicWidth,
-                    runoffDepth.get(id).get(nextTime)) );
+                    runoffDepth.get(id, nextTime)) );
         }
     }
 
-    Double evaluateNextFlowRate(Double subareaSlope, Double characteristicWidth, Double currentDepth) {
+    @Override
+    double moistureDepth(double totalDepth, double runoffDepth) {
+        return runoffDepth;
+    }
+
+    @Override
+    boolean hasDepressionStorage() {
+        return false;
+    }
+
+    @Override
+    double flowRateCoefficient(double subareaSlope, double characteristicWidth) {
         double unitsFactor = 1.0;
         if (projectUnits.getProjectUnits() == UnitsSWMM.CMS) {
             unitsFactor = 1E-6; //[mm/s]
         }
-        return unitsFactor * Math.pow(subareaSlope, 0.5) * characteristicWidth *
-                Math.pow(currentDepth, 5.0/3.0) / (totalImperviousArea * roughnessCoefficient);
+        return unitsFactor * Math.pow(subareaSlope, 0.5) * characteristicWidth /
+                (totalImperviousArea * roughnessCoefficient);
     }
 }
@@ -20,7 +20,6 @@ import com.github.geoframecomponents.jswmm.dataStructure.options.units.ProjectUn
 import com.github.geoframecomponents.jswmm.dataStructure.runoffDS.RunoffSetup;
 
 import java.time.Instant;
-import java.util.HashMap;
 import java.util.List;
 
 public class Pervious extends Subarea {
@@ -28,13 +27,15 @@ public class Pervious extends Subarea {
     Double infiltration = 0.0; //TODO temporary 0.0
 
     public Pervious(Double subareaArea, Double depressionStoragePervious,
-                    Double roughnessCoefficient, ProjectUnits projectUnits) {
+                    Double roughnessCoefficient, ProjectUnits projectUnits,
+                    Instant startTime, Long runoffStepSize) {
         this(subareaArea, depressionStoragePervious, roughnessCoefficient, null, null,
-                projectUnits);
+                projectUnits, startTime, runoffStepSize);
     }
 
     public Pervious(Double subareaArea, Double depressionStoragePervious, Double roughnessCoefficient,
-                    Double percentageRouted, List<Subarea> connections, ProjectUnits projectUnits) {
+                    Double percentageRouted, List<Subarea> connections, ProjectUnits projectUnits,
+                    Instant startTime, Long runoffStepSize) {
 
         this.subareaArea = subareaArea;
         this.depressionStorage = depressionStoragePervious;
@@ -42,10 +43,7 @@ public class Pervious extends Subarea {
         this.percentageRouted = percentageRouted;
         this.subareaConnections = connections;
 
-        this.totalDepth = new HashMap<>();
-        this.runoffDepth = new HashMap<>();
-        this.flowRate = new HashMap<>();
-        this.excessRainfall = new HashMap<>();
+        initializeSeries(startTime, runoffStepSize);
 
         this.projectUnits = projectUnits;
     }
@@ -71,7 +69,7 @@ public class Pervious extends Subarea {
 
     @Override
     Double getWeightedFlowRate(Integer identifier, Instant currentTime) {
-        double weightedFlowRate = flowRate.get(identifier).get(currentTime) * subareaArea * percentageRouted;
+        double weightedFlowRate = flowRate.get(identifier, currentTime) * subareaArea * percentageRouted;
 //        if (projectUnits.getProjectUnits() == CMS) {
 //            weightedFlowRate = weightedFlowRate * 1E10;      // [mm/s]
 //        }
@@ -86,9 +84,9 @@ public class Pervious extends Subarea {
 
         Instant nextTime = currentTime.plusSeconds(runoffStepSize);
 
-        double totalDepthCurrent = totalDepth.get(id).get(currentTime);
-        double runoffDepthCurrent = runoffDepth.get(id).get(currentTime);
-        double areaFlowRateCurrent = getFlowRate().get(id).get(currentTime);
+        double totalDepthCurrent = totalDepth.get(id, currentTime);
+        double runoffDepthCurrent = runoffDepth.get(id, currentTime);
+        double areaFlowRateCurrent = getFlowRate().get(id, currentTime);
 
         Double moistureVolume = rainfall * runoffStepSize + totalDepthCurrent;
 
@@ -106,25 +104,26 @@ public class Pervious extends Subarea {
             setAreaFlowRate(id, nextTime, areaFlowRateCurrent);
         }
         else {
-            if (excessRainfall.get(id) * runoffStepSize <= depressionStorage - totalDepth.get(id).get(currentTime)) {
+            if (excessRainfall.get(id) * runoffStepSize <= depressionStorage - totalDepth.get(id, currentTime)) {
                 setTotalDepth(id, nextTime, totalDepthCurrent + getExcessRainfall(id) * runoffStepSize);
                 setRunoffDepth(id, nextTime, runoffDepthCurrent);
                 setAreaFlowRate(id, nextTime, areaFlowRateCurrent);
             } else {
                 runoffODEsolver(id, currentTime, nextTime, getExcessRainfall(id), runoffSetup);
                 setAreaFlowRate(id, nextTime, evaluateNextFlowRate(subareaSlope, characteristicWidth,
-                        runoffDepth.get(id).get(nextTime)));
+                        runoffDepth.get(id, nextTime)));
 
             }
         }
     }
 
-    Double evaluateNextFlowRate(Double subareaSlope, Double characteristicWidth, Double currentDepth) {
+    @Override
+    double flowRateCoefficient(double subareaSlope, double characteristicWidth) {
         double unitsFactor = 1.0;
         if (projectUnits.getProjectUnits() == UnitsSWMM.CMS) {
             unitsFactor = 1E-6; //[mm/s]
         }
-        return unitsFactor * Math.pow(subareaSlope, 0.5) * characteristicWidth *
-                Math.pow(currentDepth, 5.0/3.0) / (subareaArea * roughnessCoefficient);
+        return unitsFactor * Math.pow(subareaSlope, 0.5) * characteristicWidth /
+                (subareaArea * roughnessCoefficient);
     }
 }
@@ -15,14 +15,22 @@
 
 package com.github.geoframecomponents.jswmm.dataStructure.hydrology.subcatchment;
 
+import com.github.geoframecomponents.jswmm.dataStructure.options.ManningPowers;
 import com.github.geoframecomponents.jswmm.dataStructure.options.units.ProjectUnits;
 import com.github.geoframecomponents.jswmm.dataStructure.runoffDS.RunoffSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import com.github.geoframecomponents.jswmm.metrics.Counter;
+import com.github.geoframecomponents.jswmm.metrics.Metrics;
 
+import java.nio.ByteBuffer;
 import java.time.Instant;
-import java.util.*;
+import java.util.HashMap;
+import java.util.List;
 
 public abstract class Subarea {
 
+    private static final Counter STEPS = Metrics.counter("runoff.steps");
+
     ProjectUnits projectUnits;
 
     Double subareaArea;
@@ -33,31 +41,36 @@ public abstract class Subarea {
 
     List<Subarea> subareaConnections;
 
-    HashMap<Integer, LinkedHashMap<Instant, Double>> totalDepth;    //[mm]
-    HashMap<Integer, LinkedHashMap<Instant, Double>> runoffDepth;   //[mm]
-    HashMap<Integer, LinkedHashMap<Instant, Double>> flowRate;      //[mm/s]
+    TimeSeries totalDepth;    //[mm]
+    TimeSeries runoffDepth;   //[mm]
+    TimeSeries flowRate;      //[mm/s]
     HashMap<Integer, Double> excessRainfall;
 
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> getFlowRate() {
+    private boolean prepared;
+    private double preparedFlowRateCoefficient;
+
+    private double[] totalDepthState = new double[0];
+    private double[] runoffDepthState = new double[0];
+    private double[] flowRateState = new double[0];
+    private double[] excessRainfallState = new double[0];
+
+    void initializeSeries(Instant startTime, Long runoffStepSize) {
+        this.totalDepth = new TimeSeries(startTime, runoffStepSize);
+        this.runoffDepth = new TimeSeries(startTime, runoffStepSize);
+        this.flowRate = new TimeSeries(startTime, runoffStepSize);
+        this.excessRainfall = new HashMap<>();
+    }
+
+    public TimeSeries getFlowRate() {
         return flowRate;
     }
 
     public void setTotalDepth(Integer id, Instant time, Double depthValue) {
-        if (!totalDepth.containsKey(id)) {
-            totalDepth.put(id, new LinkedHashMap<>());
-        }
-        LinkedHashMap<Instant, Double> oldLHM = totalDepth.get(id);
-        oldLHM.put(time, depthValue);
-        totalDepth.put(id, oldLHM);
+        totalDepth.set(id, time, depthValue);
     }
 
     public void setRunoffDepth(Integer id, Instant time, Double depthValue) {
-        if (!runoffDepth.containsKey(id)) {
-            runoffDepth.put(id, new LinkedHashMap<>());
-        }
-        LinkedHashMap<Instant, Double> oldLHM = runoffDepth.get(id);
-        oldLHM.put(time, depthValue);
-        runoffDepth.put(id, oldLHM);
+        runoffDepth.set(id, time, depthValue);
     }
 
     public void setAreaFlowRate(Integer id, Instant time, Double flowValue) { //[mm/s]
@@ -65,12 +78,7 @@ public abstract class Subarea {
 //        if ( projectUnits.getProjectUnits() == CMS ) {
 //            unitsFactor = 1.0E-5;
 //        }
-        if (!flowRate.containsKey(id)) {
-            flowRate.put(id, new LinkedHashMap<>());
-        }
-        LinkedHashMap<Instant, Double> oldLHM = flowRate.get(id);
-        oldLHM.put(time, flowValue * unitsFactor);
-        flowRate.put(id, oldLHM);
+        flowRate.set(id, time, flowValue * unitsFactor);
     }
 
     public void setExcessRainfall(Integer id, Double value) {
@@ -102,24 +110,158 @@ public abstract class Subarea {
                 subareaSlope, characteristicWidth);
     }
 
+    /**
+     * Advances many scenarios by one runoff step together, with the same outcome of {@link #evaluateFlowRate}
+     * for each one. The state of the scenarios at the current step is gathered in contiguous vectors, updated
+     * in a single loop and written back at the next step, so the axis and parameters are looked up once.
+     * <p>
+     * The depth factor and the flow rate coefficient are those fixed by {@link #prepare}. The excess rainfall
+     * stays in the state vectors, so {@link #getExcessRainfall} only reflects the scalar path.
+     */
+    public void evaluateFlowRates(int[] identifiers, double[] rainfall, double evaporation, Instant currentTime,
+                                  RunoffSetup runoffSetup, Double subareaSlope, Double characteristicWidth) {
+        if (!prepared) {
+            throw new IllegalStateException("Subarea constants not prepared");
+        }
+        STEPS.add(identifiers.length);
+        if (subareaConnections != null) {
+            for (int scenario = 0; scenario < identifiers.length; scenario++) {
+                evaluateFlowRate(identifiers[scenario], rainfall[scenario], evaporation, currentTime,
+                        runoffSetup, subareaSlope, characteristicWidth);
+            }
+            return;
+        }
+
+        int scenarios = identifiers.length;
+        if (totalDepthState.length < scenarios) {
+            totalDepthState = new double[scenarios];
+            runoffDepthState = new double[scenarios];
+            flowRateState = new double[scenarios];
+            excessRainfallState = new double[scenarios];
+        }
+
+        int step = runoffDepth.indexOf(currentTime);
+        for (int scenario = 0; scenario < scenarios; scenario++) {
+            totalDepthState[scenario] = totalDepth.get(identifiers[scenario], step);
+            runoffDepthState[scenario] = runoffDepth.get(identifiers[scenario], step);
+            flowRateState[scenario] = flowRate.get(identifiers[scenario], step);
+        }
+
+        long runoffStepSize = runoffSetup.getRunoffStepSize();
+        double initialTime = currentTime.getEpochSecond();
+        double finalTime = currentTime.getEpochSecond() + runoffStepSize;
+        for (int scenario = 0; scenario < scenarios; scenario++) {
+            double currentTotal = totalDepthState[scenario];
+            double currentRunoff = runoffDepthState[scenario];
+
+            double losses = evaporation != 0.0 ? Math.max(evaporation, currentTotal / runoffStepSize) : evaporation;
+            double excess = rainfall[scenario] - losses;
+            excessRainfallState[scenario] = excess;
+
+            if (losses * runoffStepSize >= rainfall[scenario] * runoffStepSize +
+                    moistureDepth(currentTotal, currentRunoff)) {
+                continue;
+            }
+            if (hasDepressionStorage() && excess * runoffStepSize <= depressionStorage - currentTotal) {
+                totalDepthState[scenario] = currentTotal + excess * runoffStepSize;
+                continue;
+            }
+            double finalRunoff = runoffSetup.getRunoffMethod().integrate(excess, depthFactor, initialTime,
+                    currentRunoff, finalTime);
+            runoffDepthState[scenario] = finalRunoff;
+            totalDepthState[scenario] = currentTotal + (finalRunoff - currentRunoff);
+            flowRateState[scenario] = preparedFlowRateCoefficient * ManningPowers.fiveThirds(finalRunoff);
+        }
+
+        for (int scenario = 0; scenario < scenarios; scenario++) {
+            totalDepth.set(identifiers[scenario], step + 1, totalDepthState[scenario]);
+            runoffDepth.set(identifiers[scenario], step + 1, runoffDepthState[scenario]);
+            flowRate.set(identifiers[scenario], step + 1, flowRateState[scenario]);
+        }
+    }
+
+    /**
+     * Depth compared with the losses of a step to tell whether any water is left.
+     */
+    double moistureDepth(double totalDepth, double runoffDepth) {
+        return totalDepth;
+    }
+
+    /**
+     * Whether the excess rainfall fills the depression storage before running off.
+     */
+    boolean hasDepressionStorage() {
+        return true;
+    }
+
     abstract void evaluateNextStep(Integer identifier, Instant currentTime, RunoffSetup runoffSetup, Double rainfall,
                                    Double evaporation, Double subareaArea, Double characteristicWidth);
 
     void runoffODEsolver(Integer id, Instant currentTime, Instant nextTime, Double rainfall, RunoffSetup runoffSetup) {
-        double[] inputValues = new double[1];
-        inputValues[0] = runoffDepth.get(id).get(currentTime);
-        double[] outputValues = new double[1];
+        int step = runoffDepth.indexOf(currentTime);
+        double initialDepth = runoffDepth.get(id, step);
+
+        double finalDepth = runoffSetup.getRunoffMethod().integrate(rainfall, depthFactor,
+                currentTime.getEpochSecond(), initialDepth, nextTime.getEpochSecond());
+
+        runoffDepth.set(id, step + 1, finalDepth);
+        totalDepth.set(id, step + 1, totalDepth.get(id, step) + (finalDepth - initialDepth));
+    }
 
-        Double initialTime = (double) currentTime.getEpochSecond();
-        Double finalTime = (double) nextTime.getEpochSecond();
+    Double evaluateNextFlowRate(Double subareaSlope, Double characteristicWidth, Double currentDepth) {
+        return flowRateCoefficient(subareaSlope, characteristicWidth) * ManningPowers.fiveThirds(currentDepth);
+    }
 
-        runoffSetup.setOde(rainfall, depthFactor);
+    /**
+     * Fixes the depth factor and the coefficient of the flow rate for the given slope and width, which do not
+     * change during a simulation, here and in the connected subareas.
+     */
+    public void prepare(double subareaSlope, double characteristicWidth) {
+        if (subareaConnections != null) {
+            for (Subarea connection : subareaConnections) {
+                connection.prepare(subareaSlope, characteristicWidth);
+            }
+        }
+        setDepthFactor(subareaSlope, characteristicWidth);
+        preparedFlowRateCoefficient = flowRateCoefficient(subareaSlope, characteristicWidth);
+        prepared = true;
+    }
 
-        runoffSetup.getFirstOrderIntegrator().integrate(runoffSetup.getOde(), initialTime, inputValues,
-                finalTime, outputValues);
+    /**
+     * Writes the depths and the flow rate of a scenario at the given time, then those of the connected subareas.
+     */
+    public void saveState(int id, Instant time, ByteBuffer buffer) {
+        int step = runoffDepth.indexOf(time);
+        buffer.putDouble(totalDepth.get(id, step));
+        buffer.putDouble(runoffDepth.get(id, step));
+        buffer.putDouble(flowRate.get(id, step));
+        buffer.putInt(subareaConnections != null ? subareaConnections.size() : 0);
+        if (subareaConnections != null) {
+            for (Subarea connection : subareaConnections) {
+                connection.saveState(id, time, buffer);
+            }
+        }
+    }
 
-        setRunoffDepth(id, nextTime, outputValues[0]);
-        setTotalDepth(id, nextTime, totalDepth.get(id).get(currentTime) + (outputValues[0]-inputValues[0]));
+    /**
+     * Reads what {@link #saveState} wrote back as the state of a scenario at the given time.
+     */
+    public void restoreState(int id, Instant time, ByteBuffer buffer) {
+        int step = runoffDepth.indexOf(time);
+        totalDepth.set(id, step, buffer.getDouble());
+        runoffDepth.set(id, step, buffer.getDouble());
+        flowRate.set(id, step, buffer.getDouble());
+        int connections = buffer.getInt();
+        if (connections != (subareaConnections != null ? subareaConnections.size() : 0)) {
+            throw new IllegalArgumentException("Saved state has " + connections + " connected subareas");
+        }
+        for (int connection = 0; connection < connections; connection++) {
+            subareaConnections.get(connection).restoreState(id, time, buffer);
+        }
     }
 
-    abstract Double evaluateNextFlowRate(Double subareaSlope, Double characteristicWidth, Double currentDepth);}
+    /**
+     * Flow rate over the depth to the 5/3, from Manning equation
+     */
+    abstract double flowRateCoefficient(double subareaSlope, double characteristicWidth);
+}
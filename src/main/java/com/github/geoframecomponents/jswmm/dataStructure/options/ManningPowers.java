@@ -0,0 +1,92 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.dataStructure.options;
+
+/**
+ * The x^(5/3) and x^(2/3) powers of the Manning equation.
+ * <p>
+ * By default they are Math.pow. Once switched to fast mode, positive normal arguments go through a cubic root
+ * computed with a bit level first guess refined by three Halley iterations, and then
+ * x^(5/3) = x * cbrt(x)^2 and x^(2/3) = cbrt(x)^2. For arguments between 1e-12 and 1e12 the relative error
+ * with respect to Math.pow stays within {@link #MAXIMUM_RELATIVE_ERROR}; farther away Math.pow itself drifts
+ * from the exact power, since 5/3 and 2/3 are not exact doubles. Zero, negative, subnormal and non finite
+ * arguments always use Math.pow.
+ */
+public final class ManningPowers {
+
+    public static final double MAXIMUM_RELATIVE_ERROR = 1.0e-14;
+
+    private static final double FIVE_THIRDS = 5.0 / 3.0;
+    private static final double TWO_THIRDS = 2.0 / 3.0;
+
+    /**
+     * Added to a third of the bits to get the bits of a cubic root within a few percent
+     */
+    private static final long CUBIC_ROOT_BIAS = 0x2A9F7893782DA1CEL;
+
+    private static volatile boolean fast = false;
+
+    private ManningPowers() {
+    }
+
+    public static boolean isFast() {
+        return fast;
+    }
+
+    public static void setFast(boolean fast) {
+        ManningPowers.fast = fast;
+    }
+
+    public static double fiveThirds(double x) {
+        return fast ? fastFiveThirds(x) : Math.pow(x, FIVE_THIRDS);
+    }
+
+    public static double twoThirds(double x) {
+        return fast ? fastTwoThirds(x) : Math.pow(x, TWO_THIRDS);
+    }
+
+    public static double fastFiveThirds(double x) {
+        if (!isNormal(x)) {
+            return Math.pow(x, FIVE_THIRDS);
+        }
+        double root = cubicRoot(x);
+        return x * (root * root);
+    }
+
+    public static double fastTwoThirds(double x) {
+        if (!isNormal(x)) {
+            return Math.pow(x, TWO_THIRDS);
+        }
+        double root = cubicRoot(x);
+        return root * root;
+    }
+
+    private static boolean isNormal(double x) {
+        return x >= Double.MIN_NORMAL && x <= Double.MAX_VALUE;
+    }
+
+    /**
+     * Cubic root of a positive normal number
+     */
+    private static double cubicRoot(double x) {
+        double root = Double.longBitsToDouble(Double.doubleToRawLongBits(x) / 3 + CUBIC_ROOT_BIAS);
+        for (int iteration = 0; iteration < 3; iteration++) {
+            double cube = root * root * root;
+            root *= (cube + 2.0 * x) / (2.0 * cube + x);
+        }
+        return root;
+    }
+}
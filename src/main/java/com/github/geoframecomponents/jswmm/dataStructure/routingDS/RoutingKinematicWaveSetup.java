@@ -13,283 +13,168 @@
  *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 
-//package org.altervista.growworkinghard.jswmm.dataStructure.routingDS;
-//
-//import OutsideSetup;
-//import CrossSectionType;
-//import org.apache.commons.math3.analysis.interpolation.LinearInterpolator;
-//import org.apache.commons.math3.analysis.polynomials.PolynomialSplineFunction;
-//
-//import java.time.Instant;
-//import java.util.LinkedHashMap;
-//import java.util.LinkedList;
-//import java.util.List;
+package com.github.geoframecomponents.jswmm.dataStructure.routingDS;
 
-//public class RoutingKinematicWaveSetup implements RoutingSetup {
-//
-//    private final Long routingStepSize;
-//
-//    private final Integer referenceTableLength;
-//    private final List<ChowTable> relationsTable = new LinkedList<>();
-//
-//    private final Double iota;
-//    private final Double phi;
-//
-//    private final Double tolerance;
-//    private Double lowerBound;
-//    private Double upperBound;
-//
-//    public RoutingKinematicWaveSetup(Long routingStepSize, Integer referenceTableLength, Double iota,
-//                                     Double phi, Double tolerance) {
-//        this.routingStepSize = routingStepSize;
-//        this.referenceTableLength = referenceTableLength;
-//        this.iota = iota;
-//        this.phi = phi;
-//        this.tolerance = tolerance;
-//        fillTables();
-//    }
-//
-//    public RoutingKinematicWaveSetup(Long routingStepSize, Double tolerance) {
-//        this.routingStepSize = routingStepSize;
-//        this.referenceTableLength = 180;
-//        this.tolerance = tolerance;
-//        this.iota = 0.6;
-//        this.phi = 0.6;
-//        fillTables();
-//    }
-//
-//    private void fillTables() {
-//        for(int i = 0; i <= referenceTableLength; i++) {
-//            Double theta = 2*i*Math.PI/180;
-//            if (theta == 0.0) {
-//                relationsTable.add(new ChowTable(0.0,0.0));
-//            }
-//            else {
-//                relationsTable.add(new ChowTable((theta-Math.sin(theta))/(2*Math.PI),
-//                        Math.pow((theta-Math.sin(theta)), 5.0/3.0) / (2 * Math.PI * Math.pow(theta, 2.0/3.0))));
-//            }
-//        }
-//    }
-//
-//    @Override
-//    public Long getRoutingStepSize() {
-//        return routingStepSize;
-//    }
-//
-//    @Override
-//    public void evaluateFlowRate(Integer id, Instant currentTime, OutsideSetup upstreamOutside,
-//                                 OutsideSetup downstreamOutside, Double linkLength, Double linkRoughness,
-//                                 Double linkSlope, CrossSectionType crossSectionType) {
-//
-//        Instant nextTime = currentTime.plusSeconds(routingStepSize);
-//
-//        LinkedHashMap<Instant, Double> upFlowRate = upstreamOutside.getStreamFlowRate().get(id);
-//        LinkedHashMap<Instant, Double> downFlowRate = new LinkedHashMap<>();
-//        for (Instant time : upFlowRate.keySet()) {
-//            downFlowRate.put(time, 0.0);
-//        }
-//
-//        LinkedHashMap<Instant, Double> upWetArea = upstreamOutside.getStreamWetArea().get(id);
-//        LinkedHashMap<Instant, Double> downWetArea = new LinkedHashMap<>();
-//        for (Instant time : upWetArea.keySet()) {
-//            downWetArea.put(time, 0.0);
-//        }
-//
-//        final Double beta = Math.sqrt(linkSlope) / linkRoughness;
-//
-//        //A1(t+dt)
-//        upWetArea.put(nextTime, sectionFactorToArea( upFlowRate.get(nextTime)/beta ));
-//
-//        final Double constantOne = linkLength / phi * iota / routingStepSize;
-//        final Double constantTwo = linkLength / (phi * routingStepSize) * ((1 - iota) * (upWetArea.get(nextTime) - upWetArea.get(currentTime)) -
-//                iota * downWetArea.get(currentTime)) + (1 - phi) / phi * (downFlowRate.get(currentTime) - upFlowRate.get(currentTime))-
-//                upFlowRate.get(nextTime);
-//
-//        Double Amax = crossSectionType.getAreaMax();
-//        Double Afull = crossSectionType.getAreaFull();
-//
-//        final Double functionMax = functionValue(Amax, beta, constantOne, constantTwo);
-//        final Double functionFull = functionValue(Afull, beta, constantOne, constantTwo);
-//
-//        Boolean validBounds = setBounds(Afull, Amax, crossSectionType.getAlwaysIncrease(), functionMax, functionFull);
-//
-//        //A2(t+dt)
-//        if (validBounds) {
-//            //Newton-Raphson
-//            downstreamOutside.setWetArea(id, nextTime,
-//                    streamWetArea(downstreamOutside.getStreamWetArea().get(id).get(currentTime), crossSectionType, beta, constantOne, constantTwo));
-//        }
-//        else {
-//            if (functionMax > 0) {
-//                downstreamOutside.setWetArea(id, nextTime, 0.0);
-//            }
-//            else {
-//                downstreamOutside.setWetArea(id, nextTime, Afull);
-//            }
-//        }
-//
-//        //Q2(t+dt)
-//        downstreamOutside.setAreaFlowRate(id, nextTime,
-//                evaluateStreamFlowRate(downstreamOutside.getStreamWetArea().get(id).get(nextTime), beta));
-//    }
-//
-//    private Double streamWetArea(Double downstreamWetArea, CrossSectionType crossSectionType, Double beta, Double constantOne, Double constantTwo) {
-//
-//        if (lowerBound > downstreamWetArea || upperBound < downstreamWetArea) {
-//            downstreamWetArea = (lowerBound + upperBound) / 2;
-//        }
-//
-//        Double tmpFunctionValue = functionValue(downstreamWetArea, beta, constantOne, constantTwo);
-//        Double tmpDerivateFunctionValue = derivatedFunction(crossSectionType,
-//                evaluateTheta(downstreamWetArea, crossSectionType), beta, constantOne);
-//
-//        return iterativeWetArea(downstreamWetArea, tmpFunctionValue, tmpDerivateFunctionValue, crossSectionType, beta, constantOne, constantTwo);
-//    }
-//
-//    private Double iterativeWetArea(Double area, Double function, Double derivate, CrossSectionType crossSectionType, Double beta, Double constantOne, Double constantTwo) {
-//
-//        Double deltaArea = Math.abs(upperBound - lowerBound);
-//
-//        if ( ((area - upperBound) * derivate - function) * ((area - lowerBound) * derivate - function) >= 0 ||
-//                Math.abs(2 * function) > Math.abs(deltaArea * derivate) ){
-//
-//            deltaArea = 0.5 * (upperBound - lowerBound);
-//            area = lowerBound + deltaArea;
-//        }
-//        else {
-//            deltaArea = function / derivate;
-//            area -= deltaArea;
-//        }
-//
-//        if (Math.abs(deltaArea) < tolerance) {
-//            return area;
-//        }
-//        else {
-//            Double newFunctionValue = functionValue(area, beta, constantOne, constantTwo);
-//            Double newDerivatedFctValue = derivatedFunction(crossSectionType,
-//                    evaluateTheta(area, crossSectionType), beta, constantOne);
-//            if (newFunctionValue < 0) {
-//                lowerBound = area;
-//            }
-//            else {
-//                upperBound = area;
-//            }
-//            return iterativeWetArea(area, newFunctionValue, newDerivatedFctValue, crossSectionType, beta, constantOne, constantTwo);
-//        }
-//    }
-//
-//    private Double derivatedFunction(CrossSectionType crossSectionType, Double theta, Double beta, Double constantOne) {
-//        return beta * crossSectionType.derivatedSectionFactor(theta) + constantOne;
-//    }
-//
-//    private Boolean setBounds(Double Afull, Double Amax, Boolean alwaysIncrease, Double functionMax, Double functionFull) {
-//
-//        if (functionMax*functionFull < 0) {
-//            if (functionMax > functionFull) {
-//                lowerBound = Afull;
-//                upperBound = Amax;
-//            }
-//            else {
-//                lowerBound = Afull;
-//                upperBound = Amax;
-//            }
-//            return true;
-//        }
-//        else {
-//            if (alwaysIncrease) {
-//                lowerBound = 0.0;
-//                upperBound = Afull;
-//            }
-//            else  {
-//                lowerBound = 0.0;
-//                upperBound = Amax;
-//            }
-//            return false;
-//        }
-//    }
-//
-//    private Double functionValue(Double area, Double beta, Double constantOne, Double constantTwo) {
-//        return beta * areaToSectionFactor(area) + constantOne * area + constantTwo;
-//    }
-//
-//    private Double evaluateStreamFlowRate(Double wetArea, Double beta) {
-//        return areaToSectionFactor(wetArea) * beta;
-//    }
-//
-//    private Double sectionFactorToArea(Double sectionFactor) {
-//
-//        if (sectionFactor == 0.0) {
-//            return 0.0;
-//        }
-//        else {
-//            int elementCounter = 0;
-//            Double lowerSFValue = relationsTable.get(elementCounter).adimensionalSectionFactor;
-//            Double upperSFValue = null;
-//
-//            for (ChowTable element : relationsTable) {
-//                if (element.getAdimensionalSectionFactor() < sectionFactor) {
-//                    lowerSFValue = element.adimensionalSectionFactor;
-//                    elementCounter++;
-//                }
-//                else {
-//                    upperSFValue = element.adimensionalSectionFactor;
-//                    break;
-//                }
-//            }
-//            double[] x = {lowerSFValue, upperSFValue};
-//            double[] y = {relationsTable.get(elementCounter-1).getAdimensionalArea(),
-//                    relationsTable.get(elementCounter).getAdimensionalArea()};
-//
-//            // return linear interpolation of (x,y) on sectionFactor
-//            LinearInterpolator interpolator = new LinearInterpolator();
-//            PolynomialSplineFunction psf = interpolator.interpolate(x, y);
-//            return psf.value(sectionFactor);
-//        }
-//    }
-//
-//    private Double areaToSectionFactor(Double area) {
-//
-//        if (area == 0.0) {
-//            return 0.0;
-//        }
-//        else {
-//            int elementCounter = 0;
-//            Double lowerArea = relationsTable.get(elementCounter).adimensionalArea;
-//            Double upperArea = null;
-//
-//            for (ChowTable element : relationsTable) {
-//                if (element.getAdimensionalArea() < area) {
-//                    lowerArea = element.adimensionalArea;
-//                    elementCounter++;
-//                }
-//                else {
-//                    upperArea = element.adimensionalArea;
-//                    break;
-//                }
-//            }
-//            double[] x = {lowerArea, upperArea};
-//            double[] y = {relationsTable.get(elementCounter-1).getAdimensionalSectionFactor(),
-//                    relationsTable.get(elementCounter).getAdimensionalSectionFactor()};
-//
-//            // return linear interpolation of (x,y) on sectionFactor
-//            LinearInterpolator interpolator = new LinearInterpolator();
-//            PolynomialSplineFunction psf = interpolator.interpolate(x, y);
-//            return psf.value(area);
-//        }
-//    }
-//
-//    private Double evaluateTheta(Double area, CrossSectionType crossSectionType) {
-//
-//        Double adimensionalArea = area / crossSectionType.getAreaFull();
-//        Double tempTheta;
-//        Double deltaTheta;
-//
-//        tempTheta = 0.031715 - 12.79384*adimensionalArea + 8.28479*Math.sqrt(adimensionalArea);
-//        do {
-//            deltaTheta = 2 * Math.PI * adimensionalArea - (tempTheta - Math.sin(tempTheta)) / (1 - Math.cos(tempTheta));
-//            tempTheta += deltaTheta;
-//        } while (Math.abs(deltaTheta) > 0.0001);
-//
-//        return tempTheta;
-//    }
-//}
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.OutsideSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.CrossSectionType;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.ShapeGeometry;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import com.github.geoframecomponents.jswmm.metrics.Histogram;
+import com.github.geoframecomponents.jswmm.metrics.Metrics;
+
+import java.time.Instant;
+
+/**
+ * Kinematic wave routing as in SWMM5: the continuity equation over the link is discretized with a four point
+ * scheme weighted by iota in time and phi in space, and the downstream wet area solves
+ * s(a2) + C1 * a2 + C2 = 0 with a safeguarded Newton-Raphson iteration on the tables of the link's shape. Areas
+ * are normalized by the full area and flows by the full flow, so the normalized flow equals the section factor s.
+ * <p>
+ * The state of each step is read from and written to the link's outside setups, so one setup can route any link;
+ * at the restart time of a checkpoint the downstream state read back is kept.
+ */
+public class RoutingKinematicWaveSetup implements RoutingSetup {
+
+    private static final int MAX_ITERATIONS = 100;
+
+    private static final Histogram CONTINUITY_ITERATIONS = Metrics.histogram("routing.continuityIterations");
+
+    private final Long routingStepSize;
+
+    private final int referenceTableLength;
+
+    private final double iota;
+    private final double phi;
+
+    /**
+     * Convergence tolerance on the normalized wet area
+     */
+    private final double tolerance;
+
+    public RoutingKinematicWaveSetup(Long routingStepSize, Integer referenceTableLength, Double iota,
+                                     Double phi, Double tolerance) {
+        this.routingStepSize = routingStepSize;
+        if (referenceTableLength == null || referenceTableLength < 1) {
+            throw new IllegalArgumentException("Reference table length must be positive: " + referenceTableLength);
+        }
+        this.referenceTableLength = referenceTableLength;
+        this.iota = iota;
+        this.phi = phi;
+        this.tolerance = tolerance;
+    }
+
+    public RoutingKinematicWaveSetup(Long routingStepSize, Double tolerance) {
+        this(routingStepSize, 180, 0.6, 0.6, tolerance);
+    }
+
+    @Override
+    public RoutedFlow routeFlowRate(Integer id, Instant currentTime, double upstreamFlow, OutsideSetup upstreamOutside,
+                                    OutsideSetup downstreamOutside, Double linkLength, Double linkRoughness,
+                                    Double linkSlope, CrossSectionType crossSectionType) {
+
+        double dischargeFull = crossSectionType.getDischargeFull(linkRoughness, linkSlope);
+        double areaFull = crossSectionType.getAreaFull();
+        ShapeGeometry geometry = crossSectionType.getGeometry(referenceTableLength);
+
+        //A1(t+dt) from the normal flow of the inflow
+        double upstreamNewFlow = upstreamFlow / dischargeFull;
+        double upstreamNewArea = geometry.getAreaOfSectionFactor(upstreamNewFlow);
+        upstreamOutside.setWetArea(id, currentTime, upstreamNewArea * areaFull);
+
+        if (downstreamOutside.isRestartedAt(currentTime)) {
+            return new RoutedFlow(currentTime, downstreamOutside.getStreamFlowRate().get(id, currentTime));
+        }
+
+        TimeSeries upstreamFlowRate = upstreamOutside.getStreamFlowRate();
+        int step = upstreamFlowRate.indexOf(currentTime);
+
+        double downstreamNewArea;
+        if (step == 0) {
+            // steady initial state
+            downstreamNewArea = upstreamNewArea;
+        }
+        else {
+            double upstreamOldFlow = upstreamFlowRate.get(id, step - 1) / dischargeFull;
+            double upstreamOldArea = upstreamOutside.getStreamWetArea().get(id, step - 1) / areaFull;
+            int downstreamStep = downstreamOutside.getStreamFlowRate().indexOf(currentTime) - 1;
+            double downstreamOldFlow = downstreamOutside.getStreamFlowRate().get(id, downstreamStep) / dischargeFull;
+            double downstreamOldArea = downstreamOutside.getStreamWetArea().get(id, downstreamStep) / areaFull;
+
+            double dxdt = linkLength / routingStepSize * areaFull / dischargeFull;
+            double constantOne = dxdt * iota / phi;
+            double constantTwo = dxdt / phi * ((1 - iota) * (upstreamNewArea - upstreamOldArea) -
+                    iota * downstreamOldArea) + (1 - phi) / phi * (downstreamOldFlow - upstreamOldFlow) -
+                    upstreamNewFlow;
+
+            //A2(t+dt)
+            downstreamNewArea = solveContinuity(geometry, constantOne, constantTwo,
+                    crossSectionType.getAlwaysIncrease(), downstreamOldArea);
+        }
+        downstreamOutside.setWetArea(id, currentTime, downstreamNewArea * areaFull);
+
+        //Q2(t+dt)
+        return new RoutedFlow(currentTime, geometry.getSectionFactorOfArea(downstreamNewArea) * dischargeFull);
+    }
+
+    /**
+     * Root of s(a) + constantOne * a + constantTwo, bracketed between the empty and the maximum section.
+     */
+    private double solveContinuity(ShapeGeometry geometry, double constantOne, double constantTwo,
+                                   boolean alwaysIncrease, double guess) {
+
+        double lowerBound = 0.0;
+        double upperBound = alwaysIncrease ? 1.0 : geometry.getAreaAtMaximumSectionFactor();
+
+        if (constantTwo >= 0.0) {
+            CONTINUITY_ITERATIONS.record(0);
+            return 0.0;
+        }
+        if (continuity(geometry, upperBound, constantOne, constantTwo) <= 0.0) {
+            CONTINUITY_ITERATIONS.record(0);
+            return upperBound;
+        }
+
+        double area = guess > lowerBound && guess < upperBound ? guess : 0.5 * (lowerBound + upperBound);
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double function = continuity(geometry, area, constantOne, constantTwo);
+            if (function == 0.0) {
+                CONTINUITY_ITERATIONS.record(iteration + 1);
+                return area;
+            }
+            if (function < 0.0) {
+                lowerBound = area;
+            }
+            else {
+                upperBound = area;
+            }
+
+            double derivative = geometry.getSectionFactorDerivative(area) + constantOne;
+            double nextArea = area - function / derivative;
+            if (!(nextArea > lowerBound && nextArea < upperBound)) {
+                nextArea = 0.5 * (lowerBound + upperBound);
+            }
+            if (Math.abs(nextArea - area) < tolerance) {
+                CONTINUITY_ITERATIONS.record(iteration + 1);
+                return nextArea;
+            }
+            area = nextArea;
+        }
+        CONTINUITY_ITERATIONS.record(MAX_ITERATIONS);
+        return area;
+    }
+
+    private double continuity(ShapeGeometry geometry, double area, double constantOne, double constantTwo) {
+        return geometry.getSectionFactorOfArea(area) + constantOne * area + constantTwo;
+    }
+
+    @Override
+    public Long adaptTimeDelay(Long routingStepSize, Long timeDelay) {
+        long temp = timeDelay / routingStepSize;
+        return temp * routingStepSize;
+    }
+
+    @Override
+    public Long getRoutingStepSize() {
+        return routingStepSize;
+    }
+}
@@ -17,6 +17,7 @@ package com.github.geoframecomponents.jswmm.dataStructure.routingDS;
 
 import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.OutsideSetup;
 import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.CrossSectionType;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.ShapeGeometry;
 
 import java.time.Instant;
 
@@ -24,11 +25,14 @@ public class RoutingSteadySetup implements RoutingSetup {
 
     private final Long routingStepSize;
 
-    private SWMMroutingTools routingTools;
+    private final int referenceTableLength;
 
     public RoutingSteadySetup(Long routingStepSize, Integer referenceTableLength) {
         this.routingStepSize = routingStepSize;
-        this.routingTools = new SWMMroutingTools(referenceTableLength);
+        if (referenceTableLength == null || referenceTableLength < 1) {
+            throw new IllegalArgumentException("Reference table length must be positive: " + referenceTableLength);
+        }
+        this.referenceTableLength = referenceTableLength;
     }
 
     public RoutingSteadySetup(Long routingStepSize) {
@@ -36,7 +40,7 @@ public class RoutingSteadySetup implements RoutingSetup {
     }
 
     @Override
-    public RoutedFlow routeFlowRate(Integer id, Instant currentTime, double upstreamFlow,
+    public RoutedFlow routeFlowRate(Integer id, Instant currentTime, double upstreamFlow, OutsideSetup upstreamOutside,
                                     OutsideSetup downstreamOutside, Double linkLength, Double linkRoughness,
                                     Double linkSlope, CrossSectionType crossSectionType) {
 
@@ -46,7 +50,8 @@ public class RoutingSteadySetup implements RoutingSetup {
         final Double beta = (Math.sqrt(linkSlope) * linkRoughness) / dischargeFull; //with Gs as linkRoughness
 
         double currentFlow = upstreamFlow / dischargeFull;
-        double area = routingTools.sectionFactorToArea(currentFlow / beta) * Afull;
+        ShapeGeometry geometry = crossSectionType.getGeometry(referenceTableLength);
+        double area = geometry.getAreaOfSectionFactor(currentFlow / beta) * Afull;
         double celerity = currentFlow * dischargeFull / area;
         Long timeDelay = (long) (linkLength / celerity);
         Long timeDelayLong = adaptTimeDelay(routingStepSize, timeDelay);
@@ -15,8 +15,7 @@
 
 package com.github.geoframecomponents.jswmm.dataStructure.runoffDS;
 
-import org.apache.commons.math3.ode.FirstOrderDifferentialEquations;
-import org.apache.commons.math3.ode.FirstOrderIntegrator;
+import com.github.geoframecomponents.jswmm.runoff.AbstractRunoffMethod;
 
 import java.time.Instant;
 
@@ -28,11 +27,7 @@ public interface RunoffSetup {
 
     public Long getRunoffStepSize();
 
-    public FirstOrderIntegrator getFirstOrderIntegrator();
-
-    public FirstOrderDifferentialEquations getOde();
-
-    public void setOde(Double rainfall, Double depthFactor);
+    public AbstractRunoffMethod getRunoffMethod();
 
     public Double getMinimumStepSize();
 
@@ -15,11 +15,11 @@
 
 package com.github.geoframecomponents.jswmm.dataStructure.runoffDS;
 
-import com.github.geoframecomponents.jswmm.runoff.RunoffODE;
+import com.github.geoframecomponents.jswmm.runoff.AbstractRunoffMethod;
+import com.github.geoframecomponents.jswmm.runoff.DormandPrince54;
+import com.github.geoframecomponents.jswmm.runoff.NonlinearReservoir;
+import com.github.geoframecomponents.jswmm.runoff.OdeMethod;
 import com.github.geoframecomponents.jswmm.dataStructure.options.units.ProjectUnits;
-import org.apache.commons.math3.ode.FirstOrderDifferentialEquations;
-import org.apache.commons.math3.ode.FirstOrderIntegrator;
-import org.apache.commons.math3.ode.nonstiff.DormandPrince54Integrator;
 
 import java.time.Instant;
 
@@ -38,11 +38,19 @@ public class SWMM5RunoffSetup implements RunoffSetup {
     private Double absoluteRunoffTolerance;
     private Double relativeRunoffTolerance;
 
-    private FirstOrderDifferentialEquations ode = new RunoffODE();
+    private OdeMethod odeMethod;
+    private AbstractRunoffMethod runoffMethod;
 
     public SWMM5RunoffSetup(Instant initialTime, Instant totalTime, Long runoffStepSize, Double minimumStepSize,
                             Double maximumStepSize, Double absoluteRunoffTolerance, Double relativeRunoffTolerance,
                             ProjectUnits units) {
+        this(initialTime, totalTime, runoffStepSize, minimumStepSize, maximumStepSize, absoluteRunoffTolerance,
+                relativeRunoffTolerance, units, OdeMethod.DP54);
+    }
+
+    public SWMM5RunoffSetup(Instant initialTime, Instant totalTime, Long runoffStepSize, Double minimumStepSize,
+                            Double maximumStepSize, Double absoluteRunoffTolerance, Double relativeRunoffTolerance,
+                            ProjectUnits units, OdeMethod odeMethod) {
         this.initialTime = initialTime;
         this.totalTime = totalTime;
         this.runoffStepSize = runoffStepSize;
@@ -51,6 +59,21 @@ public class SWMM5RunoffSetup implements RunoffSetup {
         this.absoluteRunoffTolerance = absoluteRunoffTolerance;
         this.relativeRunoffTolerance = relativeRunoffTolerance;
         this.units = units;
+        this.odeMethod = odeMethod;
+        this.runoffMethod = createRunoffMethod(odeMethod);
+    }
+
+    private AbstractRunoffMethod createRunoffMethod(OdeMethod odeMethod) {
+        switch (odeMethod) {
+            case DP54:
+                return new DormandPrince54(minimumStepSize, maximumStepSize,
+                        absoluteRunoffTolerance, relativeRunoffTolerance);
+            case NONLINEAR_RESERVOIR:
+                return new NonlinearReservoir(minimumStepSize, maximumStepSize,
+                        absoluteRunoffTolerance, relativeRunoffTolerance);
+            default:
+                throw new IllegalArgumentException("Unsupported ODE method " + odeMethod);
+        }
     }
 
     @Override
@@ -85,23 +108,11 @@ public class SWMM5RunoffSetup implements RunoffSetup {
     }
 
     @Override
-    public FirstOrderIntegrator getFirstOrderIntegrator() {
-        String ODEintegrator = "DP54";
-
-        if(ODEintegrator == "DP54") {
-            return new DormandPrince54Integrator(minimumStepSize, maximumStepSize,
-                    absoluteRunoffTolerance, relativeRunoffTolerance);
-        }
-        return null;
-    }
-
-    @Override
-    public FirstOrderDifferentialEquations getOde() {
-        return ode;
+    public AbstractRunoffMethod getRunoffMethod() {
+        return runoffMethod;
     }
 
-    @Override
-    public void setOde(Double rainfall, Double depthFactor) {
-        this.ode = new RunoffODE(rainfall, depthFactor);
+    public OdeMethod getOdeMethod() {
+        return odeMethod;
     }
 }
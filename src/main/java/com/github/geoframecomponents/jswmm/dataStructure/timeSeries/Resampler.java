@@ -0,0 +1,216 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.dataStructure.timeSeries;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Resampling between two regular time axes, planned once and applied to any number of series.
+ * <p>
+ * The source sample and the offset within its step of each target time come from integer stride arithmetic
+ * on epoch seconds, so any pair of step sizes works, not only integer ratios. Applying the plan is a single
+ * pass over a dense array per series, without times, boxing or lookups. Target times past the last source
+ * sample hold it, as do those before the first one.
+ */
+public class Resampler {
+
+    private final ResamplingMethod method;
+    private final long sourceStart;
+    private final long sourceStepSize;
+    private final int sourceSize;
+    private final Instant targetStart;
+    private final long targetStepSize;
+    private final int targetSize;
+
+    // LINEAR and STEP_HOLD: source sample at or before each target time, seconds past it
+    private int[] lowerIndex;
+    private double[] elapsed;
+
+    // VOLUME: source samples overlapping target step k are indices[offsets[k]..offsets[k + 1]) with weights
+    private int[] offsets;
+    private int[] indices;
+    private double[] weights;
+
+    public Resampler(ResamplingMethod method, Instant sourceStart, long sourceStepSize, int sourceSize,
+                     Instant targetStart, long targetStepSize, int targetSize) {
+        if (sourceStepSize <= 0 || targetStepSize <= 0) {
+            throw new IllegalArgumentException("Step sizes must be positive: " + sourceStepSize + " s, " +
+                    targetStepSize + " s");
+        }
+        if (sourceSize <= 0) {
+            throw new IllegalArgumentException("Nothing to resample");
+        }
+        this.method = method;
+        this.sourceStart = sourceStart.getEpochSecond();
+        this.sourceStepSize = sourceStepSize;
+        this.sourceSize = sourceSize;
+        this.targetStart = targetStart;
+        this.targetStepSize = targetStepSize;
+        this.targetSize = targetSize;
+
+        long shift = targetStart.getEpochSecond() - this.sourceStart;
+        if (method == ResamplingMethod.VOLUME) {
+            planVolume(shift);
+        }
+        else {
+            planPoints(shift);
+        }
+    }
+
+    /**
+     * Plan from a source series to the target axis [targetStart, targetEnd], the end included.
+     */
+    public Resampler(ResamplingMethod method, TimeSeries source, Instant targetStart, Instant targetEnd,
+                     long targetStepSize) {
+        this(method, source.getStartTime(), source.getStepSize(), source.getSize(), targetStart, targetStepSize,
+                axisSize(targetStart, targetEnd, targetStepSize));
+    }
+
+    /**
+     * Samples from start to end every step size, the end included and rounded up to the axis.
+     */
+    public static int axisSize(Instant start, Instant end, long stepSize) {
+        long span = end.getEpochSecond() - start.getEpochSecond();
+        if (span < 0) {
+            throw new IllegalArgumentException("End " + end + " before start " + start);
+        }
+        return Math.toIntExact((span + stepSize - 1) / stepSize + 1);
+    }
+
+    private void planPoints(long shift) {
+        lowerIndex = new int[targetSize];
+        elapsed = new double[targetSize];
+        for (int k = 0; k < targetSize; k++) {
+            long time = shift + k * targetStepSize;
+            long index = Math.floorDiv(time, sourceStepSize);
+            long remainder = time - index * sourceStepSize;
+            if (index < 0) {
+                index = 0;
+                remainder = 0;
+            }
+            else if (index >= sourceSize - 1) {
+                index = sourceSize - 1;
+                remainder = 0;
+            }
+            lowerIndex[k] = (int) index;
+            elapsed[k] = remainder;
+        }
+    }
+
+    private void planVolume(long shift) {
+        offsets = new int[targetSize + 1];
+        int capacity = targetSize * (int) (targetStepSize / sourceStepSize + 2);
+        indices = new int[capacity];
+        weights = new double[capacity];
+
+        int entries = 0;
+        for (int k = 0; k < targetSize; k++) {
+            offsets[k] = entries;
+            long from = shift + k * targetStepSize;
+            long to = from + targetStepSize;
+            for (long index = Math.floorDiv(from, sourceStepSize); index * sourceStepSize < to; index++) {
+                long overlap = Math.min(to, (index + 1) * sourceStepSize) - Math.max(from, index * sourceStepSize);
+                if (entries == indices.length) {
+                    indices = Arrays.copyOf(indices, 2 * entries);
+                    weights = Arrays.copyOf(weights, 2 * entries);
+                }
+                indices[entries] = (int) Math.max(0, Math.min(sourceSize - 1, index));
+                weights[entries] = (double) overlap / targetStepSize;
+                entries++;
+            }
+        }
+        offsets[targetSize] = entries;
+    }
+
+    public int getTargetSize() {
+        return targetSize;
+    }
+
+    /**
+     * Whether the plan was made for the axis of the given series.
+     */
+    public boolean isPlannedFor(TimeSeries source) {
+        return source.getStartTime().getEpochSecond() == sourceStart && source.getStepSize() == sourceStepSize &&
+                source.getSize() == sourceSize;
+    }
+
+    /**
+     * Resamples the first source samples planned into the first target samples.
+     */
+    public void resample(double[] source, double[] target) {
+        apply(source, target, false);
+    }
+
+    /**
+     * Adds the resampled source to the first target samples, in the same pass.
+     */
+    public void accumulate(double[] source, double[] target) {
+        apply(source, target, true);
+    }
+
+    private void apply(double[] source, double[] target, boolean accumulate) {
+        switch (method) {
+            case LINEAR:
+                for (int k = 0; k < targetSize; k++) {
+                    int index = lowerIndex[k];
+                    double lower = source[index];
+                    double remainder = elapsed[k];
+                    // same operations of the former interpolation, so results do not change
+                    double value = remainder == 0.0 ? lower :
+                            lower + (source[index + 1] - lower) / sourceStepSize * remainder;
+                    target[k] = accumulate ? target[k] + value : value;
+                }
+                break;
+            case STEP_HOLD:
+                for (int k = 0; k < targetSize; k++) {
+                    double value = source[lowerIndex[k]];
+                    target[k] = accumulate ? target[k] + value : value;
+                }
+                break;
+            case VOLUME:
+                for (int k = 0; k < targetSize; k++) {
+                    double value = 0.0;
+                    for (int entry = offsets[k]; entry < offsets[k + 1]; entry++) {
+                        value += weights[entry] * source[indices[entry]];
+                    }
+                    target[k] = accumulate ? target[k] + value : value;
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported resampling method " + method);
+        }
+    }
+
+    /**
+     * Every scenario of the source resampled with the same plan.
+     */
+    public TimeSeries resample(TimeSeries source) {
+        TimeSeries target = new TimeSeries(targetStart, targetStepSize);
+        resample(source, target);
+        return target;
+    }
+
+    public void resample(TimeSeries source, TimeSeries target) {
+        if (source.getSize() < sourceSize) {
+            throw new IllegalArgumentException("Source has " + source.getSize() + " samples, " + sourceSize +
+                    " planned");
+        }
+        for (Integer id : source.getScenarios()) {
+            resample(source.getValues(id), target.writableRow(id, targetSize - 1));
+        }
+    }
+}
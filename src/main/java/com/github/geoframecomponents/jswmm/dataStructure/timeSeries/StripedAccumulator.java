@@ -0,0 +1,95 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.dataStructure.timeSeries;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread safe accumulation into a {@link TimeSeries}, for many producers adding to the same series at once.
+ * <p>
+ * Each scenario row is split in blocks of steps and every block is guarded by one of a fixed set of lock
+ * stripes, so producers adding to different blocks do not wait for each other. Rows grow only under an
+ * exclusive lock, while additions share it; reserving the rows in advance avoids growing at all.
+ */
+public class StripedAccumulator {
+
+    private static final int BLOCK_SIZE = 256;
+
+    private final TimeSeries target;
+    private final Object[] stripes;
+    private final ReentrantReadWriteLock structure = new ReentrantReadWriteLock();
+
+    public StripedAccumulator(TimeSeries target) {
+        this(target, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public StripedAccumulator(TimeSeries target, int stripes) {
+        if (target == null) {
+            throw new NullPointerException("Target series is required");
+        }
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Number of stripes must be positive: " + stripes);
+        }
+        this.target = target;
+        this.stripes = new Object[stripes];
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            this.stripes[stripe] = new Object();
+        }
+    }
+
+    public TimeSeries getTarget() {
+        return target;
+    }
+
+    /**
+     * Same as {@link TimeSeries#accumulate(int, int, double[], int)}, safe with concurrent callers.
+     */
+    public void accumulate(int id, int index, double[] source, int length) {
+        if (length <= 0) {
+            return;
+        }
+        int end = index + length;
+
+        structure.readLock().lock();
+        try {
+            if (target.capacity(id) < end || target.getSize() < end) {
+                structure.readLock().unlock();
+                structure.writeLock().lock();
+                try {
+                    target.writableRow(id, end - 1);
+                }
+                finally {
+                    structure.readLock().lock();
+                    structure.writeLock().unlock();
+                }
+            }
+
+            double[] row = target.row(id);
+            for (int block = index / BLOCK_SIZE; block * BLOCK_SIZE < end; block++) {
+                int from = Math.max(index, block * BLOCK_SIZE);
+                int to = Math.min(end, (block + 1) * BLOCK_SIZE);
+                synchronized (stripes[Math.floorMod(31 * id + block, stripes.length)]) {
+                    for (int step = from; step < to; step++) {
+                        row[step] += source[step - index];
+                    }
+                }
+            }
+        }
+        finally {
+            structure.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.dataStructure.timeSeries;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Dense storage of an hydrograph over a fixed time axis (start time + constant step size).
+ * <p>
+ * Each scenario (rainfall curve identifier, starting from 1) owns a primitive row indexed by step number,
+ * so a sample costs 8 bytes and no lookup. Cells that have never been written read as 0.0.
+ */
+public class TimeSeries {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final long startTime;
+    private final long stepSize;
+
+    private double[][] values;
+    private int size;
+
+    public TimeSeries(Instant startTime, Long stepSize) {
+        this(startTime, stepSize, 0, 0);
+    }
+
+    public TimeSeries(Instant startTime, Long stepSize, int scenarios, int steps) {
+        if (stepSize == null || stepSize <= 0) {
+            throw new IllegalArgumentException("Step size must be positive: " + stepSize);
+        }
+        this.startTime = startTime.getEpochSecond();
+        this.stepSize = stepSize;
+        this.values = new double[scenarios][];
+        for (int row = 0; row < scenarios; row++) {
+            values[row] = new double[Math.max(steps, INITIAL_CAPACITY)];
+        }
+    }
+
+    public Instant getStartTime() {
+        return Instant.ofEpochSecond(startTime);
+    }
+
+    public long getStepSize() {
+        return stepSize;
+    }
+
+    /**
+     * Number of steps from the start time up to the last written one.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public Instant getTime(int index) {
+        return Instant.ofEpochSecond(startTime + index * stepSize);
+    }
+
+    public int indexOf(Instant time) {
+        return indexOf(time.getEpochSecond());
+    }
+
+    public int indexOf(long epochSecond) {
+        long elapsed = epochSecond - startTime;
+        if (elapsed < 0 || elapsed % stepSize != 0) {
+            throw new IllegalArgumentException("Time " + Instant.ofEpochSecond(epochSecond) +
+                    " is not on the series axis starting at " + getStartTime() + " every " + stepSize + " s");
+        }
+        return Math.toIntExact(elapsed / stepSize);
+    }
+
+    public boolean hasScenario(int id) {
+        int row = id - 1;
+        return row >= 0 && row < values.length && values[row] != null;
+    }
+
+    public Set<Integer> getScenarios() {
+        Set<Integer> scenarios = new LinkedHashSet<>();
+        for (int row = 0; row < values.length; row++) {
+            if (values[row] != null) {
+                scenarios.add(row + 1);
+            }
+        }
+        return scenarios;
+    }
+
+    public double get(int id, Instant time) {
+        return get(id, indexOf(time));
+    }
+
+    public double get(int id, int index) {
+        double[] row = row(id);
+        if (row == null || index >= size || index >= row.length) {
+            return 0.0;
+        }
+        return row[index];
+    }
+
+    public void set(int id, Instant time, double value) {
+        set(id, indexOf(time), value);
+    }
+
+    public void set(int id, int index, double value) {
+        writableRow(id, index)[index] = value;
+    }
+
+    public void add(int id, int index, double value) {
+        writableRow(id, index)[index] += value;
+    }
+
+    /**
+     * Samples of a scenario up to {@link #getSize()} for reading, meant for tight loops: the backing row, or a
+     * copy padded with 0.0 if the scenario was never written that far. The series is not changed, writers get
+     * their row from {@link #reserve}.
+     */
+    public double[] getValues(int id) {
+        double[] row = row(id);
+        if (row == null) {
+            return new double[size];
+        }
+        return row.length >= size ? row : Arrays.copyOf(row, size);
+    }
+
+    /**
+     * Adds the first samples of a primitive row to a scenario, from the given step index on, in place.
+     */
+    public void accumulate(int id, int index, double[] source, int length) {
+        if (length <= 0) {
+            return;
+        }
+        double[] target = writableRow(id, index + length - 1);
+        for (int step = 0; step < length; step++) {
+            target[index + step] += source[step];
+        }
+    }
+
+    /**
+     * Allocates the row of a scenario for the given number of steps, so that later writes do not grow it, and
+     * returns it to be written in place.
+     */
+    public double[] reserve(int id, int steps) {
+        return ensureRow(id, steps);
+    }
+
+    /**
+     * Sums each scenario of another series sharing the same step size, aligning the samples by time.
+     */
+    public void sum(TimeSeries other) {
+        if (other.stepSize != stepSize) {
+            throw new IllegalArgumentException("Step sizes differ: " + other.stepSize + " s vs " + stepSize + " s");
+        }
+        if (other.size == 0) {
+            return;
+        }
+        int offset = indexOf(other.startTime);
+        for (int row = 0; row < other.values.length; row++) {
+            double[] source = other.values[row];
+            if (source != null) {
+                writableRow(row + 1, offset + other.size - 1);
+                accumulate(row + 1, offset, source, Math.min(other.size, source.length));
+            }
+        }
+    }
+
+    public void clear(int id) {
+        double[] row = row(id);
+        if (row != null) {
+            Arrays.fill(row, 0.0);
+        }
+    }
+
+    int capacity(int id) {
+        double[] row = row(id);
+        return row == null ? 0 : row.length;
+    }
+
+    double[] row(int id) {
+        int row = id - 1;
+        if (row < 0) {
+            throw new IllegalArgumentException("Scenario identifier must start from 1: " + id);
+        }
+        return row < values.length ? values[row] : null;
+    }
+
+    /**
+     * Row of a scenario grown to hold the given step index, with the series extended up to it.
+     */
+    double[] writableRow(int id, int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Negative step index " + index);
+        }
+        double[] row = ensureRow(id, index + 1);
+        if (index >= size) {
+            size = index + 1;
+        }
+        return row;
+    }
+
+    private double[] ensureRow(int id, int capacity) {
+        int row = id - 1;
+        if (row < 0) {
+            throw new IllegalArgumentException("Scenario identifier must start from 1: " + id);
+        }
+        if (row >= values.length) {
+            values = Arrays.copyOf(values, row + 1);
+        }
+        if (values[row] == null) {
+            values[row] = new double[Math.max(capacity, Math.max(size, INITIAL_CAPACITY))];
+        }
+        else if (capacity > values[row].length) {
+            int grown = values[row].length;
+            while (grown < capacity) {
+                grown += grown >> 1;
+            }
+            values[row] = Arrays.copyOf(values[row], grown);
+        }
+        return values[row];
+    }
+}
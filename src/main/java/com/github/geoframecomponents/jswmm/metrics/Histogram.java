@@ -0,0 +1,103 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of non negative values in power of two buckets: bucket k holds the values from 2^(k-1) to 2^k - 1,
+ * bucket 0 the zeros, so quantiles are known within a factor of two.
+ */
+public final class Histogram {
+
+    private static final int BUCKETS = 65;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong maximum = new AtomicLong();
+
+    Histogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void record(long value) {
+        if (Metrics.isEnabled()) {
+            add(value);
+        }
+    }
+
+    void add(long value) {
+        long clamped = Math.max(0L, value);
+        buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(clamped));
+        count.increment();
+        sum.add(clamped);
+        maximum.accumulateAndGet(clamped, Math::max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMaximum() {
+        return maximum.get();
+    }
+
+    public double getMean() {
+        long events = count.sum();
+        return events == 0 ? 0.0 : (double) sum.sum() / events;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given quantile, capped by the maximum; 0 without values
+     */
+    public long getQuantile(double quantile) {
+        long events = count.sum();
+        if (events == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(quantile * events));
+        long cumulated = 0L;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            cumulated += buckets.get(bucket);
+            if (cumulated >= rank) {
+                long upper = bucket == 0 ? 0L : bucket >= Long.SIZE - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+                return Math.min(upper, maximum.get());
+            }
+        }
+        return maximum.get();
+    }
+
+    void reset() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            buckets.set(bucket, 0L);
+        }
+        count.reset();
+        sum.reset();
+        maximum.set(0L);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.metrics;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Counters, timers and histograms of the simulation, registered by name and shared by all the threads.
+ * <p>
+ * They are disabled by default, or enabled with -Djswmm.metrics=true: a disabled metric costs one volatile read
+ * per call and records nothing. {@link #reset()} starts a run, {@link #report()} summarizes it.
+ * <p>
+ * Names are dotted by component: runoff, ode, routing, design and io.
+ */
+public final class Metrics {
+
+    private static final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private static final Map<String, Timer> timers = new ConcurrentSkipListMap<>();
+    private static final Map<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+
+    private static volatile boolean enabled = Boolean.getBoolean("jswmm.metrics");
+    private static volatile long runStart = System.nanoTime();
+
+    private Metrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    public static Timer timer(String name) {
+        return timers.computeIfAbsent(name, Timer::new);
+    }
+
+    public static Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, Histogram::new);
+    }
+
+    /**
+     * Clears every metric and starts the run of the summary
+     */
+    public static void reset() {
+        counters.values().forEach(Counter::reset);
+        timers.values().forEach(Timer::reset);
+        histograms.values().forEach(Histogram::reset);
+        runStart = System.nanoTime();
+    }
+
+    /**
+     * Summary of the metrics recorded since the last reset: timers with their rate and allocations, counters with
+     * their rate over the whole run, histograms with their quantiles. Metrics never recorded are left out.
+     */
+    public static String report() {
+        double runSeconds = (System.nanoTime() - runStart) * 1.0e-9;
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "jswmm metrics over %.3f s%n", runSeconds));
+
+        report.append(String.format(Locale.ROOT, "%-32s %12s %12s %12s %12s %12s %14s %12s%n", "timer", "count",
+                "total ms", "mean us", "p99 us", "per s", "allocated MB", "bytes/op"));
+        for (Timer timer : timers.values()) {
+            Histogram durations = timer.getDurations();
+            long count = durations.getCount();
+            if (count == 0) {
+                continue;
+            }
+            double totalSeconds = durations.getSum() * 1.0e-9;
+            long allocated = timer.getAllocatedBytes();
+            report.append(String.format(Locale.ROOT, "%-32s %12d %12.3f %12.3f %12.3f %12.1f %14s %12s%n",
+                    timer.getName(), count, totalSeconds * 1.0e3, durations.getMean() * 1.0e-3,
+                    durations.getQuantile(0.99) * 1.0e-3, totalSeconds > 0.0 ? count / totalSeconds : 0.0,
+                    allocated < 0 ? "n/a" : String.format(Locale.ROOT, "%.3f", allocated / 1048576.0),
+                    allocated < 0 ? "n/a" : String.valueOf(allocated / timer.getAllocationSamples())));
+        }
+
+        report.append(String.format(Locale.ROOT, "%-32s %12s %12s%n", "counter", "value", "per s"));
+        for (Counter counter : counters.values()) {
+            long value = counter.get();
+            if (value == 0) {
+                continue;
+            }
+            report.append(String.format(Locale.ROOT, "%-32s %12d %12.1f%n", counter.getName(), value,
+                    runSeconds > 0.0 ? value / runSeconds : 0.0));
+        }
+
+        report.append(String.format(Locale.ROOT, "%-32s %12s %12s %12s %12s %12s%n", "histogram", "count", "mean",
+                "p50", "p99", "max"));
+        for (Histogram histogram : histograms.values()) {
+            long count = histogram.getCount();
+            if (count == 0) {
+                continue;
+            }
+            report.append(String.format(Locale.ROOT, "%-32s %12d %12.3f %12d %12d %12d%n", histogram.getName(),
+                    count, histogram.getMean(), histogram.getQuantile(0.5), histogram.getQuantile(0.99),
+                    histogram.getMaximum()));
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Durations of a component, with the bytes allocated by the timing thread in between when the virtual machine
+ * measures them. A timed section starts with {@link #start()} and ends with {@link #stop(long)} on the same
+ * thread; sections of the same timer must not nest on one thread.
+ */
+public final class Timer {
+
+    /**
+     * Start of a section begun while the metrics were disabled, ignored when it stops
+     */
+    public static final long DISABLED = Long.MIN_VALUE;
+
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocations();
+
+    private final String name;
+    private final Histogram durations;
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder allocationSamples = new LongAdder();
+    private final ThreadLocal<long[]> allocatedAtStart = ThreadLocal.withInitial(() -> new long[1]);
+
+    Timer(String name) {
+        this.name = name;
+        this.durations = new Histogram(name);
+    }
+
+    private static com.sun.management.ThreadMXBean allocations() {
+        try {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean &&
+                    ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemoryEnabled()) {
+                return (com.sun.management.ThreadMXBean) threads;
+            }
+        }
+        catch (LinkageError | UnsupportedOperationException e) {
+            // allocations are not measured
+        }
+        return null;
+    }
+
+    /**
+     * Whether the allocated bytes are measured
+     */
+    public static boolean measuresAllocations() {
+        return ALLOCATIONS != null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Start time of a section, {@link #DISABLED} if the metrics are
+     */
+    public long start() {
+        if (!Metrics.isEnabled()) {
+            return DISABLED;
+        }
+        if (ALLOCATIONS != null) {
+            allocatedAtStart.get()[0] = ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return System.nanoTime();
+    }
+
+    public void stop(long start) {
+        if (start == DISABLED) {
+            return;
+        }
+        durations.add(System.nanoTime() - start);
+        if (ALLOCATIONS != null) {
+            allocatedBytes.add(ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId()) -
+                    allocatedAtStart.get()[0]);
+            allocationSamples.increment();
+        }
+    }
+
+    /**
+     * Adds a section timed elsewhere, without allocations
+     */
+    public void record(long nanos) {
+        if (Metrics.isEnabled()) {
+            durations.add(nanos);
+        }
+    }
+
+    /**
+     * Durations of the sections [ns]
+     */
+    public Histogram getDurations() {
+        return durations;
+    }
+
+    /**
+     * Bytes allocated during the sections, -1 if not measured
+     */
+    public long getAllocatedBytes() {
+        return allocationSamples.sum() > 0 ? allocatedBytes.sum() : -1L;
+    }
+
+    /**
+     * Sections whose allocations were measured
+     */
+    public long getAllocationSamples() {
+        return allocationSamples.sum();
+    }
+
+    void reset() {
+        durations.reset();
+        allocatedBytes.reset();
+        allocationSamples.reset();
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.routing;
+
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.AbstractLink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Topology of the drainage network: a link flows into the link leaving its downstream node. Diversions are not
+ * supported, so a node may be left by one link at most.
+ * <p>
+ * Links are grouped in topological levels, level 0 holding the links without upstream links and each following
+ * level the links whose upstream links all belong to previous levels.
+ * <p>
+ * Links are also numbered from 0 in name order, with the adjacency held in arrays of indices, for the passes
+ * over the whole network that would otherwise look every link up by name.
+ */
+public class ConduitNetwork {
+
+    private final Map<String, List<String>> upstreamLinks = new LinkedHashMap<>();
+    private final Map<String, List<String>> downstreamLinks = new LinkedHashMap<>();
+    private final List<List<String>> levels = new ArrayList<>();
+
+    private final String[] names;
+    private final Map<String, Integer> indices = new HashMap<>();
+    private final int[][] upstreamIndices;
+    private final int[][] downstreamIndices;
+
+    public ConduitNetwork(Map<String, ? extends AbstractLink> links) {
+
+        Map<String, AbstractLink> sortedLinks = new TreeMap<>(links);
+
+        Map<String, List<String>> linksFromNode = new HashMap<>();
+        for (Map.Entry<String, AbstractLink> link : sortedLinks.entrySet()) {
+            String upstreamNode = link.getValue().getUpstreamOutside().getNodeName();
+            List<String> outgoingLinks = linksFromNode.computeIfAbsent(upstreamNode, node -> new ArrayList<>());
+            if (!outgoingLinks.isEmpty()) {
+                throw new IllegalArgumentException("Node " + upstreamNode + " is left by both link " +
+                        outgoingLinks.get(0) + " and link " + link.getKey() + ", diversions are not supported");
+            }
+            outgoingLinks.add(link.getKey());
+            upstreamLinks.put(link.getKey(), new ArrayList<>());
+            downstreamLinks.put(link.getKey(), new ArrayList<>());
+        }
+
+        for (Map.Entry<String, AbstractLink> link : sortedLinks.entrySet()) {
+            String downstreamNode = link.getValue().getDownstreamOutside().getNodeName();
+            for (String downstreamLink : linksFromNode.getOrDefault(downstreamNode, Collections.emptyList())) {
+                downstreamLinks.get(link.getKey()).add(downstreamLink);
+                upstreamLinks.get(downstreamLink).add(link.getKey());
+            }
+        }
+
+        names = upstreamLinks.keySet().toArray(new String[0]);
+        for (int index = 0; index < names.length; index++) {
+            indices.put(names[index], index);
+        }
+        upstreamIndices = new int[names.length][];
+        downstreamIndices = new int[names.length][];
+        for (int index = 0; index < names.length; index++) {
+            upstreamIndices[index] = indices(upstreamLinks.get(names[index]));
+            downstreamIndices[index] = indices(downstreamLinks.get(names[index]));
+        }
+
+        evaluateLevels();
+    }
+
+    private int[] indices(List<String> links) {
+        int[] linkIndices = new int[links.size()];
+        for (int link = 0; link < linkIndices.length; link++) {
+            linkIndices[link] = indices.get(links.get(link));
+        }
+        return linkIndices;
+    }
+
+    private void evaluateLevels() {
+
+        Map<String, Integer> pending = new HashMap<>();
+        List<String> level = new ArrayList<>();
+        for (Map.Entry<String, List<String>> link : upstreamLinks.entrySet()) {
+            pending.put(link.getKey(), link.getValue().size());
+            if (link.getValue().isEmpty()) {
+                level.add(link.getKey());
+            }
+        }
+
+        int visited = 0;
+        while (!level.isEmpty()) {
+            levels.add(Collections.unmodifiableList(level));
+            visited += level.size();
+
+            List<String> nextLevel = new ArrayList<>();
+            for (String link : level) {
+                for (String downstreamLink : downstreamLinks.get(link)) {
+                    if (pending.merge(downstreamLink, -1, Integer::sum) == 0) {
+                        nextLevel.add(downstreamLink);
+                    }
+                }
+            }
+            level = nextLevel;
+        }
+
+        if (visited != upstreamLinks.size()) {
+            throw new IllegalArgumentException("The network contains a loop");
+        }
+    }
+
+    public int size() {
+        return upstreamLinks.size();
+    }
+
+    public List<String> getLinks() {
+        return new ArrayList<>(upstreamLinks.keySet());
+    }
+
+    public List<String> getUpstreamLinks(String linkName) {
+        return Collections.unmodifiableList(links(upstreamLinks, linkName));
+    }
+
+    public List<String> getDownstreamLinks(String linkName) {
+        return Collections.unmodifiableList(links(downstreamLinks, linkName));
+    }
+
+    public List<List<String>> getLevels() {
+        return Collections.unmodifiableList(levels);
+    }
+
+    /**
+     * Links draining into the given one, the given one last.
+     */
+    public List<String> getSubtree(String linkName) {
+        List<String> subtree = new ArrayList<>();
+        Deque<String> toVisit = new ArrayDeque<>();
+        toVisit.push(linkName);
+        while (!toVisit.isEmpty()) {
+            String link = toVisit.pop();
+            subtree.add(link);
+            for (String upstreamLink : links(upstreamLinks, link)) {
+                toVisit.push(upstreamLink);
+            }
+        }
+        Collections.reverse(subtree);
+        return subtree;
+    }
+
+    public int indexOf(String linkName) {
+        Integer index = indices.get(linkName);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown link " + linkName);
+        }
+        return index;
+    }
+
+    public String getLinkName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Indices of the links flowing into the given one; the array is shared and must not be modified.
+     */
+    public int[] getUpstreamLinks(int index) {
+        return upstreamIndices[index];
+    }
+
+    /**
+     * Indices of the links the given one flows into; the array is shared and must not be modified.
+     */
+    public int[] getDownstreamLinks(int index) {
+        return downstreamIndices[index];
+    }
+
+    /**
+     * Indices of the links draining into the given one, the given one last, in the order of
+     * {@link #getSubtree(String)}.
+     */
+    public int[] getSubtree(int index) {
+        int[] subtree = new int[16];
+        int size = 0;
+        int[] toVisit = new int[16];
+        int top = 0;
+        toVisit[top++] = index;
+        while (top > 0) {
+            int link = toVisit[--top];
+            if (size == subtree.length) {
+                subtree = Arrays.copyOf(subtree, 2 * size);
+            }
+            subtree[size++] = link;
+            for (int upstreamLink : upstreamIndices[link]) {
+                if (top == toVisit.length) {
+                    toVisit = Arrays.copyOf(toVisit, 2 * top);
+                }
+                toVisit[top++] = upstreamLink;
+            }
+        }
+
+        int[] reversed = new int[size];
+        for (int link = 0; link < size; link++) {
+            reversed[link] = subtree[size - 1 - link];
+        }
+        return reversed;
+    }
+
+    private static List<String> links(Map<String, List<String>> adjacency, String linkName) {
+        List<String> links = adjacency.get(linkName);
+        if (links == null) {
+            throw new IllegalArgumentException("Unknown link " + linkName);
+        }
+        return links;
+    }
+}
@@ -16,14 +16,15 @@
 package com.github.geoframecomponents.jswmm.routing;
 
 import com.github.geoframecomponents.jswmm.dataStructure.SWMMobject;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
 import oms3.annotations.Execute;
 import oms3.annotations.In;
 import oms3.annotations.InNode;
 import oms3.annotations.Out;
 
-import java.time.Instant;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 public class FlowRateDispatcher {
 
@@ -32,34 +33,34 @@ public class FlowRateDispatcher {
     public SWMMobject dataStructure;
 
     @InNode
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> flowRate1;
+    public TimeSeries flowRate1;
 
     @InNode
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> flowRate2;
+    public TimeSeries flowRate2;
 
     @InNode
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> flowRate3;
+    public TimeSeries flowRate3;
 
     @InNode
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> flowRate4;
+    public TimeSeries flowRate4;
 
     @InNode
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> flowRate5;
+    public TimeSeries flowRate5;
 
     @InNode
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> flowRate6;
+    public TimeSeries flowRate6;
 
     @InNode
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> flowRate7;
+    public TimeSeries flowRate7;
 
     @InNode
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> flowRate8;
+    public TimeSeries flowRate8;
 
     @InNode
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> flowRate9;
+    public TimeSeries flowRate9;
 
     @InNode
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> flowRate10;
+    public TimeSeries flowRate10;
 
     @In
     public String upstreamNodeName = null;
@@ -67,125 +68,34 @@ public class FlowRateDispatcher {
     @In
     public String linkName = null;
 
+    /**
+     * Any further flow rate to add, for more than the ten wired inputs
+     */
+    @In
+    public Collection<TimeSeries> flowRates = null;
+
     @Execute
     public void run() {
 
-        Long routingStepSize = dataStructure.getRoutingSetup().getRoutingStepSize();
-        Long flowRateStepSize = dataStructure.getRunoffSetup().getRunoffStepSize();//TODO must be generalized
-        Instant initialTime = dataStructure.getTimeSetup().getStartDate();
-        Instant totalTime = dataStructure.getTimeSetup().getEndDate();
+        TimeSeries[] wired = {flowRate1, flowRate2, flowRate3, flowRate4, flowRate5,
+                flowRate6, flowRate7, flowRate8, flowRate9, flowRate10};
 
-        if (flowRate1 != null) {
-            System.out.println("Processing flowrate1");
-            dispatchFlow(routingStepSize, flowRateStepSize, totalTime.getEpochSecond(),
-                    initialTime.getEpochSecond(), flowRate1);
+        List<TimeSeries> inflows = new ArrayList<>();
+        for (TimeSeries flowRate : wired) {
+            if (flowRate != null) {
+                inflows.add(flowRate);
+            }
         }
-
-        if (flowRate2 != null) {
-            System.out.println("Processing flowrate2");
-
-            /*for (Map.Entry<Integer, LinkedHashMap<Instant, Double>> entry : flowRate1.entrySet()) {
-                for (Instant time : entry.getValue().keySet()) {
-                    System.out.println("ID " + entry.getKey());
-                    System.out.println("Instant " + time);
-                    System.out.println("Value " + entry.getValue().get(time));
+        if (flowRates != null) {
+            for (TimeSeries flowRate : flowRates) {
+                if (flowRate != null) {
+                    inflows.add(flowRate);
                 }
-            }*/
-
-            dispatchFlow(routingStepSize, flowRateStepSize, totalTime.getEpochSecond(),
-                    initialTime.getEpochSecond(), flowRate2);
-        }
-
-        if (flowRate3 != null) {
-            System.out.println("Processing flowrate3");
-            dispatchFlow(routingStepSize, flowRateStepSize, totalTime.getEpochSecond(),
-                    initialTime.getEpochSecond(), flowRate3);
-        }
-
-        if (flowRate4 != null) {
-            System.out.println("Processing flowrate4");
-            dispatchFlow(routingStepSize, flowRateStepSize, totalTime.getEpochSecond(),
-                    initialTime.getEpochSecond(), flowRate4);
-        }
-
-        if (flowRate5 != null) {
-            System.out.println("Processing flowRate5");
-            dispatchFlow(routingStepSize, flowRateStepSize, totalTime.getEpochSecond(),
-                    initialTime.getEpochSecond(), flowRate5);
-        }
-
-        if (flowRate6 != null) {
-            System.out.println("Processing flowRate6");
-            dispatchFlow(routingStepSize, flowRateStepSize, totalTime.getEpochSecond(),
-                    initialTime.getEpochSecond(), flowRate6);
-        }
-
-        if (flowRate7 != null) {
-            System.out.println("Processing flowRate7");
-            dispatchFlow(routingStepSize, flowRateStepSize, totalTime.getEpochSecond(),
-                    initialTime.getEpochSecond(), flowRate7);
-        }
-
-        if (flowRate8 != null) {
-            System.out.println("Processing flowrate8");
-            dispatchFlow(routingStepSize, flowRateStepSize, totalTime.getEpochSecond(),
-                    initialTime.getEpochSecond(), flowRate8);
-        }
-
-        if (flowRate9 != null) {
-            System.out.println("Processing flowrate9");
-            dispatchFlow(routingStepSize, flowRateStepSize, totalTime.getEpochSecond(),
-                    initialTime.getEpochSecond(), flowRate9);
-        }
-
-        if (flowRate10 != null) {
-            System.out.println("Processing flowrate10");
-            dispatchFlow(routingStepSize, flowRateStepSize, totalTime.getEpochSecond(),
-                    initialTime.getEpochSecond(), flowRate10);
-        }
-
-    }
-
-    private void dispatchFlow(Long routingStepSize, Long flowRateStepSize, long totalTime, long initialTime,
-                              HashMap<Integer, LinkedHashMap<Instant, Double>> flowRate) {
-
-//        for (Map.Entry<Integer, LinkedHashMap<Instant, Double>> entry : flowRate.entrySet()) {
-//            for (Instant time : entry.getValue().keySet()) {
-//                System.out.print("ID " + entry.getKey());
-//                System.out.print("Instant " + time);
-//                System.out.println("Value " + entry.getValue().get(time));
-//            }
-//        }
-
-        HashMap<Integer, LinkedHashMap<Instant, Double>> newFlowRate = new HashMap<>();
-        if ( !routingStepSize.equals(flowRateStepSize) ) {
-            for (Integer id : flowRate.keySet()) {
-                LinkedHashMap<Instant, Double> currentFlowRate = dataStructure.adaptDataSeries(routingStepSize,
-                        flowRateStepSize, totalTime, initialTime, flowRate.get(id));
-                newFlowRate.put(id, currentFlowRate);
             }
         }
 
-        dataStructure.setNodeFlowRate(upstreamNodeName, newFlowRate);
-        dataStructure.setLinkFlowRate(linkName, newFlowRate);
+        if (!inflows.isEmpty()) {
+            dataStructure.dispatchFlowRates(upstreamNodeName, linkName, inflows);
+        }
     }
 }
-
-            /*for (Map.Entry<Integer, LinkedHashMap<Instant, Double>> entry : flowRate1.entrySet()) {
-                for (Instant time : entry.getValue().keySet()) {
-                    System.out.println("ID " + entry.getKey());
-                    System.out.println("Instant " + time);
-                    System.out.println("Value " + entry.getValue().get(time));
-                }
-            }
-
-
-            for (Integer id : flowRate.keySet()) {
-            LinkedHashMap<Instant, Double> currentFlow = dataStructure.getConduit(linkName).getUpstreamOutside().getStreamFlowRate().get(id);
-            for (Instant time : currentFlow.keySet()) {
-                System.out.println("time " +  time);
-                System.out.println("Value " + currentFlow.get(time));
-            }
-        }
-
-        */
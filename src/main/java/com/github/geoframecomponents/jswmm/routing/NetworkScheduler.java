@@ -0,0 +1,139 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs an action on every link of a network once all its upstream links are done.
+ * <p>
+ * Each link counts its unfinished upstream links; the task completing the last of them goes on with the
+ * downstream link itself, forking only when a link frees more than one downstream link, so long chains run in a
+ * loop and independent branches are spread over the fork/join pool by work stealing. With a parallelism of one
+ * the links are run in the calling thread, without any pool.
+ */
+public class NetworkScheduler {
+
+    private final int parallelism;
+
+    public NetworkScheduler(Integer parallelism) {
+        this.parallelism = parallelism != null ? parallelism : Runtime.getRuntime().availableProcessors();
+        if (this.parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+    }
+
+    public void execute(ConduitNetwork network, Consumer<String> linkAction) {
+        executeIndexed(network, link -> linkAction.accept(network.getLinkName(link)));
+    }
+
+    /**
+     * Runs the action on the index of every link, see {@link ConduitNetwork#indexOf(String)}.
+     */
+    public void executeIndexed(ConduitNetwork network, IntConsumer linkAction) {
+
+        AtomicIntegerArray pending = new AtomicIntegerArray(network.size());
+        List<LinkTask> sources = new ArrayList<>();
+        for (int link = 0; link < network.size(); link++) {
+            int upstreamLinks = network.getUpstreamLinks(link).length;
+            pending.set(link, upstreamLinks);
+            if (upstreamLinks == 0) {
+                sources.add(new LinkTask(network, linkAction, pending, link));
+            }
+        }
+
+        if (parallelism == 1) {
+            int[] ready = new int[network.size()];
+            int top = 0;
+            for (LinkTask source : sources) {
+                ready[top++] = source.link;
+            }
+            while (top > 0) {
+                int link = ready[--top];
+                linkAction.accept(link);
+                for (int downstreamLink : network.getDownstreamLinks(link)) {
+                    if (pending.decrementAndGet(downstreamLink) == 0) {
+                        ready[top++] = downstreamLink;
+                    }
+                }
+            }
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(sources);
+                }
+            });
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    private static class LinkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ConduitNetwork network;
+        private final IntConsumer linkAction;
+        private final AtomicIntegerArray pending;
+        private final int link;
+
+        LinkTask(ConduitNetwork network, IntConsumer linkAction, AtomicIntegerArray pending, int link) {
+            this.network = network;
+            this.linkAction = linkAction;
+            this.pending = pending;
+            this.link = link;
+        }
+
+        @Override
+        protected void compute() {
+            List<LinkTask> forked = new ArrayList<>();
+            int current = link;
+            while (current >= 0) {
+                linkAction.accept(current);
+
+                int next = -1;
+                for (int downstreamLink : network.getDownstreamLinks(current)) {
+                    if (pending.decrementAndGet(downstreamLink) == 0) {
+                        if (next < 0) {
+                            next = downstreamLink;
+                        }
+                        else {
+                            LinkTask task = new LinkTask(network, linkAction, pending, downstreamLink);
+                            task.fork();
+                            forked.add(task);
+                        }
+                    }
+                }
+                current = next;
+            }
+            for (LinkTask task : forked) {
+                task.join();
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.routing;
+
+import com.github.geoframecomponents.jswmm.dataStructure.SWMMobject;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.Conduit;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.pipeSize.CommercialPipeSize;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.pipeSize.Lucchese_ca;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import oms3.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routing of the whole network: every conduit collects the outflow of its upstream conduits and its lateral
+ * inflow, then is designed and routed as in {@link Routing}; conduits whose upstream conduits are done run
+ * concurrently.
+ * <p>
+ * The pass works on the link indices of the {@link ConduitNetwork}: routed flow rates, conduits and the subtrees
+ * lowered after each design are reached through arrays, without looking links up by name.
+ */
+@Description("Parallel routing over the conduit network")
+@Author(name = "ftt01", contact = "dallatorre.daniele@gmail.com")
+@Status(Status.DRAFT)
+@License("GPL3.0")
+
+public class ParallelRouting {
+
+    /**
+     * Lateral inflows (e.g. runoff) entering each link at its upstream node, by link name
+     */
+    @In
+    public Map<String, TimeSeries> inflows = new HashMap<>();
+
+    @In
+    public CommercialPipeSize pipeCompany = new Lucchese_ca();
+
+    /**
+     * Number of worker threads, the available processors if null
+     */
+    @In
+    public Integer parallelism = null;
+
+    @In
+    @Out
+    public SWMMobject dataStructure = null;
+
+    @Out
+    public HashMap<String, TimeSeries> routingFlowRate;
+
+    @Execute
+    public void run() {
+
+        if (dataStructure == null) {
+            throw new NullPointerException("Data structure is required");
+        }
+
+        ConduitNetwork network = new ConduitNetwork(dataStructure.getConduits());
+        Conduit[] conduits = new Conduit[network.size()];
+        for (int link = 0; link < conduits.length; link++) {
+            conduits[link] = dataStructure.getConduit(network.getLinkName(link));
+        }
+        TimeSeries[] routed = new TimeSeries[conduits.length];
+
+        new NetworkScheduler(parallelism).executeIndexed(network, link -> {
+            Conduit conduit = conduits[link];
+            String linkName = network.getLinkName(link);
+
+            List<TimeSeries> linkInflows = new ArrayList<>();
+            if (inflows.get(linkName) != null) {
+                linkInflows.add(inflows.get(linkName));
+            }
+            for (int upstreamLink : network.getUpstreamLinks(link)) {
+                linkInflows.add(routed[upstreamLink]);
+            }
+            dataStructure.dispatchFlowRates(conduit.getUpstreamOutside().getNodeName(), linkName, linkInflows);
+
+            if (!conduit.hasFixedDimensions()) {
+                Routing.design(dataStructure, conduit, pipeCompany);
+                upgradeSubtrees(network, conduits, link);
+            }
+            routed[link] = Routing.route(dataStructure, conduit);
+        });
+
+        routingFlowRate = new HashMap<>();
+        for (int link = 0; link < routed.length; link++) {
+            routingFlowRate.put(network.getLinkName(link), routed[link]);
+        }
+    }
+
+    /**
+     * Lowers the designed link or the subtrees draining into it so that their crowns meet at the node, as
+     * {@link SWMMobject#upgradeSubtrees(String, HashMap)} does by name.
+     */
+    private static void upgradeSubtrees(ConduitNetwork network, Conduit[] conduits, int link) {
+
+        int[] upstreamLinks = network.getUpstreamLinks(link);
+        double downstreamDepthOut = conduits[link].getUpstreamOutside().getWaterDepth();
+        double maxDepth = downstreamDepthOut;
+        boolean deeperSubtree = false;
+
+        for (int upstreamLink : upstreamLinks) {
+            double downstreamDepth = conduits[upstreamLink].getDownstreamOutside().getWaterDepth();
+            if (downstreamDepth > maxDepth) {
+                maxDepth = downstreamDepth;
+                deeperSubtree = true;
+            }
+        }
+
+        if (deeperSubtree) {
+            upgradeStream(conduits[link], downstreamDepthOut - maxDepth);
+        }
+
+        for (int upstreamLink : upstreamLinks) {
+            double downstreamDepth = conduits[upstreamLink].getDownstreamOutside().getWaterDepth();
+            if (downstreamDepth - maxDepth != 0.0) {
+                for (int subtreeLink : network.getSubtree(upstreamLink)) {
+                    upgradeStream(conduits[subtreeLink], downstreamDepth - maxDepth);
+                }
+            }
+        }
+    }
+
+    private static void upgradeStream(Conduit conduit, double delta) {
+        conduit.getUpstreamOutside().upgradeOffset(delta);
+        conduit.getDownstreamOutside().upgradeOffset(delta);
+    }
+}
@@ -20,24 +20,22 @@ import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.
 import oms3.annotations.*;
 import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.pipeSize.CommercialPipeSize;
 import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.pipeSize.Lucchese_ca;
-import com.github.geoframecomponents.jswmm.dataStructure.routingDS.RoutingSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import com.github.geoframecomponents.jswmm.metrics.Counter;
+import com.github.geoframecomponents.jswmm.metrics.Metrics;
+import com.github.geoframecomponents.jswmm.metrics.Timer;
 
 import java.time.Instant;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 
 public class Routing {
 
-    /**
-     * Time setup
-     */
-    private Instant initialTime;
-
-    private Instant totalTime;
-
+    private static final Timer DESIGN = Metrics.timer("design.link");
+    private static final Timer ROUTING = Metrics.timer("routing.link");
+    private static final Counter ROUTING_STEPS = Metrics.counter("routing.steps");
 
     /**
      * Simulation node fields
@@ -57,13 +55,6 @@ public class Routing {
     @In
     public CommercialPipeSize pipeCompany = new Lucchese_ca();
 
-    /**
-     * Integration method setup
-     */
-    private Long routingStepSize;
-
-    private RoutingSetup routingSetup;
-
     /**
      * Data structure
      */
@@ -75,62 +66,86 @@ public class Routing {
     public HashMap<Integer, List<Integer>> net3subtrees;
 
     @OutNode
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> routingFlowRate;
+    public TimeSeries routingFlowRate;
     @Execute
     
     public void run() {
 
-        System.out.println("Routing on " + linkName);
         if (dataStructure != null && linkName != null) {
-            this.initialTime = dataStructure.getTimeSetup().getStartDate();
-            this.totalTime = dataStructure.getTimeSetup().getEndDate();
-
-            this.routingSetup = dataStructure.getRoutingSetup();
-            this.routingStepSize = routingSetup.getRoutingStepSize();
-
             this.conduit = dataStructure.getConduit(linkName);
         } else {
             throw new NullPointerException("Nothing implemented yet");
         }
 
-        //evaluate the maximum flow for each SWMM timestep
-        Instant currentTime = initialTime;
-        double maxDischarge = 0.0;
-        while (currentTime.isBefore(totalTime)) {
-            maxDischarge = conduit.evaluateMaxDischarge(currentTime, maxDischarge);
-            currentTime = currentTime.plusSeconds(routingStepSize);
+        routingFlowRate = route(dataStructure, linkName, pipeCompany, net3subtrees);
+
+//        for (Integer id : currentFlow.keySet()) {
+//            LinkedHashMap<Instant, Double> flow = currentFlow.get(id);
+//            //System.out.print("ID " + id);
+//            for (Instant time : flow.keySet()) {
+//                //System.out.print("time " +  time);
+//                System.out.println(currentFlow.get(id).get(time));
+//            }
+//        }
+    }
+
+    /**
+     * Designs the link for the maximum upstream discharge, upgrades its subtrees and routes the flow rate
+     * over the whole simulation; returns the downstream flow rate. Links restored from a checkpoint keep their
+     * dimensions and are only routed.
+     */
+    public static TimeSeries route(SWMMobject dataStructure, String linkName, CommercialPipeSize pipeCompany,
+                                   HashMap<Integer, List<Integer>> subtrees) {
+
+        Conduit conduit = dataStructure.getConduit(linkName);
+        if (!conduit.hasFixedDimensions()) {
+            design(dataStructure, conduit, pipeCompany);
+
+            //System.out.println("UPGRADING SUBTREES");
+
+            dataStructure.upgradeSubtrees(linkName, subtrees);
         }
+        return route(dataStructure, conduit);
+    }
 
-        System.out.println("Q_MAX " + maxDischarge);
+    /**
+     * Sizes the conduit for the maximum upstream discharge of the simulation.
+     */
+    static void design(SWMMobject dataStructure, Conduit conduit, CommercialPipeSize pipeCompany) {
+
+        long start = DESIGN.start();
+        //evaluate the maximum flow for each SWMM timestep
+        double maxDischarge = conduit.evaluateMaxDischarge(dataStructure.getTimeSetup().getStartDate(),
+                dataStructure.getTimeSetup().getEndDate(), dataStructure.getRoutingSetup().getRoutingStepSize());
 
         //dimensioning method!!
         conduit.evaluateDimension(maxDischarge, pipeCompany);
+        DESIGN.stop(start);
+    }
 
-        //System.out.println("UPGRADING SUBTREES");
+    /**
+     * Routes the upstream flow rate over the whole simulation, returns the downstream flow rate.
+     */
+    static TimeSeries route(SWMMobject dataStructure, Conduit conduit) {
 
-        dataStructure.upgradeSubtrees(linkName, net3subtrees);
+        Instant initialTime = dataStructure.getTimeSetup().getStartDate();
+        Instant totalTime = dataStructure.getTimeSetup().getEndDate();
+        Long routingStepSize = dataStructure.getRoutingSetup().getRoutingStepSize();
 
         //route the maximum discharge to next bucket
-        currentTime = initialTime;
+        long start = ROUTING.start();
+        long steps = 1;
+        Instant currentTime = initialTime;
         while (currentTime.isBefore(totalTime)) {
             conduit.evaluateFlowRate(currentTime);
             currentTime = currentTime.plusSeconds(routingStepSize);
+            steps++;
         }
-       conduit.evaluateFlowRate(currentTime);
-
-        routingFlowRate = conduit.getDownstreamFlowRate();
-        //routingFlowRate = conduit.getUpstreamFlowRate();
+        conduit.evaluateFlowRate(currentTime);
+        ROUTING_STEPS.add(steps);
+        ROUTING.stop(start);
 
-
-        HashMap<Integer, LinkedHashMap<Instant, Double>> currentFlow = routingFlowRate;
-//        for (Integer id : currentFlow.keySet()) {
-//            LinkedHashMap<Instant, Double> flow = currentFlow.get(id);
-//            //System.out.print("ID " + id);
-//            for (Instant time : flow.keySet()) {
-//                //System.out.print("time " +  time);
-//                System.out.println(currentFlow.get(id).get(time));
-//            }
-//        }
+        return conduit.getDownstreamFlowRate();
     }
 
 //    public void test(String fileChecks) {
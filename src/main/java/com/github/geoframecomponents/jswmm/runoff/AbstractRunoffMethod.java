@@ -16,6 +16,12 @@
 package com.github.geoframecomponents.jswmm.runoff;
 
 public abstract class AbstractRunoffMethod {
-    abstract double[] integrate(Double initialTime,double[] inputValues,
-                                Double finalTime, double[] outputValues);
+
+    /**
+     * Integrates the runoff depth of a subarea from initialTime to finalTime under constant precipitation.
+     *
+     * @return the runoff depth at finalTime
+     */
+    public abstract double integrate(double precipitation, double depthFactor, double initialTime,
+                                     double initialValue, double finalTime);
 }
\ No newline at end of file
@@ -17,10 +17,19 @@ package com.github.geoframecomponents.jswmm.runoff;
 
 import oms3.annotations.*;
 
-import org.apache.commons.math3.ode.FirstOrderDifferentialEquations;
-import org.apache.commons.math3.ode.FirstOrderIntegrator;
-import org.apache.commons.math3.ode.nonstiff.DormandPrince54Integrator;
-
+import com.github.geoframecomponents.jswmm.dataStructure.options.ManningPowers;
+import com.github.geoframecomponents.jswmm.metrics.Counter;
+import com.github.geoframecomponents.jswmm.metrics.Metrics;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Adaptive Dormand-Prince 5(4) integration of the scalar runoff equation
+ * dy/dt = precipitation - depthFactor * y^(5/3).
+ * <p>
+ * Same tableau, error norm and step size control of the commons-math DormandPrince54Integrator, unrolled on
+ * primitive doubles: an integration allocates nothing and keeps no state, so one instance can be shared by all
+ * the subareas and threads of a simulation.
+ */
 @Description("ODE solver for Manning equation over subcatchments")
 @Author(name = "ftt01", contact = "dallatorre.daniele@gmail.com")
 @Status(Status.DRAFT)
@@ -28,53 +37,185 @@ import org.apache.commons.math3.ode.nonstiff.DormandPrince54Integrator;
 
 public class DormandPrince54 extends AbstractRunoffMethod {
 
-    @Description("Precipitation data")
-    @In
-    private Double precipitation;
-
-    @Description("Constant depth factor")
-    @In
-    private Double depthFactor;
-
-    @Description("Initial time")
-    @In
-    private Double initialTime;
-
-    @Description("Final time")
-    @In
-    private Double finalTime;
-
-    @Description("Initial value")
-    @In
-    private double[] initialValue = { 0.0 };
-
-    @Description("Output step size")
-    @In
-    private Double outputStepSize = 0.0;
-
-    @Description("Output values")
-    @Out
-    private double[] outputValues;
-
-
-    private FirstOrderIntegrator dp54;
+    private static final Counter EVALUATIONS = Metrics.counter("ode.evaluations");
+    private static final Counter STEPS = Metrics.counter("ode.steps");
+    private static final Counter REJECTED_STEPS = Metrics.counter("ode.rejectedSteps");
+
+    private static final double C2 = 1.0 / 5.0;
+    private static final double C3 = 3.0 / 10.0;
+    private static final double C4 = 4.0 / 5.0;
+    private static final double C5 = 8.0 / 9.0;
+
+    private static final double A21 = 1.0 / 5.0;
+    private static final double A31 = 3.0 / 40.0;
+    private static final double A32 = 9.0 / 40.0;
+    private static final double A41 = 44.0 / 45.0;
+    private static final double A42 = -56.0 / 15.0;
+    private static final double A43 = 32.0 / 9.0;
+    private static final double A51 = 19372.0 / 6561.0;
+    private static final double A52 = -25360.0 / 2187.0;
+    private static final double A53 = 64448.0 / 6561.0;
+    private static final double A54 = -212.0 / 729.0;
+    private static final double A61 = 9017.0 / 3168.0;
+    private static final double A62 = -355.0 / 33.0;
+    private static final double A63 = 46732.0 / 5247.0;
+    private static final double A64 = 49.0 / 176.0;
+    private static final double A65 = -5103.0 / 18656.0;
+    private static final double A71 = 35.0 / 384.0;
+    private static final double A73 = 500.0 / 1113.0;
+    private static final double A74 = 125.0 / 192.0;
+    private static final double A75 = -2187.0 / 6784.0;
+    private static final double A76 = 11.0 / 84.0;
+
+    private static final double E1 = 71.0 / 57600.0;
+    private static final double E3 = -71.0 / 16695.0;
+    private static final double E4 = 71.0 / 1920.0;
+    private static final double E5 = -17253.0 / 339200.0;
+    private static final double E6 = 22.0 / 525.0;
+    private static final double E7 = -1.0 / 40.0;
+
+    private static final int ORDER = 5;
+    private static final double EXPONENT = -1.0 / ORDER;
+    private static final double SAFETY = 0.9;
+    private static final double MIN_REDUCTION = 0.2;
+    private static final double MAX_GROWTH = 10.0;
+
+    private final double minimumStepSize;
+    private final double maximumStepSize;
+    private final double absoluteTolerance;
+    private final double relativeTolerance;
+
+    public DormandPrince54(Double minimumStepSize, Double maximumStepSize,
+                           Double absoluteTolerance, Double relativeTolerance) {
+        this.minimumStepSize = FastMath.abs(minimumStepSize);
+        this.maximumStepSize = FastMath.abs(maximumStepSize);
+        this.absoluteTolerance = absoluteTolerance;
+        this.relativeTolerance = relativeTolerance;
+    }
 
-    private FirstOrderDifferentialEquations ode;
+    @Override
+    public double integrate(double precipitation, double depthFactor, double initialTime,
+                            double initialValue, double finalTime) {
+
+        if (finalTime <= initialTime) {
+            return initialValue;
+        }
+
+        double stepStart = initialTime;
+        double y = initialValue;
+        double k1 = derivative(precipitation, depthFactor, y);
+        double stepSize = initializeStep(precipitation, depthFactor, initialTime, y, k1);
+        double hNew = stepSize;
+        int evaluations = 2;
+        int steps = 0;
+        int rejectedSteps = 0;
+
+        boolean isLastStep = false;
+        while (!isLastStep) {
+
+            double error = 10.0;
+            double yNext = y;
+            double k7 = k1;
+            while (error >= 1.0) {
+
+                stepSize = hNew;
+                if (stepStart + stepSize >= finalTime) {
+                    stepSize = finalTime - stepStart;
+                }
+
+                double k2 = derivative(precipitation, depthFactor, y + stepSize * (A21 * k1));
+                double k3 = derivative(precipitation, depthFactor, y + stepSize * (A31 * k1 + A32 * k2));
+                double k4 = derivative(precipitation, depthFactor, y + stepSize * (A41 * k1 + A42 * k2 + A43 * k3));
+                double k5 = derivative(precipitation, depthFactor,
+                        y + stepSize * (A51 * k1 + A52 * k2 + A53 * k3 + A54 * k4));
+                double k6 = derivative(precipitation, depthFactor,
+                        y + stepSize * (A61 * k1 + A62 * k2 + A63 * k3 + A64 * k4 + A65 * k5));
+                yNext = y + stepSize * (A71 * k1 + A73 * k3 + A74 * k4 + A75 * k5 + A76 * k6);
+                k7 = derivative(precipitation, depthFactor, yNext);
+                evaluations += 6;
+
+                double errSum = E1 * k1 + E3 * k3 + E4 * k4 + E5 * k5 + E6 * k6 + E7 * k7;
+                double yScale = FastMath.max(FastMath.abs(y), FastMath.abs(yNext));
+                double ratio = stepSize * errSum / (absoluteTolerance + relativeTolerance * yScale);
+                error = FastMath.sqrt(ratio * ratio);
+
+                if (error >= 1.0) {
+                    rejectedSteps++;
+                    hNew = filterStep(stepSize * stepFactor(error), false);
+                }
+            }
+
+            double stepEnd = stepStart + stepSize;
+            steps++;
+            y = yNext;
+            k1 = k7;
+            isLastStep = stepEnd == finalTime || FastMath.abs(stepEnd - finalTime) <= FastMath.ulp(finalTime);
+            stepStart = stepEnd;
+
+            if (!isLastStep) {
+                double scaledH = stepSize * stepFactor(error);
+                hNew = filterStep(scaledH, stepStart + scaledH >= finalTime);
+                if (stepStart + hNew >= finalTime) {
+                    hNew = finalTime - stepStart;
+                }
+            }
+        }
+
+        EVALUATIONS.add(evaluations);
+        STEPS.add(steps);
+        REJECTED_STEPS.add(rejectedSteps);
+        return y;
+    }
 
-    protected DormandPrince54(Double precipitation, Double depthFactor,
-                              Double minimumStepSize, Double maximumStepSize,
-                              Double absoluteTolerance, Double relativeTolerance) {
+    private double initializeStep(double precipitation, double depthFactor, double initialTime,
+                                  double y0, double yDot0) {
+
+        double scale = absoluteTolerance + relativeTolerance * FastMath.abs(y0);
+
+        double ratio = y0 / scale;
+        double yOnScale2 = ratio * ratio;
+        ratio = yDot0 / scale;
+        double yDotOnScale2 = ratio * ratio;
+
+        double h = ((yOnScale2 < 1.0e-10) || (yDotOnScale2 < 1.0e-10)) ?
+                1.0e-6 : (0.01 * FastMath.sqrt(yOnScale2 / yDotOnScale2));
+
+        // Euler step to estimate the second derivative of the solution
+        double yDot1 = derivative(precipitation, depthFactor, y0 + h * yDot0);
+        ratio = (yDot1 - yDot0) / scale;
+        double yDDotOnScale = FastMath.sqrt(ratio * ratio) / h;
+
+        double maxInv2 = FastMath.max(FastMath.sqrt(yDotOnScale2), yDDotOnScale);
+        double h1 = (maxInv2 < 1.0e-15) ?
+                FastMath.max(1.0e-6, 0.001 * FastMath.abs(h)) :
+                FastMath.pow(0.01 / maxInv2, 1.0 / ORDER);
+        h = FastMath.min(100.0 * FastMath.abs(h), h1);
+        h = FastMath.max(h, 1.0e-12 * FastMath.abs(initialTime));
+        if (h < minimumStepSize) {
+            h = minimumStepSize;
+        }
+        if (h > maximumStepSize) {
+            h = maximumStepSize;
+        }
+        return h;
+    }
 
-        this.precipitation = precipitation;
-        this.ode = new RunoffODE(precipitation,depthFactor);
-        this.dp54 = new DormandPrince54Integrator(minimumStepSize, maximumStepSize,
-                absoluteTolerance, relativeTolerance);
+    private double stepFactor(double error) {
+        return FastMath.min(MAX_GROWTH, FastMath.max(MIN_REDUCTION, SAFETY * FastMath.pow(error, EXPONENT)));
     }
 
-    double[] integrate(Double initialTime, double[] inputValues,
-                       Double finalTime, double[] outputValues){
+    private double filterStep(double h, boolean acceptSmall) {
+        if (h < minimumStepSize) {
+            if (!acceptSmall) {
+                throw new IllegalStateException("Step size " + h + " is smaller than the minimum allowed "
+                        + minimumStepSize);
+            }
+            h = minimumStepSize;
+        }
+        return FastMath.min(h, maximumStepSize);
+    }
 
-        dp54.integrate(ode, initialTime, inputValues, finalTime, outputValues);
-        return outputValues;
+    private static double derivative(double precipitation, double depthFactor, double depth) {
+        return precipitation - depthFactor * ManningPowers.fiveThirds(depth);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,209 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.runoff;
+
+import oms3.annotations.*;
+
+import com.github.geoframecomponents.jswmm.metrics.Histogram;
+import com.github.geoframecomponents.jswmm.metrics.Metrics;
+
+/**
+ * Semi-analytical solution of the nonlinear reservoir dy/dt = precipitation - depthFactor * y^(5/3).
+ * <p>
+ * With the equilibrium depth ye = (precipitation / depthFactor)^(3/5) and u = y / ye the equation separates
+ * into du / (1 - u^(5/3)) = (precipitation / ye) dt. Its primitive F(u) is known in closed form (logarithms
+ * and arctangents from the fifth roots of unity, power series near 0 and infinity), so a step only asks for
+ * the root of F(u) = F(u0) + precipitation / ye * dt, found with a bracketed Newton iteration. Without
+ * precipitation the recession curve is explicit.
+ */
+@Description("Semi-analytical nonlinear reservoir solver for Manning equation over subcatchments")
+@Author(name = "ftt01", contact = "dallatorre.daniele@gmail.com")
+@Status(Status.DRAFT)
+@License("GPL3.0")
+
+public class NonlinearReservoir extends AbstractRunoffMethod {
+
+    private static final double THREE_FIFTHS = 3.0 / 5.0;
+    private static final double TWO_THIRDS = 2.0 / 3.0;
+
+    private static final double THETA_1 = 2.0 * Math.PI / 5.0;
+    private static final double THETA_2 = 4.0 * Math.PI / 5.0;
+    private static final double COS_1 = Math.cos(THETA_1);
+    private static final double SIN_1 = Math.sin(THETA_1);
+    private static final double COS_2 = Math.cos(THETA_2);
+    private static final double SIN_2 = Math.sin(THETA_2);
+    private static final double COS_3_1 = Math.cos(3.0 * THETA_1);
+    private static final double SIN_3_1 = Math.sin(3.0 * THETA_1);
+    private static final double COS_3_2 = Math.cos(3.0 * THETA_2);
+    private static final double SIN_3_2 = Math.sin(3.0 * THETA_2);
+
+    /**
+     * Limit of the primitive for u going to infinity
+     */
+    private static final double PRIMITIVE_AT_INFINITY = 1.2 * (SIN_3_1 * (Math.PI - THETA_1) +
+            SIN_3_2 * (Math.PI - THETA_2));
+
+    /**
+     * Regular part of the primitive at the equilibrium, once the logarithmic singularity is removed
+     */
+    private static final double PRIMITIVE_NEAR_EQUILIBRIUM = -0.6 * (COS_3_1 * Math.log(2.0 - 2.0 * COS_1) +
+            COS_3_2 * Math.log(2.0 - 2.0 * COS_2)) + 1.2 * (SIN_3_1 * Math.atan2(SIN_1, 1.0 - COS_1) +
+            SIN_3_2 * Math.atan2(SIN_2, 1.0 - COS_2));
+    private static final double ASYMPTOTIC_LIMIT = 0.1;
+
+    private static final double LOWER_SERIES_LIMIT = 0.5;
+    private static final double UPPER_SERIES_LIMIT = 2.0;
+    private static final double SERIES_TOLERANCE = 1.0e-17;
+
+    private static final Histogram NEWTON_ITERATIONS = Metrics.histogram("ode.newtonIterations");
+
+    private static final int MAX_ITERATIONS = 60;
+    private static final double NEWTON_TOLERANCE = 1.0e-10;
+
+    private final AbstractRunoffMethod fallback;
+
+    public NonlinearReservoir(Double minimumStepSize, Double maximumStepSize,
+                              Double absoluteTolerance, Double relativeTolerance) {
+        this.fallback = new DormandPrince54(minimumStepSize, maximumStepSize, absoluteTolerance, relativeTolerance);
+    }
+
+    @Override
+    public double integrate(double precipitation, double depthFactor, double initialTime,
+                            double initialValue, double finalTime) {
+
+        double timeStep = finalTime - initialTime;
+        if (timeStep <= 0.0) {
+            return initialValue;
+        }
+        if (precipitation < 0.0 || initialValue < 0.0) {
+            return fallback.integrate(precipitation, depthFactor, initialTime, initialValue, finalTime);
+        }
+        if (depthFactor <= 0.0) {
+            return initialValue + precipitation * timeStep;
+        }
+        if (precipitation == 0.0) {
+            return recession(depthFactor, initialValue, timeStep);
+        }
+
+        double equilibriumDepth = Math.pow(precipitation / depthFactor, THREE_FIFTHS);
+        double initialRatio = initialValue / equilibriumDepth;
+        if (initialRatio == 1.0) {
+            return initialValue;
+        }
+
+        double target = primitive(initialRatio, Math.cbrt(initialRatio)) +
+                precipitation / equilibriumDepth * timeStep;
+        return equilibriumDepth * solve(initialRatio, target);
+    }
+
+    private static double recession(double depthFactor, double initialValue, double timeStep) {
+        if (initialValue == 0.0) {
+            return 0.0;
+        }
+        double cbrt = Math.cbrt(initialValue);
+        return Math.pow(1.0 / (cbrt * cbrt) + TWO_THIRDS * depthFactor * timeStep, -1.5);
+    }
+
+    /**
+     * Root of F(u) = target between the initial ratio and the equilibrium, where the solution is confined.
+     */
+    private static double solve(double initialRatio, double target) {
+
+        boolean rising = initialRatio < 1.0;
+        double lower = rising ? initialRatio : 1.0;
+        double upper = rising ? 1.0 : initialRatio;
+
+        // close to the equilibrium F(u) ~ -3/5 ln|1 - u^(1/3)| + F1, far from it an Euler step
+        double cbrt;
+        double ratio;
+        double distance = Math.exp((PRIMITIVE_NEAR_EQUILIBRIUM - target) / THREE_FIFTHS);
+        if (distance < ASYMPTOTIC_LIMIT) {
+            cbrt = rising ? 1.0 - distance : 1.0 + distance;
+            ratio = cbrt * cbrt * cbrt;
+        }
+        else {
+            cbrt = Math.cbrt(initialRatio);
+            ratio = initialRatio + (target - primitive(initialRatio, cbrt)) * (1.0 - initialRatio * cbrt * cbrt);
+        }
+        if (!(ratio > lower && ratio < upper)) {
+            ratio = 0.5 * (lower + upper);
+        }
+
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            cbrt = Math.cbrt(ratio);
+            double residual = primitive(ratio, cbrt) - target;
+            if (residual == 0.0) {
+                NEWTON_ITERATIONS.record(iteration + 1);
+                return ratio;
+            }
+            if ((residual < 0.0) == rising) {
+                lower = ratio;
+            }
+            else {
+                upper = ratio;
+            }
+
+            double next = ratio - residual * (1.0 - ratio * cbrt * cbrt);
+            if (!(next > lower && next < upper)) {
+                next = 0.5 * (lower + upper);
+            }
+            if (Math.abs(next - ratio) <= NEWTON_TOLERANCE * next || upper - lower <= Math.ulp(upper)) {
+                NEWTON_ITERATIONS.record(iteration + 1);
+                return next;
+            }
+            ratio = next;
+        }
+        NEWTON_ITERATIONS.record(MAX_ITERATIONS);
+        return ratio;
+    }
+
+    /**
+     * Primitive of 1 / (1 - u^(5/3)) vanishing in 0, given u and its cubic root.
+     */
+    private static double primitive(double ratio, double cbrt) {
+        double power = ratio * cbrt * cbrt;
+
+        if (cbrt <= LOWER_SERIES_LIMIT) {
+            return ratio * series(power, 3.0, 0);
+        }
+        if (cbrt >= UPPER_SERIES_LIMIT) {
+            return PRIMITIVE_AT_INFINITY + ratio * series(1.0 / power, -3.0, 1);
+        }
+
+        double first = 1.0 - 2.0 * cbrt * COS_1 + cbrt * cbrt;
+        double second = 1.0 - 2.0 * cbrt * COS_2 + cbrt * cbrt;
+        return -THREE_FIFTHS * Math.log(Math.abs(1.0 - cbrt))
+                - 0.6 * (COS_3_1 * Math.log(first) + COS_3_2 * Math.log(second))
+                + 1.2 * (SIN_3_1 * Math.atan2(cbrt * SIN_1, 1.0 - cbrt * COS_1)
+                + SIN_3_2 * Math.atan2(cbrt * SIN_2, 1.0 - cbrt * COS_2));
+    }
+
+    /**
+     * Sum over k of 3 * x^k / (5k + shift), starting from the given k.
+     */
+    private static double series(double x, double shift, int first) {
+        double term = first == 0 ? 1.0 : x;
+        double sum = 0.0;
+        for (int k = first; ; k++) {
+            double addend = 3.0 * term / (5.0 * k + shift);
+            sum += addend;
+            if (Math.abs(addend) <= SERIES_TOLERANCE * Math.abs(sum)) {
+                return sum;
+            }
+            term *= x;
+        }
+    }
+}
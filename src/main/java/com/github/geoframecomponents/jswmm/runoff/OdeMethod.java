@@ -16,5 +16,6 @@
 package com.github.geoframecomponents.jswmm.runoff;
 
 public enum OdeMethod {
-    DP54
+    DP54,
+    NONLINEAR_RESERVOIR
 }
@@ -0,0 +1,130 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.geoframecomponents.jswmm.runoff;
+
+import com.github.geoframecomponents.jswmm.dataStructure.SWMMobject;
+import com.github.geoframecomponents.jswmm.dataStructure.hydrology.subcatchment.Area;
+import com.github.geoframecomponents.jswmm.dataStructure.options.time.TimeSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.runoffDS.RunoffSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import oms3.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Runoff of many areas at once: areas do not exchange anything before routing, so each one is integrated
+ * over the whole simulation as an independent task of a fork/join pool, or in the calling thread with a
+ * parallelism of one.
+ */
+@Description("Parallel runoff over subcatchments")
+@Author(name = "ftt01", contact = "dallatorre.daniele@gmail.com")
+@Status(Status.DRAFT)
+@License("GPL3.0")
+
+public class ParallelRunoff {
+
+    @In
+    public TimeSeries adaptedRainfallData; // [mm/hour]
+
+    /**
+     * Areas to evaluate, all the areas of the data structure if null
+     */
+    @In
+    public Collection<String> areaNames = null;
+
+    /**
+     * Number of worker threads, the available processors if null
+     */
+    @In
+    public Integer parallelism = null;
+
+    @In
+    public SWMMobject dataStructure;
+
+    @Out
+    public HashMap<String, TimeSeries> runoffFlowRate;
+
+    @Initialize
+    public void initialize() {
+    }
+
+    @Execute
+    public void run() {
+
+        if (dataStructure == null || adaptedRainfallData == null) {
+            throw new NullPointerException("Data structure and rainfall data are required");
+        }
+
+        RunoffSetup runoffSetup = dataStructure.getRunoffSetup();
+        TimeSetup timeSetup = dataStructure.getTimeSetup();
+        Instant initialTime = timeSetup.getStartDate();
+        Instant totalTime = timeSetup.getEndDate();
+
+        Collection<String> names = areaNames != null ? areaNames : dataStructure.getAreaNames();
+        int threads = parallelism != null ? parallelism : Runtime.getRuntime().availableProcessors();
+
+        List<String> submitted = new ArrayList<>(names.size());
+        List<Callable<TimeSeries>> tasks = new ArrayList<>(names.size());
+        for (String areaName : names) {
+            Area area = dataStructure.getAreas(areaName);
+            if (area == null) {
+                throw new IllegalArgumentException("Unknown area " + areaName);
+            }
+            submitted.add(areaName);
+            tasks.add(() -> area.evaluateRunoffFlowRate(adaptedRainfallData, runoffSetup, initialTime, totalTime));
+        }
+
+        if (threads == 1) {
+            runoffFlowRate = new HashMap<>();
+            for (int task = 0; task < tasks.size(); task++) {
+                try {
+                    runoffFlowRate.put(submitted.get(task), tasks.get(task).call()); //[m^3/s]
+                }
+                catch (Exception e) {
+                    throw new IllegalStateException("Runoff failed", e);
+                }
+            }
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<Future<TimeSeries>> results = pool.invokeAll(tasks);
+            runoffFlowRate = new HashMap<>();
+            for (int task = 0; task < results.size(); task++) {
+                runoffFlowRate.put(submitted.get(task), results.get(task).get()); //[m^3/s]
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Runoff interrupted", e);
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("Runoff failed", e.getCause());
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.github.geoframecomponents.jswmm.runoff;
 import com.github.geoframecomponents.jswmm.dataStructure.SWMMobject;
 import oms3.annotations.*;
 import com.github.geoframecomponents.jswmm.dataStructure.hydrology.rainData.RaingageSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
 
 import java.time.Instant;
 import java.util.*;
@@ -54,12 +55,12 @@ public class PreRunoff {
     public SWMMobject dataStructure;
 
     @Out
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> adaptedRainfallData = new HashMap<>();
+    public TimeSeries adaptedRainfallData;
 
     @Out
     public LinkedHashMap<Instant, Double> adaptedInfiltrationData;
 
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> getAdaptedRainfallData() {
+    public TimeSeries getAdaptedRainfallData() {
         return adaptedRainfallData;
     }
 
@@ -85,15 +86,14 @@ public class PreRunoff {
             if(aLPP == null && nLPP == null) {
                 String stationRaingage = raingage.getStationName();
                 this.rainfallData = raingage.getReadDataFromFile().get(stationRaingage);
-                adaptedRainfallData.put( 1, dataStructure.adaptDataSeries(runoffStepSize, rainfallStepSize,
-                        totalTime.getEpochSecond(), initialTime.getEpochSecond(), rainfallData) );
+                HashMap<Integer, LinkedHashMap<Instant, Double>> stationData = new HashMap<>();
+                stationData.put(1, rainfallData);
+                adaptedRainfallData = dataStructure.adaptDataSeries(runoffStepSize, rainfallStepSize,
+                        totalTime.getEpochSecond(), initialTime.getEpochSecond(), stationData);
             }
             else{
-                for (int rainfallTimeId = 1; rainfallTimeId <= numberOfCurves; rainfallTimeId++) {
-                    adaptedRainfallData.put(rainfallTimeId, dataStructure.adaptDataSeries(runoffStepSize,
-                            rainfallStepSize, totalTime.getEpochSecond(), initialTime.getEpochSecond(),
-                            generateRainfall().get(rainfallTimeId)) );
-                }
+                adaptedRainfallData = dataStructure.adaptDataSeries(runoffStepSize, rainfallStepSize,
+                        totalTime.getEpochSecond(), initialTime.getEpochSecond(), generateRainfall());
             }
         }
         else {
@@ -21,9 +21,9 @@ import oms3.annotations.*;
 import com.github.geoframecomponents.jswmm.dataStructure.hydrology.subcatchment.Subarea;
 import com.github.geoframecomponents.jswmm.dataStructure.options.time.TimeSetup;
 import com.github.geoframecomponents.jswmm.dataStructure.runoffDS.RunoffSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
 
 import java.time.Instant;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 
@@ -32,7 +32,7 @@ import static org.junit.Assert.assertEquals;
 public class Runoff {
 
     @In
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> adaptedRainfallData; // [mm/hour]
+    public TimeSeries adaptedRainfallData; // [mm/hour]
 
     private LinkedHashMap<Instant, Double> evaporationData = null; // [mm/hour]
 
@@ -77,7 +77,7 @@ public class Runoff {
     public SWMMobject dataStructure;
 
     @OutNode
-    public HashMap<Integer, LinkedHashMap<Instant, Double>> runoffFlowRate = new HashMap<>();
+    public TimeSeries runoffFlowRate;
 
     @Initialize
     public void initialize() {
@@ -113,17 +113,9 @@ public class Runoff {
             }
         }*/
 
-        Instant currentTime = initialTime;
-        while (currentTime.isBefore(totalTime)) {
-
-            //check snownelt - snowaccumulation TODO build a new component
-            area.evaluateRunoffFlowRate(adaptedRainfallData, runoffSetup, currentTime);
-            currentTime = currentTime.plusSeconds(runoffStepSize);
-        }
-
-        for (Integer identifier : adaptedRainfallData.keySet()) {
-            runoffFlowRate.put(identifier, area.evaluateTotalFlowRate(identifier)); //[m^3/s]
-        }
+        //check snownelt - snowaccumulation TODO build a new component
+        runoffFlowRate = area.evaluateRunoffFlowRate(adaptedRainfallData, runoffSetup,
+                initialTime, totalTime); //[m^3/s]
 
         /*for (Map.Entry<Integer, LinkedHashMap<Instant, Double>> entry : runoffFlowRate.entrySet()) {
             LinkedHashMap<Instant, Double> val = entry.getValue();
@@ -15,11 +15,15 @@
 
 package com.github.geoframecomponents.jswmm.runoff;
 
+import com.github.geoframecomponents.jswmm.dataStructure.options.ManningPowers;
+import com.github.geoframecomponents.jswmm.metrics.Counter;
+import com.github.geoframecomponents.jswmm.metrics.Metrics;
 import org.apache.commons.math3.ode.FirstOrderDifferentialEquations;
-import org.apache.commons.math3.util.FastMath;
 
 public class RunoffODE implements FirstOrderDifferentialEquations {
 
+    private static final Counter EVALUATIONS = Metrics.counter("ode.evaluations");
+
     private double precipitation;
     private double alpha;
 
@@ -35,7 +39,8 @@ public class RunoffODE implements FirstOrderDifferentialEquations {
     }
 
     public void computeDerivatives(double t, double[] y, double[] yDot) {
-        yDot[0] = precipitation - alpha*FastMath.pow(y[0],5.0/3.0);
+        EVALUATIONS.increment();
+        yDot[0] = precipitation - alpha*ManningPowers.fiveThirds(y[0]);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dataStructure;
+
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.OutsideSetup;
+import it.blogspot.geoframe.utils.GEOconstants;
+import org.junit.Test;
+
+import java.time.Instant;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OutsideSetupTest {
+
+    @Test
+    public void flagsExcavationsOverTheMaximumWithoutMetrics() {
+        OutsideSetup outside = new OutsideSetup("J1", 0.0, 0.9, 0.0, 0.0, 10.0,
+                Instant.parse("2018-01-01T00:00:00Z"), 30L);
+
+        outside.setHeights(GEOconstants.MAXIMUMEXCAVATION - 1.0);
+        assertFalse(outside.isOverMaximumExcavation());
+
+        outside.setHeights(GEOconstants.MAXIMUMEXCAVATION + 1.0);
+        assertTrue(outside.isOverMaximumExcavation());
+
+        outside.setHeights(GEOconstants.MAXIMUMEXCAVATION - 1.0);
+        assertFalse(outside.isOverMaximumExcavation());
+    }
+}
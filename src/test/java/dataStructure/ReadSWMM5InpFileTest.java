@@ -0,0 +1,133 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dataStructure;
+
+import com.github.geoframecomponents.jswmm.dataStructure.SWMMobject;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.Conduit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReadSWMM5InpFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsNetwork12() {
+        SWMMobject data = new SWMMobject("data/testingData/network12/network12.INP");
+
+        assertEquals(Instant.parse("2018-01-01T00:00:00Z"), data.getTimeSetup().getStartDate());
+        assertEquals(Instant.parse("2018-01-01T02:00:00Z"), data.getTimeSetup().getEndDate());
+        assertEquals(Long.valueOf(300L), data.getRunoffSetup().getRunoffStepSize());
+        assertEquals(Long.valueOf(30L), data.getRoutingSetup().getRoutingStepSize());
+        assertEquals(Long.valueOf(60L), data.getRaingage("RG1").getRainfallStepSize());
+
+        assertEquals(7, data.getAreaNames().size());
+        assertEquals("J3", data.getAreaOutlet("2"));
+        assertEquals(3, data.getAreas("1").getSubareas().size());
+
+        assertEquals(5, data.getConduits().size());
+        Conduit outlet = data.getConduit("12");
+        assertEquals("J5", outlet.getUpstreamOutside().getNodeName());
+        assertEquals("Out1", outlet.getDownstreamOutside().getNodeName());
+        assertEquals(4.2, outlet.getDownstreamOutside().getTerrainElevation(), 0.0);
+        assertEquals(-4643.411, outlet.getDownstreamOutside().getNodeCoordinates().x, 0.0);
+
+        LinkedHashMap<Instant, Double> rainfall = data.getTimeSeries("7mins");
+        assertEquals(8, rainfall.size());
+        assertEquals(80.0, rainfall.get(Instant.parse("2018-01-01T00:07:00Z")), 0.0);
+    }
+
+    @Test
+    public void readsLargeNetworks() throws IOException {
+        int links = 20000;
+        File inp = folder.newFile("chain.inp");
+        try (PrintWriter writer = new PrintWriter(inp)) {
+            writer.println("[OPTIONS]\nFLOW_UNITS CMS\nFLOW_ROUTING STEADY\nSTART_DATE 01/01/2018\n" +
+                    "END_DATE 01/01/2018\nEND_TIME 01:00\nROUTING_STEP 30 ;seconds");
+            writer.println("[JUNCTIONS]");
+            for (int node = 0; node <= links; node++) {
+                writer.println("N" + node + " " + (links - node) * 0.01 + " 0 0 0 0");
+            }
+            writer.println("[CONDUITS]");
+            for (int link = 1; link <= links; link++) {
+                writer.println(link + "\tN" + link + "\tN" + (link - 1) + "\t100\t0.01\t0\t0\t0\t0");
+            }
+            writer.println("[XSECTIONS]");
+            for (int link = 1; link <= links; link++) {
+                writer.println(link + " CIRCULAR 1 0 0 0 1");
+            }
+        }
+
+        SWMMobject data = new SWMMobject(inp.getPath(), 1);
+
+        assertEquals(links, data.getConduits().size());
+        assertEquals("N41", data.getConduit("42").getDownstreamOutside().getNodeName());
+        assertEquals(Long.valueOf(30L), data.getRoutingSetup().getRoutingStepSize());
+    }
+
+    @Test
+    public void rejectsRunoffRoutedBetweenSubareas() throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get("data/testingData/network12/network12.INP"));
+        File inp = folder.newFile("routed.inp");
+        try (PrintWriter writer = new PrintWriter(inp)) {
+            for (String line : lines) {
+                writer.println(line.matches("1\\s+0\\.01\\s.*OUTLET\\s*") ? line.replace("OUTLET", "PERVIOUS 50") : line);
+            }
+        }
+
+        try {
+            new SWMMobject(inp.getPath(), 1);
+            fail("RouteTo PERVIOUS accepted");
+        }
+        catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().endsWith("subcatchment 1, only OUTLET is supported"));
+        }
+    }
+
+    @Test
+    public void rejectsDynamicWaveRouting() throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get("data/testingData/network12/network12.INP"));
+        File inp = folder.newFile("dynwave.inp");
+        try (PrintWriter writer = new PrintWriter(inp)) {
+            for (String line : lines) {
+                writer.println(line.replace("KINWAVE", "DYNWAVE"));
+            }
+        }
+
+        try {
+            new SWMMobject(inp.getPath(), 1);
+            fail("DYNWAVE accepted");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals("Unsupported flow routing DYNWAVE", e.getMessage());
+        }
+    }
+}
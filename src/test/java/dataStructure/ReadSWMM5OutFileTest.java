@@ -0,0 +1,84 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dataStructure;
+
+import com.github.geoframecomponents.jswmm.dataStructure.formatData.readData.ReadSWMM5OutFile;
+import com.github.geoframecomponents.jswmm.dataStructure.formatData.writeData.WriteSWMM5OutFile;
+import com.github.geoframecomponents.jswmm.dataStructure.options.units.UnitsSWMM;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ReadSWMM5OutFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsAReferenceRun() throws IOException {
+        try (ReadSWMM5OutFile results = new ReadSWMM5OutFile("data/testingData/network12/network12.out")) {
+            assertEquals(3, results.getFlowUnits());
+            assertEquals(Arrays.asList("1", "2", "3", "4", "5", "6", "7"), results.getSubcatchmentNames());
+            assertEquals(Arrays.asList("J1", "J2", "J3", "J4", "J5", "Out1"), results.getNodeNames());
+            assertEquals(Arrays.asList("8", "9", "10", "11", "12"), results.getLinkNames());
+            assertEquals(120, results.getPeriods());
+            assertEquals(60, results.getReportStepSize());
+            assertEquals(Instant.parse("2018-01-01T00:00:00Z"), results.getStartTime());
+            assertEquals(Instant.parse("2018-01-01T00:01:00Z"), results.getTime(0));
+
+            assertEquals(0.029178282f, results.getLinkValue(60, 2, ReadSWMM5OutFile.LINK_FLOW), 0.0f);
+            assertEquals(0.12307773f, results.getNodeSeries("J1", ReadSWMM5OutFile.NODE_DEPTH)[10], 0.0);
+            assertEquals(0.011085888f, results.getSubcatchmentSeries("4", ReadSWMM5OutFile.SUBCATCHMENT_RUNOFF)[30],
+                    0.0);
+        }
+    }
+
+    @Test
+    public void readsBackWhatIsWritten() throws IOException {
+        File out = folder.newFile("roundTrip.out");
+        Instant start = Instant.parse("2018-01-01T00:00:00Z");
+        double[][] links = new double[5][];
+        try (WriteSWMM5OutFile writer = new WriteSWMM5OutFile(out.getPath(), UnitsSWMM.CMS, start, 30L)) {
+            writer.addNode("N1", WriteSWMM5OutFile.JUNCTION, 10.0, 2.0);
+            writer.addLink("L1", WriteSWMM5OutFile.CONDUIT, 0.0, 0.0, 1.0, 50.0);
+            writer.addLink("L2", WriteSWMM5OutFile.CONDUIT, 0.0, 0.0, 1.0, 50.0);
+            for (int period = 0; period < links.length; period++) {
+                links[period] = new double[2 * WriteSWMM5OutFile.LINK_VARIABLES];
+                Arrays.fill(links[period], 0.25 * period);
+                links[period][WriteSWMM5OutFile.LINK_VARIABLES] = period;
+                writer.writePeriod(start.plusSeconds(30 * (period + 1)), new double[0],
+                        new double[WriteSWMM5OutFile.NODE_VARIABLES], links[period],
+                        new double[WriteSWMM5OutFile.SYSTEM_VARIABLES]);
+            }
+        }
+
+        try (ReadSWMM5OutFile results = new ReadSWMM5OutFile(out.getPath())) {
+            assertEquals(5, results.getPeriods());
+            assertEquals(Instant.parse("2018-01-01T00:02:30Z"), results.getTime(4));
+            assertArrayEquals(new double[]{0.0, 1.0, 2.0, 3.0, 4.0},
+                    results.getLinkSeries("L2", ReadSWMM5OutFile.LINK_FLOW), 0.0);
+            assertArrayEquals(new double[]{0.75, 3.0}, results.getLinkValues(3, ReadSWMM5OutFile.LINK_FLOW), 0.0);
+        }
+    }
+}
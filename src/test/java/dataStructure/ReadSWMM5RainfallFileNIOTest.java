@@ -0,0 +1,96 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dataStructure;
+
+import com.github.geoframecomponents.jswmm.dataStructure.formatData.readData.ReadSWMM5RainfallFile;
+import com.github.geoframecomponents.jswmm.dataStructure.formatData.readData.ReadSWMM5RainfallFileNIO;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ReadSWMM5RainfallFileNIOTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void matchesCurrentReader() throws IOException {
+        String[] values = {"0.0001", "12.5", "-3", "1e-3", "2.5E+2", "0.1234567890123456789", "7."};
+        File rainfall = folder.newFile("rainfall.txt");
+        Random random = new Random(7);
+        try (PrintWriter writer = new PrintWriter(rainfall)) {
+            for (int minute = 0; minute < 5000; minute++) {
+                int station = random.nextInt(3);
+                writer.print(String.format("STA%02d\t%d %02d  %02d %02d\t%02d %s%s", station, 1996 + minute % 30,
+                        1 + minute % 12, 1 + minute % 28, minute / 60 % 24, minute % 60,
+                        values[minute % values.length], minute % 2 == 0 ? "\n" : "\r\n"));
+            }
+        }
+
+        ReadSWMM5RainfallFile expected = new ReadSWMM5RainfallFile(rainfall.getPath());
+        ReadSWMM5RainfallFileNIO actual = new ReadSWMM5RainfallFileNIO(rainfall.getPath());
+
+        assertEquals(expected.getData(), actual.getData());
+        assertEquals(new ReadSWMM5RainfallFile("data/rainfall.txt").getData(),
+                new ReadSWMM5RainfallFileNIO("data/rainfall.txt").getData());
+    }
+
+    @Test
+    public void storesPrimitiveArraysPerStation() throws IOException {
+        File rainfall = folder.newFile("stations.txt");
+        try (PrintWriter writer = new PrintWriter(rainfall)) {
+            writer.println(";Station Year Month Day Hour Minutes Value");
+            writer.println("RG1 2000 2 29 23 59 1.5");
+            writer.println("RG2 1969 12 31 0 1 2");
+            writer.print("RG1 2000 3 1 0 0 0.25");
+        }
+
+        ReadSWMM5RainfallFileNIO data = new ReadSWMM5RainfallFileNIO(rainfall.getPath());
+
+        assertEquals(2, data.getStations().size());
+        assertArrayEquals(new long[]{951868740L, 951868800L}, data.getTimes("RG1"));
+        assertArrayEquals(new double[]{1.5, 0.25}, data.getValues("RG1"), 0.0);
+        assertArrayEquals(new long[]{-86340L}, data.getTimes("RG2"));
+    }
+
+    @Test
+    public void rejectsInvalidDates() throws IOException {
+        String[] lines = {"RG1 2001 2 29 0 0 1", "RG1 2001 2 30 0 0 1", "RG1 2001 4 31 0 0 1",
+                "RG1 1900 2 29 0 0 1", "RG1 2001 3 1 24 0 1", "RG1 2001 3 1 25 0 1", "RG1 2001 3 1 0 60 1"};
+        for (String line : lines) {
+            File rainfall = folder.newFile();
+            try (PrintWriter writer = new PrintWriter(rainfall)) {
+                writer.println(line);
+            }
+            try {
+                new ReadSWMM5RainfallFileNIO(rainfall.getPath());
+                fail("Accepted " + line);
+            }
+            catch (IllegalArgumentException expected) {
+                // the date is not shifted to a valid one
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dataStructure;
+
+import com.github.geoframecomponents.jswmm.dataStructure.formatData.writeData.WriteSWMM5OutFile;
+import com.github.geoframecomponents.jswmm.dataStructure.options.units.UnitsSWMM;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class WriteSWMM5OutFileTest {
+
+    private static final String REFERENCE = "data/testingData/runoffRoutingTesting/runoffRouting.out";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writesTheLayoutOfSWMM5() throws IOException {
+        byte[] reference = Files.readAllBytes(Paths.get(REFERENCE));
+        ByteBuffer expected = ByteBuffer.wrap(reference).order(ByteOrder.LITTLE_ENDIAN);
+        int outputStart = expected.getInt(reference.length - 16);
+        int periodSize = 8 + 4 * (WriteSWMM5OutFile.SUBCATCHMENT_VARIABLES + 2 * WriteSWMM5OutFile.NODE_VARIABLES +
+                WriteSWMM5OutFile.LINK_VARIABLES + WriteSWMM5OutFile.SYSTEM_VARIABLES);
+
+        File out = folder.newFile("written.out");
+        Instant start = Instant.parse("2018-01-01T00:00:00Z");
+        try (WriteSWMM5OutFile writer = new WriteSWMM5OutFile(out.getPath(), UnitsSWMM.CMS, start, 60L, 64)) {
+            writer.addSubcatchment("S1", 1.0);
+            writer.addNode("J1", WriteSWMM5OutFile.JUNCTION, 100.0, 0.8);
+            writer.addNode("O1", WriteSWMM5OutFile.OUTFALL, 90.0, 0.8);
+            writer.addLink("C1", WriteSWMM5OutFile.CONDUIT, 0.0, 0.0, 0.8, 100.0);
+
+            // the first two periods of the reference, read back as they were stored
+            for (int period = 0; period < 2; period++) {
+                expected.position(outputStart + period * periodSize + 8);
+                writer.writePeriod(start.plusSeconds(60 * (period + 1)), floats(expected, 8), floats(expected, 12),
+                        floats(expected, 5), floats(expected, 15));
+            }
+        }
+
+        byte[] written = Files.readAllBytes(out.toPath());
+        assertEquals(outputStart + 2 * periodSize + 24, written.length);
+        assertArrayEquals(Arrays.copyOf(reference, outputStart), Arrays.copyOf(written, outputStart));
+        for (int period = 0; period < 2; period++) {
+            int from = outputStart + period * periodSize + 8;
+            assertArrayEquals(Arrays.copyOfRange(reference, from, from + periodSize - 8),
+                    Arrays.copyOfRange(written, from, from + periodSize - 8));
+        }
+
+        ByteBuffer closing = ByteBuffer.wrap(written).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(outputStart, closing.getInt(written.length - 16));
+        assertEquals(2, closing.getInt(written.length - 12));
+        assertEquals(WriteSWMM5OutFile.MAGIC_NUMBER, closing.getInt(written.length - 4));
+    }
+
+    private static double[] floats(ByteBuffer buffer, int count) {
+        double[] values = new double[count];
+        for (int value = 0; value < count; value++) {
+            values[value] = buffer.getFloat();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package metrics;
+
+import com.github.geoframecomponents.jswmm.metrics.Counter;
+import com.github.geoframecomponents.jswmm.metrics.Histogram;
+import com.github.geoframecomponents.jswmm.metrics.Metrics;
+import com.github.geoframecomponents.jswmm.metrics.Timer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsTest {
+
+    @Before
+    public void resetMetrics() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @After
+    public void disableMetrics() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @Test
+    public void recordsNothingWhenDisabled() {
+        Counter counter = Metrics.counter("test.disabled");
+        Timer timer = Metrics.timer("test.disabled");
+        counter.add(5);
+        Metrics.histogram("test.disabled").record(3);
+
+        long start = timer.start();
+        assertEquals(Timer.DISABLED, start);
+        Metrics.setEnabled(true);
+        timer.stop(start);
+
+        assertEquals(0L, counter.get());
+        assertEquals(0L, Metrics.histogram("test.disabled").getCount());
+        assertEquals(0L, timer.getDurations().getCount());
+        assertFalse(Metrics.report().contains("test.disabled"));
+    }
+
+    @Test
+    public void summarizesAnEnabledRun() {
+        Metrics.setEnabled(true);
+        Counter counter = Metrics.counter("test.steps");
+        assertSame(counter, Metrics.counter("test.steps"));
+        counter.increment();
+        counter.add(41);
+
+        Histogram histogram = Metrics.histogram("test.iterations");
+        for (long value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+
+        Timer timer = Metrics.timer("test.section");
+        long start = timer.start();
+        double[] allocated = new double[1024];
+        timer.stop(start);
+
+        assertEquals(42L, counter.get());
+        assertEquals(100L, histogram.getCount());
+        assertEquals(50.5, histogram.getMean(), 0.0);
+        assertEquals(100L, histogram.getMaximum());
+        assertEquals(63L, histogram.getQuantile(0.5));
+        assertEquals(100L, histogram.getQuantile(0.99));
+        assertEquals(1L, timer.getDurations().getCount());
+        if (Timer.measuresAllocations()) {
+            assertTrue(timer.getAllocatedBytes() >= 8L * allocated.length);
+        }
+
+        String report = Metrics.report();
+        assertTrue(report, report.contains("test.steps"));
+        assertTrue(report, report.contains("test.iterations"));
+        assertTrue(report, report.contains("test.section"));
+
+        Metrics.reset();
+        assertEquals(0L, counter.get());
+        assertEquals(0L, histogram.getCount());
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package regression;
+
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class CheckpointRestartTest {
+
+    private static final String INP_FILE = "data/testingData/network12/network12.INP";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void hotStartContinuesTheWholeRun() throws IOException {
+        ReferenceRun whole = new ReferenceRun(INP_FILE).run();
+
+        Instant restartTime = Instant.parse("2018-01-01T00:05:00Z");
+        File checkpoint = folder.newFile("network12.chk");
+        whole.getDataStructure().writeCheckpoint(checkpoint.getPath(), restartTime);
+
+        // same network and rainfall, starting at the checkpoint
+        File inpFile = folder.newFile("network12.INP");
+        String input = new String(Files.readAllBytes(Paths.get(INP_FILE)), StandardCharsets.UTF_8);
+        Files.write(inpFile.toPath(), input.replaceFirst("(?m)^START_TIME(\\s+)00:00:00", "START_TIME$100:05:00")
+                .getBytes(StandardCharsets.UTF_8));
+        ReferenceRun restarted = new ReferenceRun(inpFile.getPath()).restoring(checkpoint.getPath()).run();
+
+        assertContinues(whole.getRunoffFlowRates(), restarted.getRunoffFlowRates(), restartTime);
+        assertContinues(whole.getRoutingFlowRates(), restarted.getRoutingFlowRates(), restartTime);
+    }
+
+    private static void assertContinues(Map<String, TimeSeries> whole, Map<String, TimeSeries> restarted,
+                                        Instant restartTime) {
+        assertEquals(whole.keySet(), restarted.keySet());
+        for (String name : whole.keySet()) {
+            TimeSeries expected = whole.get(name);
+            TimeSeries actual = restarted.get(name);
+            int offset = expected.indexOf(restartTime);
+            assertEquals(name, expected.getSize() - offset, actual.getSize());
+            for (int step = 0; step < actual.getSize(); step++) {
+                assertEquals(name + " at step " + step, expected.get(1, step + offset), actual.get(1, step),
+                        1.0e-12);
+            }
+        }
+    }
+}
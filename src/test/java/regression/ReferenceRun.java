@@ -0,0 +1,226 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package regression;
+
+import com.github.geoframecomponents.jswmm.dataStructure.SWMMobject;
+import com.github.geoframecomponents.jswmm.dataStructure.formatData.readData.ReadSWMM5InpFile;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.Conduit;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.Resampler;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.ResamplingMethod;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import com.github.geoframecomponents.jswmm.routing.ParallelRouting;
+import com.github.geoframecomponents.jswmm.runoff.ParallelRunoff;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One SWMM5 input file run through jswmm as a single thread: rainfall of each raingage, runoff of its
+ * subcatchments, then routing of the conduits draining their outlets.
+ * <p>
+ * Raingages are INTENSITY ones in mm/hour fed by a TIMESERIES of the file, each value held for the gage interval.
+ * The wall-clock time and the bytes allocated by the calling thread cover the whole run, parsing included.
+ */
+class ReferenceRun {
+
+    private final String inpFile;
+    private String checkpointFile;
+
+    private final Map<String, String[]> raingages = new LinkedHashMap<>();
+    private final Map<String, List<String>> gageSubcatchments = new LinkedHashMap<>();
+
+    private SWMMobject dataStructure;
+    private Map<String, TimeSeries> runoffFlowRates;
+    private Map<String, TimeSeries> routingFlowRates;
+
+    private long elapsedNanos;
+    private long allocatedBytes = -1L;
+
+    ReferenceRun(String inpFile) {
+        this.inpFile = inpFile;
+    }
+
+    /**
+     * Hot starts the run from a checkpoint taken at its start time.
+     */
+    ReferenceRun restoring(String checkpointFile) {
+        this.checkpointFile = checkpointFile;
+        return this;
+    }
+
+    ReferenceRun run() throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean &&
+                ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemoryEnabled() ?
+                (com.sun.management.ThreadMXBean) threads : null;
+        long thread = Thread.currentThread().getId();
+
+        long allocatedBefore = allocations != null ? allocations.getThreadAllocatedBytes(thread) : 0L;
+        long start = System.nanoTime();
+
+        readRaingages();
+        dataStructure = new SWMMobject(inpFile, 1);
+        dataStructure.fixInpDimensions();
+        if (checkpointFile != null) {
+            dataStructure.restoreCheckpoint(checkpointFile);
+        }
+        evaluateRunoff();
+        if (!dataStructure.getConduits().isEmpty()) {
+            evaluateRouting();
+        }
+
+        elapsedNanos = System.nanoTime() - start;
+        if (allocations != null) {
+            allocatedBytes = allocations.getThreadAllocatedBytes(thread) - allocatedBefore;
+        }
+        return this;
+    }
+
+    private void readRaingages() throws IOException {
+        new ReadSWMM5InpFile(inpFile, (section, tokens, count) -> {
+            if (section.equals("RAINGAGES")) {
+                if (count < 6 || !tokens[1].equalsIgnoreCase("INTENSITY") ||
+                        !tokens[4].equalsIgnoreCase("TIMESERIES")) {
+                    throw new IllegalArgumentException("Unsupported raingage " + tokens[0]);
+                }
+                raingages.put(tokens[0], new String[]{tokens[2], tokens[3], tokens[5]});
+            }
+            else if (section.equals("SUBCATCHMENTS")) {
+                gageSubcatchments.computeIfAbsent(tokens[1], gage -> new ArrayList<>()).add(tokens[0]);
+            }
+        });
+    }
+
+    private void evaluateRunoff() {
+        Instant startTime = dataStructure.getTimeSetup().getStartDate();
+        Instant endTime = dataStructure.getTimeSetup().getEndDate();
+        long runoffStepSize = dataStructure.getRunoffSetup().getRunoffStepSize();
+
+        runoffFlowRates = new HashMap<>();
+        for (Map.Entry<String, List<String>> gage : gageSubcatchments.entrySet()) {
+            String[] raingage = raingages.get(gage.getKey());
+            if (raingage == null) {
+                throw new IllegalArgumentException("Unknown raingage " + gage.getKey());
+            }
+            TimeSeries rainfall = rainfall(raingage, startTime, endTime);
+
+            ParallelRunoff runoff = new ParallelRunoff();
+            runoff.dataStructure = dataStructure;
+            runoff.adaptedRainfallData = new Resampler(ResamplingMethod.VOLUME, rainfall, startTime, endTime,
+                    runoffStepSize).resample(rainfall);
+            runoff.areaNames = gage.getValue();
+            runoff.parallelism = 1;
+            runoff.run();
+            runoffFlowRates.putAll(runoff.runoffFlowRate);
+        }
+    }
+
+    /**
+     * Intensities of the gage time series in mm/s on the gage interval
+     */
+    private TimeSeries rainfall(String[] raingage, Instant startTime, Instant endTime) {
+        long interval = seconds(raingage[0]);
+        double scaleFactor = Double.parseDouble(raingage[1]);
+        LinkedHashMap<Instant, Double> intensities = dataStructure.getTimeSeries(raingage[2]);
+        if (intensities == null) {
+            throw new IllegalArgumentException("Unknown time series " + raingage[2]);
+        }
+
+        TimeSeries rainfall = new TimeSeries(startTime, interval);
+        rainfall.set(1, Resampler.axisSize(startTime, endTime, interval) - 1, 0.0);
+        for (Map.Entry<Instant, Double> intensity : intensities.entrySet()) {
+            if (!intensity.getKey().isBefore(startTime) && intensity.getKey().isBefore(endTime)) {
+                rainfall.set(1, intensity.getKey(), scaleFactor * intensity.getValue() / 3600.0);
+            }
+        }
+        return rainfall;
+    }
+
+    private static long seconds(String clock) {
+        String[] fields = clock.split(":");
+        long seconds = 0L;
+        for (String field : fields) {
+            seconds = 60L * seconds + Long.parseLong(field);
+        }
+        return fields.length == 2 ? 60L * seconds : seconds;
+    }
+
+    private void evaluateRouting() {
+        Instant startTime = dataStructure.getTimeSetup().getStartDate();
+        long runoffStepSize = dataStructure.getRunoffSetup().getRunoffStepSize();
+
+        Map<String, String> nodeLinks = new HashMap<>();
+        for (Map.Entry<String, Conduit> conduit : dataStructure.getConduits().entrySet()) {
+            nodeLinks.put(conduit.getValue().getUpstreamOutside().getNodeName(), conduit.getKey());
+        }
+
+        Map<String, TimeSeries> inflows = new HashMap<>();
+        for (Map.Entry<String, TimeSeries> runoff : runoffFlowRates.entrySet()) {
+            String link = nodeLinks.get(dataStructure.getAreaOutlet(runoff.getKey()));
+            if (link != null) {
+                inflows.computeIfAbsent(link, name -> new TimeSeries(startTime, runoffStepSize))
+                        .sum(runoff.getValue());
+            }
+        }
+
+        ParallelRouting routing = new ParallelRouting();
+        routing.dataStructure = dataStructure;
+        routing.inflows = inflows;
+        routing.parallelism = 1;
+        routing.run();
+        routingFlowRates = routing.routingFlowRate;
+    }
+
+    String getInpFile() {
+        return inpFile;
+    }
+
+    SWMMobject getDataStructure() {
+        return dataStructure;
+    }
+
+    /**
+     * Runoff flow rates of the subcatchments [m^3/s]
+     */
+    Map<String, TimeSeries> getRunoffFlowRates() {
+        return runoffFlowRates;
+    }
+
+    /**
+     * Downstream flow rates of the conduits [m^3/s], empty without conduits
+     */
+    Map<String, TimeSeries> getRoutingFlowRates() {
+        return routingFlowRates != null ? routingFlowRates : new HashMap<>();
+    }
+
+    long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Bytes allocated by the calling thread, -1 if the virtual machine does not measure them
+     */
+    long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+}
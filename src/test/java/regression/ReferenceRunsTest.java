@@ -0,0 +1,245 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package regression;
+
+import com.github.geoframecomponents.jswmm.dataStructure.formatData.readData.ReadSWMM5OutFile;
+import com.github.geoframecomponents.jswmm.dataStructure.formatData.writeData.WriteSWMM5OutFile;
+import com.github.geoframecomponents.jswmm.dataStructure.options.units.UnitsSWMM;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.Resampler;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.ResamplingMethod;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import com.github.geoframecomponents.jswmm.metrics.Metrics;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the SWMM5 reference cases under data/testingData and checks the hydrographs twice: against the SWMM5
+ * results, peak and volume within the tolerances of the case since the methods differ, and against the jswmm
+ * baseline next to them, value by value, so that an optimisation cannot change the results unnoticed.
+ * <p>
+ * Run with -Dregression.update=true to write the baselines again after an intended change of the results. Wall
+ * clock time and allocated bytes of every run go to build/reports/regression/referenceRuns.csv, the errors with
+ * SWMM5 to build/reports/regression/referenceErrors.csv, the metrics of all the runs to
+ * build/reports/regression/metrics.txt.
+ */
+public class ReferenceRunsTest {
+
+    private static final String UPDATE_PROPERTY = "regression.update";
+    private static final String REPORT_FILE = "build/reports/regression/referenceRuns.csv";
+    private static final String METRICS_FILE = "build/reports/regression/metrics.txt";
+    private static final String ERRORS_FILE = "build/reports/regression/referenceErrors.csv";
+
+    /**
+     * Tolerance with the baseline relative to the peak of the hydrograph, above the float rounding of the file
+     */
+    private static final double BASELINE_TOLERANCE = 1.0e-6;
+
+    private static final List<String> report = new ArrayList<>();
+    private static final List<String> errors = new ArrayList<>();
+    private static boolean metricsEnabled;
+
+    @Test
+    public void network12() throws IOException {
+        check("data/testingData/network12/network12", 0.10, 0.20, 0.12, 0.155);
+    }
+
+    @Test
+    public void runoffRouting() throws IOException {
+        check("data/testingData/runoffRoutingTesting/runoffRouting", 0.01, 0.01, 0.001, 0.012);
+    }
+
+    @BeforeClass
+    public static void enableMetrics() {
+        metricsEnabled = Metrics.isEnabled();
+        Metrics.reset();
+        Metrics.setEnabled(true);
+    }
+
+    @AfterClass
+    public static void writeReport() throws IOException {
+        Metrics.setEnabled(metricsEnabled);
+        File file = new File(REPORT_FILE);
+        if (!file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()) {
+            throw new IOException("Cannot create " + file.getParent());
+        }
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            writer.println("case,elapsedMillis,allocatedBytes");
+            report.forEach(writer::println);
+        }
+        try (PrintWriter writer = new PrintWriter(ERRORS_FILE, StandardCharsets.UTF_8.name())) {
+            writer.println("series,peakError,volumeError");
+            errors.forEach(writer::println);
+        }
+        try (PrintWriter writer = new PrintWriter(METRICS_FILE, StandardCharsets.UTF_8.name())) {
+            writer.print(Metrics.report());
+        }
+    }
+
+    /**
+     * @param path          input, SWMM5 results and baseline share it, with .INP, .out and .jswmm.out extensions
+     * @param runoffPeak    tolerance on the relative error of the subcatchment runoff peaks
+     * @param runoffVolume  tolerance on the relative error of the subcatchment runoff volumes
+     * @param linkPeak      tolerance on the relative error of the link flow peaks
+     * @param linkVolume    tolerance on the relative error of the link flow volumes
+     */
+    private static void check(String path, double runoffPeak, double runoffVolume, double linkPeak,
+                              double linkVolume) throws IOException {
+
+        ReferenceRun run = new ReferenceRun(path + ".INP").run();
+        report.add(String.format(Locale.ROOT, "%s,%.3f,%d", new File(path).getName(),
+                run.getElapsedNanos() * 1.0e-6, run.getAllocatedBytes()));
+
+        List<String> subcatchments;
+        List<String> links;
+        double[][] runoff;
+        double[][] flows;
+        try (ReadSWMM5OutFile reference = new ReadSWMM5OutFile(path + ".out")) {
+            subcatchments = reference.getSubcatchmentNames();
+            links = reference.getLinkNames();
+            runoff = new double[subcatchments.size()][];
+            for (int index = 0; index < runoff.length; index++) {
+                String name = subcatchments.get(index);
+                runoff[index] = onReportSteps(run.getRunoffFlowRates().get(name), reference);
+                compare("Subcatchment " + name, runoff[index],
+                        reference.getSubcatchmentSeries(name, ReadSWMM5OutFile.SUBCATCHMENT_RUNOFF),
+                        runoffPeak, runoffVolume);
+            }
+            flows = new double[links.size()][];
+            for (int index = 0; index < flows.length; index++) {
+                String name = links.get(index);
+                flows[index] = onReportSteps(run.getRoutingFlowRates().get(name), reference);
+                compare("Link " + name, flows[index], reference.getLinkSeries(name, ReadSWMM5OutFile.LINK_FLOW),
+                        linkPeak, linkVolume);
+            }
+
+            File baseline = new File(path + ".jswmm.out");
+            if (Boolean.getBoolean(UPDATE_PROPERTY)) {
+                writeBaseline(baseline, reference, subcatchments, runoff, links, flows);
+                return;
+            }
+            assertTrue("Missing baseline " + baseline + ", run with -D" + UPDATE_PROPERTY + "=true to write it",
+                    baseline.exists());
+        }
+
+        try (ReadSWMM5OutFile baseline = new ReadSWMM5OutFile(path + ".jswmm.out")) {
+            for (int index = 0; index < runoff.length; index++) {
+                String name = subcatchments.get(index);
+                matchBaseline("Subcatchment " + name, runoff[index],
+                        baseline.getSubcatchmentSeries(name, ReadSWMM5OutFile.SUBCATCHMENT_RUNOFF));
+            }
+            for (int index = 0; index < flows.length; index++) {
+                String name = links.get(index);
+                matchBaseline("Link " + name, flows[index],
+                        baseline.getLinkSeries(name, ReadSWMM5OutFile.LINK_FLOW));
+            }
+        }
+    }
+
+    /**
+     * Values of a jswmm series, linearly interpolated at the report times of the SWMM5 results
+     */
+    private static double[] onReportSteps(TimeSeries series, ReadSWMM5OutFile reference) {
+        if (series == null) {
+            throw new IllegalArgumentException("No jswmm result for a series of the SWMM5 results");
+        }
+        int periods = reference.getPeriods();
+        TimeSeries resampled = new Resampler(ResamplingMethod.LINEAR, series, reference.getStartTime(),
+                reference.getTime(periods - 1), reference.getReportStepSize()).resample(series);
+
+        double[] values = new double[periods];
+        for (int period = 0; period < periods; period++) {
+            values[period] = resampled.get(1, period + 1);
+        }
+        return values;
+    }
+
+    private static void compare(String series, double[] evaluated, double[] reference, double peakTolerance,
+                                double volumeTolerance) {
+        double peakError = relativeError(peak(evaluated), peak(reference));
+        double volumeError = relativeError(sum(evaluated), sum(reference));
+        errors.add(String.format(Locale.ROOT, "%s,%.4f,%.4f", series, peakError, volumeError));
+
+        assertTrue(series + " peak error " + peakError, peakError <= peakTolerance);
+        assertTrue(series + " volume error " + volumeError, volumeError <= volumeTolerance);
+    }
+
+    private static void matchBaseline(String series, double[] evaluated, double[] baseline) {
+        double tolerance = BASELINE_TOLERANCE * Math.max(peak(baseline), Double.MIN_NORMAL);
+        for (int period = 0; period < evaluated.length; period++) {
+            assertTrue(series + " differs from the baseline at period " + period + ": " + evaluated[period] +
+                    " instead of " + baseline[period], Math.abs(evaluated[period] - baseline[period]) <= tolerance);
+        }
+    }
+
+    private static void writeBaseline(File file, ReadSWMM5OutFile reference, List<String> subcatchments,
+                                      double[][] runoff, List<String> links, double[][] flows) throws IOException {
+        try (WriteSWMM5OutFile writer = new WriteSWMM5OutFile(file.getPath(), UnitsSWMM.CMS,
+                reference.getStartTime(), reference.getReportStepSize())) {
+            for (String name : subcatchments) {
+                writer.addSubcatchment(name, 0.0);
+            }
+            for (String name : links) {
+                writer.addLink(name, WriteSWMM5OutFile.CONDUIT, 0.0, 0.0, 0.0, 0.0);
+            }
+
+            double[] subcatchmentValues = new double[subcatchments.size() * WriteSWMM5OutFile.SUBCATCHMENT_VARIABLES];
+            double[] linkValues = new double[links.size() * WriteSWMM5OutFile.LINK_VARIABLES];
+            for (int period = 0; period < reference.getPeriods(); period++) {
+                for (int index = 0; index < runoff.length; index++) {
+                    subcatchmentValues[index * WriteSWMM5OutFile.SUBCATCHMENT_VARIABLES +
+                            ReadSWMM5OutFile.SUBCATCHMENT_RUNOFF] = runoff[index][period];
+                }
+                for (int index = 0; index < flows.length; index++) {
+                    linkValues[index * WriteSWMM5OutFile.LINK_VARIABLES + ReadSWMM5OutFile.LINK_FLOW] =
+                            flows[index][period];
+                }
+                writer.writePeriod(reference.getTime(period), subcatchmentValues, new double[0], linkValues,
+                        new double[WriteSWMM5OutFile.SYSTEM_VARIABLES]);
+            }
+        }
+    }
+
+    private static double peak(double[] values) {
+        double peak = 0.0;
+        for (double value : values) {
+            peak = Math.max(peak, Math.abs(value));
+        }
+        return peak;
+    }
+
+    private static double sum(double[] values) {
+        double sum = 0.0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    private static double relativeError(double evaluated, double reference) {
+        return reference == 0.0 ? Math.abs(evaluated) : Math.abs(evaluated - reference) / Math.abs(reference);
+    }
+}
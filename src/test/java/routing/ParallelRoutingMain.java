@@ -0,0 +1,106 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package routing;
+
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.Conduit;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.OutsideSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.Circular;
+import com.github.geoframecomponents.jswmm.dataStructure.routingDS.RoutingSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.routingDS.RoutingSteadySetup;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import com.github.geoframecomponents.jswmm.routing.ConduitNetwork;
+import com.github.geoframecomponents.jswmm.routing.NetworkScheduler;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Scaling of the network scheduler on a synthetic binary tree of conduits.
+ */
+@Ignore
+public class ParallelRoutingMain {
+
+    private static final int LINKS = 10000;
+    private static final int SCENARIOS = 3;
+    private static final Instant START = Instant.parse("2018-01-01T00:00:00Z");
+    private static final Instant END = Instant.parse("2018-01-01T01:00:00Z");
+    private static final long STEP = 30L;
+    private static final int REPETITIONS = 5;
+    private static final int MAX_PARALLELISM = 8;
+
+    @Test
+    public void execute() {
+        TimeSeries lateralInflow = new TimeSeries(START, STEP);
+        int steps = (int) ((END.getEpochSecond() - START.getEpochSecond()) / STEP) + 1;
+        for (int id = 1; id <= SCENARIOS; id++) {
+            for (int step = 0; step < steps; step++) {
+                lateralInflow.set(id, step, 1.0e-5 * id * Math.sin(Math.PI * step / steps));
+            }
+        }
+
+        double sequentialTime = 0.0;
+        for (int parallelism = 1; parallelism <= MAX_PARALLELISM; parallelism *= 2) {
+            double best = Double.MAX_VALUE;
+            for (int repetition = 0; repetition < REPETITIONS; repetition++) {
+                Map<String, Conduit> conduits = binaryTree(new RoutingSteadySetup(STEP));
+                ConduitNetwork network = new ConduitNetwork(conduits);
+
+                long start = System.nanoTime();
+                new NetworkScheduler(parallelism).execute(network, linkName -> route(conduits, network,
+                        lateralInflow, linkName));
+                best = Math.min(best, (System.nanoTime() - start) / 1.0e6);
+            }
+            if (parallelism == 1) {
+                sequentialTime = best;
+            }
+            System.out.println(String.format("links %d, threads %d: %.1f ms, speedup %.2f", LINKS, parallelism,
+                    best, sequentialTime / best));
+        }
+    }
+
+    private static void route(Map<String, Conduit> conduits, ConduitNetwork network, TimeSeries lateralInflow,
+                              String linkName) {
+        Conduit conduit = conduits.get(linkName);
+        conduit.getUpstreamOutside().sumStreamFlowRate(lateralInflow);
+        for (String upstreamLink : network.getUpstreamLinks(linkName)) {
+            conduit.getUpstreamOutside().sumStreamFlowRate(conduits.get(upstreamLink).getDownstreamFlowRate());
+        }
+
+        Instant currentTime = START;
+        while (!currentTime.isAfter(END)) {
+            conduit.evaluateFlowRate(currentTime);
+            currentTime = currentTime.plusSeconds(STEP);
+        }
+    }
+
+    /**
+     * Link i drains into link i / 2, link 1 into the outfall.
+     */
+    private static Map<String, Conduit> binaryTree(RoutingSetup routingSetup) {
+        Map<String, Conduit> conduits = new HashMap<>();
+        for (int link = 1; link <= LINKS; link++) {
+            String downstreamNode = link == 1 ? "OUT" : "N" + (link / 2);
+            OutsideSetup upstream = new OutsideSetup("N" + link, 0.0, 0.9, 0.0, 0.0, 0.0, START, STEP);
+            OutsideSetup downstream = new OutsideSetup(downstreamNode, 0.0, 0.9, 0.0, 0.0, 0.0, START, STEP);
+            conduits.put(String.valueOf(link), new Conduit(routingSetup, new Circular(1.0), upstream, downstream,
+                    100.0, 120.0, 0.005));
+        }
+        return conduits;
+    }
+}
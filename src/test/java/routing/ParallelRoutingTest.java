@@ -0,0 +1,127 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package routing;
+
+import com.github.geoframecomponents.jswmm.dataStructure.SWMMobject;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.Conduit;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.OutsideSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import com.github.geoframecomponents.jswmm.routing.ConduitNetwork;
+import com.github.geoframecomponents.jswmm.routing.ParallelRouting;
+import com.github.geoframecomponents.jswmm.runoff.ParallelRunoff;
+import com.github.geoframecomponents.jswmm.runoff.PreRunoff;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelRoutingTest {
+
+    @Test
+    public void groupsLinksByTopologicalLevel() {
+        ConduitNetwork network = new ConduitNetwork(new SWMMobject().getConduits());
+
+        assertEquals(Arrays.asList("11", "12", "14", "15", "18", "19"), network.getLevels().get(0));
+        assertEquals(Arrays.asList("13", "16"), network.getLevels().get(1));
+        assertEquals(Arrays.asList("17"), network.getLevels().get(2));
+        assertEquals(Arrays.asList("20"), network.getLevels().get(3));
+        assertEquals(Arrays.asList("13", "16"), network.getUpstreamLinks("17"));
+        assertEquals(Arrays.asList("17", "18", "19"), network.getUpstreamLinks("20"));
+        assertEquals(Arrays.asList("11", "12", "13"), network.getSubtree("13"));
+    }
+
+    @Test
+    public void indexesLinksByName() {
+        ConduitNetwork network = new ConduitNetwork(new SWMMobject().getConduits());
+
+        for (String linkName : network.getLinks()) {
+            int link = network.indexOf(linkName);
+            assertEquals(linkName, network.getLinkName(link));
+            assertEquals(network.getUpstreamLinks(linkName), names(network, network.getUpstreamLinks(link)));
+            assertEquals(network.getDownstreamLinks(linkName), names(network, network.getDownstreamLinks(link)));
+            assertEquals(network.getSubtree(linkName), names(network, network.getSubtree(link)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDiversions() {
+        SWMMobject dataStructure = new SWMMobject();
+        Map<String, Conduit> conduits = new HashMap<>(dataStructure.getConduits());
+        Conduit conduit = conduits.get("11");
+        conduits.put("21", new Conduit(null, null, conduit.getUpstreamOutside(), new OutsideSetup("diversion",
+                0.0, 0.9, 0.0, 0.0, 0.0, dataStructure.getTimeSetup().getStartDate(), 30L), 100.0, 0.01));
+
+        new ConduitNetwork(conduits);
+    }
+
+    @Test
+    public void matchesSequentialScheduling() {
+        HashMap<String, TimeSeries> sequential = route(1);
+        HashMap<String, TimeSeries> parallel = route(4);
+
+        assertEquals(sequential.keySet(), parallel.keySet());
+        for (String linkName : sequential.keySet()) {
+            TimeSeries expected = sequential.get(linkName);
+            TimeSeries actual = parallel.get(linkName);
+            assertEquals(expected.getSize(), actual.getSize());
+            for (Integer id : expected.getScenarios()) {
+                for (int step = 0; step < expected.getSize(); step++) {
+                    assertEquals(expected.get(id, step), actual.get(id, step), 0.0);
+                }
+            }
+        }
+    }
+
+    private static List<String> names(ConduitNetwork network, int[] links) {
+        List<String> names = new ArrayList<>();
+        for (int link : links) {
+            names.add(network.getLinkName(link));
+        }
+        return names;
+    }
+
+    private static HashMap<String, TimeSeries> route(int parallelism) {
+        SWMMobject data = new SWMMobject();
+
+        PreRunoff preRunoff = new PreRunoff();
+        preRunoff.dataStructure = data;
+        preRunoff.areaName = "1";
+        preRunoff.run();
+
+        ParallelRunoff runoff = new ParallelRunoff();
+        runoff.dataStructure = data;
+        runoff.adaptedRainfallData = preRunoff.getAdaptedRainfallData();
+        runoff.parallelism = parallelism;
+        runoff.run();
+
+        // areas 1 and 2 drain into junctions J1 and J2
+        Map<String, TimeSeries> inflows = new HashMap<>();
+        inflows.put("11", runoff.runoffFlowRate.get("1"));
+        inflows.put("12", runoff.runoffFlowRate.get("2"));
+
+        ParallelRouting routing = new ParallelRouting();
+        routing.dataStructure = data;
+        routing.inflows = inflows;
+        routing.parallelism = parallelism;
+        routing.run();
+        return routing.routingFlowRate;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package routing;
+
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.pipeSize.Lucchese_ca;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.pipeSize.PipeCatalog;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class PipeCatalogTest {
+
+    @Test
+    public void selectsTheSmallestWiderPipe() {
+        Lucchese_ca catalog = new Lucchese_ca();
+        assertArrayEquals(new double[]{0.4, 0.51}, catalog.getCommercialDiameter(0.1), 0.0);
+        assertArrayEquals(new double[]{0.5, 0.62}, catalog.getCommercialDiameter(0.45), 0.0);
+        assertArrayEquals(new double[]{0.6, 0.74}, catalog.getCommercialDiameter(0.5), 0.0);
+        assertArrayEquals(new double[]{1.2, 1.44}, catalog.getCommercialDiameter(1.1), 0.0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void rejectsDiametersBeyondTheCatalog() {
+        new Lucchese_ca().getCommercialDiameter(1.2);
+    }
+
+    @Test
+    public void readsOneMaterialOfACsvCatalog() throws IOException {
+        String csv = "material,inner,outer\n" +
+                "# unsorted on purpose\n" +
+                "PVC,302.6,315.0\n" +
+                "concrete,500.0,620.0\n" +
+                "PVC,153.6,160.0\n" +
+                "\n" +
+                "pvc,240.2,250.0\n";
+
+        PipeCatalog pvc = PipeCatalog.readCsv(new StringReader(csv), "PVC");
+        assertEquals(3, pvc.size());
+        assertArrayEquals(new double[]{0.2402, 0.25}, pvc.getCommercialDiameter(0.2), 0.0);
+
+        PipeCatalog all = PipeCatalog.readCsv(new StringReader(csv), null);
+        assertEquals(4, all.size());
+        assertArrayEquals(new double[]{0.5, 0.62}, all.getCommercialDiameter(0.31), 0.0);
+    }
+
+    @Test
+    public void matchesALinearScanOnALargeCatalog() {
+        Random random = new Random(7);
+        double[] inner = new double[5000];
+        double[] outer = new double[inner.length];
+        for (int pipe = 0; pipe < inner.length; pipe++) {
+            inner[pipe] = Math.rint(10.0 + 3000.0 * random.nextDouble());
+            outer[pipe] = inner[pipe] * 1.1;
+        }
+        PipeCatalog catalog = new PipeCatalog(inner, outer);
+
+        for (int design = 0; design < 1000; design++) {
+            double designed = 3.0 * random.nextDouble();
+            double best = Double.POSITIVE_INFINITY;
+            for (double diameter : inner) {
+                if (diameter > designed * 1000.0 && diameter < best) {
+                    best = diameter;
+                }
+            }
+            if (best < Double.POSITIVE_INFINITY) {
+                assertEquals(best / 1000.0, catalog.getCommercialDiameter(designed)[0], 0.0);
+            }
+        }
+    }
+}
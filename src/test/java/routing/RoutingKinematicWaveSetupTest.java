@@ -0,0 +1,89 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package routing;
+
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.OutsideSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.Circular;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.CrossSectionType;
+import com.github.geoframecomponents.jswmm.dataStructure.routingDS.RoutedFlow;
+import com.github.geoframecomponents.jswmm.dataStructure.routingDS.RoutingKinematicWaveSetup;
+import org.junit.Test;
+
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RoutingKinematicWaveSetupTest {
+
+    private static final Instant START = Instant.parse("2018-01-01T00:00:00Z");
+    private static final long STEP = 30L;
+    private static final int STEPS = 240;
+
+    private static final double LENGTH = 300.0;
+    private static final double ROUGHNESS = 70.0;
+    private static final double SLOPE = 0.005;
+
+    @Test
+    public void attenuatesAndConservesAPulse() {
+        RoutingKinematicWaveSetup routingSetup = new RoutingKinematicWaveSetup(STEP, 1.0e-6);
+        CrossSectionType crossSection = new Circular(0.6);
+        OutsideSetup upstream = new OutsideSetup("up", 0.0, 0.8, 0.0, 0.0, 0.0, START, STEP);
+        OutsideSetup downstream = new OutsideSetup("down", 0.0, 0.8, 0.0, 0.0, 0.0, START, STEP);
+
+        double inflowVolume = 0.0;
+        double outflowVolume = 0.0;
+        double inflowPeak = 0.0;
+        double outflowPeak = 0.0;
+        for (int step = 0; step < STEPS; step++) {
+            Instant time = START.plusSeconds(step * STEP);
+            double inflow = step < 20 ? 0.01 * step : Math.max(0.0, 0.2 - 0.01 * (step - 20));
+            upstream.setFlowRate(1, time, inflow);
+
+            RoutedFlow routedFlow = routingSetup.routeFlowRate(1, time, inflow, upstream, downstream,
+                    LENGTH, ROUGHNESS, SLOPE, crossSection);
+            downstream.setFlowRate(1, routedFlow.getTime(), routedFlow.getValue());
+
+            assertEquals(time, routedFlow.getTime());
+            inflowVolume += inflow * STEP;
+            outflowVolume += routedFlow.getValue() * STEP;
+            inflowPeak = Math.max(inflowPeak, inflow);
+            outflowPeak = Math.max(outflowPeak, routedFlow.getValue());
+        }
+
+        assertTrue(outflowPeak < inflowPeak);
+        assertEquals(inflowVolume, outflowVolume, 0.05 * inflowVolume);
+    }
+
+    @Test
+    public void reachesTheSteadyState() {
+        RoutingKinematicWaveSetup routingSetup = new RoutingKinematicWaveSetup(STEP, 1.0e-6);
+        CrossSectionType crossSection = new Circular(0.6);
+        OutsideSetup upstream = new OutsideSetup("up", 0.0, 0.8, 0.0, 0.0, 0.0, START, STEP);
+        OutsideSetup downstream = new OutsideSetup("down", 0.0, 0.8, 0.0, 0.0, 0.0, START, STEP);
+
+        double outflow = 0.0;
+        for (int step = 0; step < STEPS; step++) {
+            Instant time = START.plusSeconds(step * STEP);
+            double inflow = step == 0 ? 0.0 : 0.15;
+            upstream.setFlowRate(1, time, inflow);
+            outflow = routingSetup.routeFlowRate(1, time, inflow, upstream, downstream,
+                    LENGTH, ROUGHNESS, SLOPE, crossSection).getValue();
+            downstream.setFlowRate(1, time, outflow);
+        }
+        assertEquals(0.15, outflow, 1.0e-6);
+    }
+}
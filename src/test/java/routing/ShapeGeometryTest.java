@@ -0,0 +1,86 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package routing;
+
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.Circular;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.Egg;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.Horseshoe;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.Rectangular;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.ShapeGeometry;
+import com.github.geoframecomponents.jswmm.dataStructure.hydraulics.linkObjects.crossSections.Trapezoidal;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ShapeGeometryTest {
+
+    @Test
+    public void tabulatesTheCircle() {
+        ShapeGeometry geometry = new Circular(1.0).getGeometry();
+
+        assertEquals(Math.PI / 4, geometry.getAreaFull(), 1.0e-12);
+        assertEquals(0.25, geometry.getHydraulicRadiusFull(), 1.0e-12);
+        for (double depth = 0.05; depth < 1.0; depth += 0.05) {
+            double theta = 2 * Math.acos(1 - 2 * depth);
+            double area = (theta - Math.sin(theta)) / (2 * Math.PI);
+            double hydraulicRadius = 1 - Math.sin(theta) / theta;
+            double sectionFactor = area * Math.pow(hydraulicRadius, 2.0 / 3.0);
+
+            assertEquals(area, geometry.getArea(depth), 1.0e-4);
+            assertEquals(hydraulicRadius, geometry.getHydraulicRadius(depth), 1.0e-4);
+            assertEquals(sectionFactor, geometry.getSectionFactor(depth), 1.0e-4);
+            assertEquals(2 * Math.sqrt(depth * (1 - depth)), geometry.getWidth(depth), 1.0e-3);
+            assertEquals(sectionFactor, geometry.getSectionFactorOfArea(area), 1.0e-3);
+            assertEquals(depth, geometry.getDepthOfArea(area), 1.0e-3);
+            if (depth < 0.9) {
+                assertEquals(area, geometry.getAreaOfSectionFactor(sectionFactor), 1.0e-4);
+                assertEquals(depth, geometry.getDepthOfSectionFactor(sectionFactor), 1.0e-3);
+            }
+        }
+        assertEquals(1.0757, geometry.getMaximumSectionFactor(), 1.0e-4);
+        assertEquals(0.0, geometry.getAreaOfSectionFactor(0.0), 0.0);
+    }
+
+    @Test
+    public void integratesStandardShapes() {
+        ShapeGeometry egg = new Egg(1.0).getGeometry();
+        assertEquals(0.5105, egg.getAreaFull(), 1.0e-4);
+        assertEquals(0.1931, egg.getHydraulicRadiusFull(), 1.0e-4);
+        assertEquals(2.0 / 3.0, egg.getWidth(2.0 / 3.0), 1.0e-6);
+
+        ShapeGeometry horseshoe = new Horseshoe(1.0).getGeometry();
+        assertEquals(0.8293, horseshoe.getAreaFull(), 1.0e-4);
+        assertEquals(1.0, horseshoe.getWidth(0.5), 1.0e-6);
+
+        ShapeGeometry trapezoid = new Trapezoidal(1.0, 2.0, 1.0, 0.5).getGeometry();
+        assertEquals(2.75, trapezoid.getAreaFull(), 1.0e-12);
+        assertEquals(2.75 / (2.0 + Math.sqrt(2.0) + Math.sqrt(1.25)), trapezoid.getHydraulicRadiusFull(), 1.0e-12);
+        assertEquals(1.0, trapezoid.getMaximumSectionFactor(), 1.0e-12);
+    }
+
+    @Test
+    public void sharesTablesAmongSectionsOfTheSameShape() {
+        assertSame(new Circular(0.3).getGeometry(), new Circular(2.0, 2.2).getGeometry());
+        assertSame(new Rectangular(1.0, 2.0).getGeometry(), new Rectangular(0.5, 1.0).getGeometry());
+        assertEquals(2.0, new Rectangular(0.5, 1.0).getGeometry().getAreaFull(), 1.0e-12);
+
+        Rectangular rectangular = new Rectangular(1.0, 2.0);
+        rectangular.setDimensions(1.5, 1.7);
+        assertEquals(3.0, rectangular.getWidth(), 1.0e-12);
+        assertEquals(4.5, rectangular.getAreaFull(), 1.0e-12);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package runoff;
+
+import com.github.geoframecomponents.jswmm.dataStructure.SWMMobject;
+import com.github.geoframecomponents.jswmm.dataStructure.hydrology.subcatchment.Area;
+import com.github.geoframecomponents.jswmm.dataStructure.hydrology.subcatchment.Subarea;
+import com.github.geoframecomponents.jswmm.dataStructure.runoffDS.RunoffSetup;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import com.github.geoframecomponents.jswmm.runoff.PreRunoff;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class AreaScenariosTest {
+
+    @Test
+    public void advancesAllCurvesAsEachCurveAlone() {
+        SWMMobject scalarData = new SWMMobject();
+        SWMMobject vectorData = new SWMMobject();
+
+        PreRunoff preRunoff = new PreRunoff();
+        preRunoff.dataStructure = scalarData;
+        preRunoff.areaName = "1";
+        preRunoff.run();
+        TimeSeries rainfall = preRunoff.getAdaptedRainfallData();
+
+        RunoffSetup runoffSetup = scalarData.getRunoffSetup();
+        Instant start = scalarData.getTimeSetup().getStartDate();
+        Instant end = scalarData.getTimeSetup().getEndDate();
+
+        Area scalarArea = scalarData.getAreas("1");
+        Double slope = 0.01;
+        Double width = 100.0;
+        for (Instant time = start; time.isBefore(end); time = time.plusSeconds(runoffSetup.getRunoffStepSize())) {
+            for (Integer id : rainfall.getScenarios()) {
+                for (Subarea subarea : scalarArea.getSubareas().get(id)) {
+                    subarea.setDepthFactor(slope, width);
+                    subarea.evaluateFlowRate(id, rainfall.get(id, time), 0.0, time, runoffSetup, slope, width);
+                }
+            }
+        }
+
+        Area vectorArea = vectorData.getAreas("1");
+        assertSame(vectorArea.getSubareas().get(1), vectorArea.getSubareas().get(3));
+        vectorArea.evaluateRunoffFlowRate(rainfall, runoffSetup, start, end);
+
+        List<Subarea> expected = scalarArea.getSubareas().get(1);
+        List<Subarea> actual = vectorArea.getSubareas().get(1);
+        for (int subarea = 0; subarea < expected.size(); subarea++) {
+            TimeSeries expectedFlowRate = expected.get(subarea).getFlowRate();
+            TimeSeries actualFlowRate = actual.get(subarea).getFlowRate();
+            assertEquals(expectedFlowRate.getSize(), actualFlowRate.getSize());
+            for (Integer id : rainfall.getScenarios()) {
+                for (int step = 0; step < expectedFlowRate.getSize(); step++) {
+                    assertEquals(expectedFlowRate.get(id, step), actualFlowRate.get(id, step), 0.0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package runoff;
+
+import com.github.geoframecomponents.jswmm.runoff.DormandPrince54;
+import com.github.geoframecomponents.jswmm.runoff.RunoffODE;
+import org.apache.commons.math3.ode.nonstiff.DormandPrince54Integrator;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DormandPrince54Test {
+
+    private static final double MINIMUM_STEP = 1.0e-8;
+    private static final double MAXIMUM_STEP = 1.0e+3;
+    private static final double TOLERANCE = 1.0e-5;
+
+    @Test
+    public void matchesCommonsMathIntegrator() {
+        DormandPrince54 kernel = new DormandPrince54(MINIMUM_STEP, MAXIMUM_STEP, TOLERANCE, TOLERANCE);
+        DormandPrince54Integrator reference = new DormandPrince54Integrator(MINIMUM_STEP, MAXIMUM_STEP,
+                TOLERANCE, TOLERANCE);
+
+        double initialTime = 1514764800.0;
+        double[] precipitations = {0.0, 1.0e-3, 0.0167, 0.05};
+        double[] depths = {0.0, 1.0e-4, 0.3, 2.0};
+        double[] depthFactors = {1.0e-6, 1.0e-4, 1.0e-2};
+
+        for (double precipitation : precipitations) {
+            for (double depth : depths) {
+                for (double depthFactor : depthFactors) {
+                    double[] expected = new double[1];
+                    reference.integrate(new RunoffODE(precipitation, depthFactor), initialTime,
+                            new double[]{depth}, initialTime + 60.0, expected);
+
+                    double actual = kernel.integrate(precipitation, depthFactor, initialTime, depth,
+                            initialTime + 60.0);
+
+                    assertEquals(expected[0], actual, 1.0e-12 * Math.max(1.0, Math.abs(expected[0])));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package runoff;
+
+import com.github.geoframecomponents.jswmm.dataStructure.options.ManningPowers;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ManningPowersTest {
+
+    @Test
+    public void staysWithinTheErrorBound() {
+        Random random = new Random(1);
+        for (int sample = 0; sample < 100000; sample++) {
+            double x = Math.pow(10.0, -12.0 + 24.0 * random.nextDouble());
+            double fiveThirds = Math.pow(x, 5.0 / 3.0);
+            double twoThirds = Math.pow(x, 2.0 / 3.0);
+            assertEquals(fiveThirds, ManningPowers.fastFiveThirds(x),
+                    ManningPowers.MAXIMUM_RELATIVE_ERROR * fiveThirds);
+            assertEquals(twoThirds, ManningPowers.fastTwoThirds(x),
+                    ManningPowers.MAXIMUM_RELATIVE_ERROR * twoThirds);
+        }
+    }
+
+    @Test
+    public void keepsSpecialValues() {
+        assertEquals(32.0, ManningPowers.fastFiveThirds(8.0), 0.0);
+        assertEquals(0.0, ManningPowers.fastFiveThirds(0.0), 0.0);
+        assertTrue(Double.isNaN(ManningPowers.fastTwoThirds(-1.0)));
+        assertEquals(Double.POSITIVE_INFINITY, ManningPowers.fastFiveThirds(Double.POSITIVE_INFINITY), 0.0);
+    }
+}
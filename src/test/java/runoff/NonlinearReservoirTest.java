@@ -0,0 +1,83 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package runoff;
+
+import com.github.geoframecomponents.jswmm.runoff.AbstractRunoffMethod;
+import com.github.geoframecomponents.jswmm.runoff.DormandPrince54;
+import com.github.geoframecomponents.jswmm.runoff.NonlinearReservoir;
+import com.github.geoframecomponents.jswmm.runoff.RunoffODE;
+import org.apache.commons.math3.ode.nonstiff.DormandPrince54Integrator;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Accuracy of the runoff methods against a tight tolerance Dormand-Prince integration.
+ */
+public class NonlinearReservoirTest {
+
+    private static final double MINIMUM_STEP = 1.0e-8;
+    private static final double MAXIMUM_STEP = 1.0e+3;
+    private static final double TOLERANCE = 1.0e-5;
+    private static final double STEP = 60.0;
+
+    private static final double[] PRECIPITATIONS = {1.0e-9, 1.0e-7, 1.0e-6, 1.0e-5, 1.0e-4, 1.0e-3, 0.0167, 0.05};
+    private static final double[] DEPTHS = {0.0, 1.0e-6, 1.0e-4, 1.0e-3, 0.01, 0.1, 0.3, 1.0, 2.0, 10.0};
+    private static final double[] DEPTH_FACTORS = {1.0e-6, 1.0e-4, 1.0e-3, 1.0e-2, 0.1, 1.0};
+
+    private final DormandPrince54Integrator reference = new DormandPrince54Integrator(1.0e-14, MAXIMUM_STEP,
+            1.0e-15, 1.0e-13);
+
+    @Test
+    public void isAtLeastAsAccurateAsDormandPrince() {
+        double nonlinearReservoirError = maximumRelativeError(new NonlinearReservoir(MINIMUM_STEP, MAXIMUM_STEP,
+                TOLERANCE, TOLERANCE));
+        double dormandPrinceError = maximumRelativeError(new DormandPrince54(MINIMUM_STEP, MAXIMUM_STEP,
+                TOLERANCE, TOLERANCE));
+
+        assertTrue("NONLINEAR_RESERVOIR error " + nonlinearReservoirError, nonlinearReservoirError < 1.0e-8);
+        assertTrue("NONLINEAR_RESERVOIR error " + nonlinearReservoirError + ", DP54 error " + dormandPrinceError,
+                nonlinearReservoirError <= dormandPrinceError);
+    }
+
+    @Test
+    public void followsTheRecessionCurve() {
+        NonlinearReservoir method = new NonlinearReservoir(MINIMUM_STEP, MAXIMUM_STEP, TOLERANCE, TOLERANCE);
+        double expected = Math.pow(Math.pow(0.5, -2.0 / 3.0) + 2.0 / 3.0 * 1.0e-2 * STEP, -1.5);
+
+        assertEquals(expected, method.integrate(0.0, 1.0e-2, 0.0, 0.5, STEP), 1.0e-15);
+        assertEquals(0.0, method.integrate(0.0, 1.0e-2, 0.0, 0.0, STEP), 0.0);
+    }
+
+    private double maximumRelativeError(AbstractRunoffMethod method) {
+        double maximum = 0.0;
+        for (double precipitation : PRECIPITATIONS) {
+            for (double depth : DEPTHS) {
+                for (double depthFactor : DEPTH_FACTORS) {
+                    double[] expected = new double[1];
+                    reference.integrate(new RunoffODE(precipitation, depthFactor), 0.0, new double[]{depth},
+                            STEP, expected);
+
+                    double actual = method.integrate(precipitation, depthFactor, 0.0, depth, STEP);
+                    double scale = Math.max(1.0e-12, Math.abs(expected[0]));
+                    maximum = Math.max(maximum, Math.abs(actual - expected[0]) / scale);
+                }
+            }
+        }
+        return maximum;
+    }
+}
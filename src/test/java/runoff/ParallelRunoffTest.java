@@ -0,0 +1,64 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package runoff;
+
+import com.github.geoframecomponents.jswmm.dataStructure.SWMMobject;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import com.github.geoframecomponents.jswmm.runoff.ParallelRunoff;
+import com.github.geoframecomponents.jswmm.runoff.PreRunoff;
+import com.github.geoframecomponents.jswmm.runoff.Runoff;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelRunoffTest {
+
+    @Test
+    public void matchesSequentialRunoff() {
+        SWMMobject sequentialData = new SWMMobject();
+        SWMMobject parallelData = new SWMMobject();
+
+        PreRunoff preRunoff = new PreRunoff();
+        preRunoff.dataStructure = sequentialData;
+        preRunoff.areaName = "1";
+        preRunoff.run();
+        TimeSeries rainfall = preRunoff.getAdaptedRainfallData();
+
+        ParallelRunoff parallelRunoff = new ParallelRunoff();
+        parallelRunoff.dataStructure = parallelData;
+        parallelRunoff.adaptedRainfallData = rainfall;
+        parallelRunoff.parallelism = 4;
+        parallelRunoff.run();
+
+        assertEquals(sequentialData.getAreaNames().size(), parallelRunoff.runoffFlowRate.size());
+        for (String areaName : sequentialData.getAreaNames()) {
+            Runoff runoff = new Runoff();
+            runoff.dataStructure = sequentialData;
+            runoff.areaName = areaName;
+            runoff.adaptedRainfallData = rainfall;
+            runoff.run();
+
+            TimeSeries expected = runoff.runoffFlowRate;
+            TimeSeries actual = parallelRunoff.runoffFlowRate.get(areaName);
+            assertEquals(expected.getSize(), actual.getSize());
+            for (Integer id : expected.getScenarios()) {
+                for (int step = 0; step < expected.getSize(); step++) {
+                    assertEquals(expected.get(id, step), actual.get(id, step), 0.0);
+                }
+            }
+        }
+    }
+}
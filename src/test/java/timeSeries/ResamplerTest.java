@@ -0,0 +1,97 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package timeSeries;
+
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.Resampler;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.ResamplingMethod;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import org.junit.Test;
+
+import java.time.Instant;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ResamplerTest {
+
+    private static final Instant START = Instant.parse("2018-01-01T00:00:00Z");
+    private static final double[] SOURCE = {0.0, 6.0, 3.0, 9.0};
+
+    @Test
+    public void interpolatesWithNonIntegerStepRatio() {
+        double[] target = resample(ResamplingMethod.LINEAR, 60L, 45L, 6);
+
+        assertArrayEquals(new double[]{0.0, 4.5, 4.5, 4.5, 9.0, 9.0}, target, 1.0e-12);
+    }
+
+    @Test
+    public void holdsLastSample() {
+        double[] target = resample(ResamplingMethod.STEP_HOLD, 60L, 45L, 6);
+
+        assertArrayEquals(new double[]{0.0, 0.0, 6.0, 3.0, 9.0, 9.0}, target, 0.0);
+    }
+
+    @Test
+    public void conservesVolume() {
+        // 4 steps of 60 s, i.e. 240 s, on 45 s steps and on 80 s steps
+        double[] finer = resample(ResamplingMethod.VOLUME, 60L, 45L, 6);
+        double[] coarser = resample(ResamplingMethod.VOLUME, 60L, 80L, 3);
+
+        assertEquals(18.0 * 60.0, volume(finer, 45.0, 240.0), 1.0e-9);
+        assertArrayEquals(new double[]{1.5, 4.5, 7.5}, coarser, 1.0e-12);
+    }
+
+    @Test
+    public void resamplesEveryScenario() {
+        TimeSeries source = new TimeSeries(START, 60L);
+        for (int step = 0; step < SOURCE.length; step++) {
+            source.set(1, step, SOURCE[step]);
+            source.set(3, step, 2.0 * SOURCE[step]);
+        }
+
+        TimeSeries target = new Resampler(ResamplingMethod.LINEAR, source, START, START.plusSeconds(180), 30L)
+                .resample(source);
+
+        assertEquals(7, target.getSize());
+        assertEquals(3.0, target.get(1, START.plusSeconds(30)), 0.0);
+        assertEquals(12.0, target.get(3, START.plusSeconds(150)), 0.0);
+        assertEquals(18.0, target.get(3, START.plusSeconds(180)), 0.0);
+    }
+
+    @Test
+    public void accumulatesOnTarget() {
+        double[] target = {1.0, 1.0, 1.0, 1.0, 1.0, 1.0};
+        Resampler resampler = new Resampler(ResamplingMethod.LINEAR, START, 60L, SOURCE.length, START, 45L, 6);
+        resampler.accumulate(SOURCE, target);
+        resampler.accumulate(SOURCE, target);
+
+        assertArrayEquals(new double[]{1.0, 10.0, 10.0, 10.0, 19.0, 19.0}, target, 1.0e-12);
+    }
+
+    private static double[] resample(ResamplingMethod method, long from, long to, int targetSize) {
+        double[] target = new double[targetSize];
+        new Resampler(method, START, from, SOURCE.length, START, to, targetSize).resample(SOURCE, target);
+        return target;
+    }
+
+    private static double volume(double[] values, double stepSize, double span) {
+        double volume = 0.0;
+        for (int k = 0; k < values.length && k * stepSize < span; k++) {
+            volume += values[k] * Math.min(stepSize, span - k * stepSize);
+        }
+        return volume;
+    }
+}
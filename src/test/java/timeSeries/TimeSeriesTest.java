@@ -0,0 +1,138 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package timeSeries;
+
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.StripedAccumulator;
+import com.github.geoframecomponents.jswmm.dataStructure.timeSeries.TimeSeries;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimeSeriesTest {
+
+    private static final Instant START = Instant.parse("2018-01-01T00:00:00Z");
+
+    @Test
+    public void storesByStepAndScenario() {
+        TimeSeries series = new TimeSeries(START, 30L);
+        series.set(2, START.plusSeconds(90), 1.5);
+
+        assertEquals(4, series.getSize());
+        assertEquals(1.5, series.get(2, 3), 0.0);
+        assertEquals(0.0, series.get(2, START), 0.0);
+        assertEquals(0.0, series.get(1, 3), 0.0);
+        assertTrue(series.hasScenario(2));
+        assertFalse(series.hasScenario(1));
+        assertEquals(START.plusSeconds(90), series.getTime(3));
+    }
+
+    @Test
+    public void growsBeyondInitialCapacity() {
+        TimeSeries series = new TimeSeries(START, 60L);
+        for (int step = 0; step < 1000; step++) {
+            series.set(1, step, step);
+        }
+        assertEquals(1000, series.getSize());
+        assertEquals(999.0, series.get(1, START.plusSeconds(999 * 60)), 0.0);
+    }
+
+    @Test
+    public void sumsAlignedSeries() {
+        TimeSeries node = new TimeSeries(START, 30L);
+        node.set(1, 0, 1.0);
+        node.set(1, 1, 1.0);
+
+        TimeSeries inflow = new TimeSeries(START.plusSeconds(30), 30L);
+        inflow.set(1, 0, 2.0);
+        inflow.set(1, 1, 3.0);
+        inflow.set(3, 1, 4.0);
+
+        node.sum(inflow);
+
+        assertEquals(1.0, node.get(1, 0), 0.0);
+        assertEquals(3.0, node.get(1, 1), 0.0);
+        assertEquals(3.0, node.get(1, 2), 0.0);
+        assertEquals(4.0, node.get(3, 2), 0.0);
+    }
+
+    @Test
+    public void sumsRowsShorterThanTheSource() {
+        TimeSeries inflow = new TimeSeries(START, 30L);
+        inflow.set(1, 0, 1.0);
+        inflow.set(2, 199, 2.0);
+
+        TimeSeries node = new TimeSeries(START, 30L);
+        node.sum(inflow);
+
+        assertEquals(200, node.getSize());
+        assertEquals(1.0, node.get(1, 0), 0.0);
+        assertEquals(0.0, node.get(1, 199), 0.0);
+        assertEquals(2.0, node.get(2, 199), 0.0);
+    }
+
+    @Test
+    public void readsValuesWithoutGrowingTheSeries() {
+        TimeSeries series = new TimeSeries(START, 30L);
+        series.set(1, 0, 1.0);
+        series.set(2, 199, 2.0);
+
+        double[] shortRow = series.getValues(1);
+        assertEquals(200, shortRow.length);
+        assertEquals(1.0, shortRow[0], 0.0);
+        assertEquals(0.0, shortRow[199], 0.0);
+        assertEquals(200, series.getValues(3).length);
+        assertEquals(new LinkedHashSet<>(Arrays.asList(1, 2)), series.getScenarios());
+    }
+
+    @Test
+    public void accumulatesConcurrentProducers() throws InterruptedException {
+        TimeSeries series = new TimeSeries(START, 30L);
+        StripedAccumulator accumulator = new StripedAccumulator(series, 4);
+        double[] ones = new double[1000];
+        Arrays.fill(ones, 1.0);
+
+        Thread[] producers = new Thread[4];
+        for (int producer = 0; producer < producers.length; producer++) {
+            int offset = 100 * producer;
+            producers[producer] = new Thread(() -> {
+                for (int repetition = 0; repetition < 50; repetition++) {
+                    accumulator.accumulate(1, offset, ones, ones.length);
+                }
+            });
+            producers[producer].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        series.accumulate(1, 0, ones, 1);
+
+        assertEquals(1300, series.getSize());
+        assertEquals(51.0, series.get(1, 0), 0.0);
+        assertEquals(200.0, series.get(1, 500), 0.0);
+        assertEquals(50.0, series.get(1, 1299), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTimesOutsideTheAxis() {
+        new TimeSeries(START, 60L).set(1, START.plusSeconds(45), 1.0);
+    }
+}